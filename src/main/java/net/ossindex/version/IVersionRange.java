@@ -26,6 +26,9 @@
  */
 package net.ossindex.version;
 
+import java.util.BitSet;
+import java.util.List;
+
 /** Interface that all range implementations need to implement.
  *
  * @author Ken Duck
@@ -39,6 +42,18 @@ public interface IVersionRange
    */
   public abstract boolean contains(IVersion version);
 
+  /**
+   * Check a number of versions at once. Bit i of the result is set if the range
+   * contains versions[i]. The versions do not need to be sorted, but sorted input
+   * (for example every release of a package, in order) is cheapest.
+   */
+  public abstract BitSet containsAll(IVersion[] versions);
+
+  /**
+   * List version of containsAll(IVersion[])
+   */
+  public abstract BitSet containsAll(List<? extends IVersion> versions);
+
   /** Returns true if this range is a simple singular version
    *
    */
@@ -0,0 +1,65 @@
+package net.ossindex.version;
+
+/**
+ * Limits on the work done parsing a single range string. Normal version and
+ * range strings are far inside the limits; they stop garbage input, such as
+ * pages of scraped free text, from taking much longer to parse than real
+ * versions do.
+ *
+ * A string that exceeds the budget is not parsed. A strict factory rejects
+ * it, other factories return it as a named version marked with errors, or
+ * reject it if it cannot be a named version either.
+ */
+public final class ParseBudget
+{
+  /**
+   * Limits used unless a factory is given others.
+   */
+  public static final ParseBudget DEFAULT = new ParseBudget(262144, 8192, 1000000, 0);
+
+  private final int maxLength;
+
+  private final int maxTokens;
+
+  private final long maxSteps;
+
+  private final long maxMillis;
+
+  /**
+   * @param maxLength Longest string that is parsed, in characters
+   * @param maxTokens Most tokens, not counting whitespace
+   * @param maxSteps  Most token lookups made by the parser, including those made
+   *                  while predicting which rule applies
+   * @param maxMillis Longest time to spend parsing, or 0 for no time limit. A time
+   *                  limit makes results depend on the speed of the machine, so
+   *                  the step limit is preferred.
+   */
+  public ParseBudget(int maxLength, int maxTokens, long maxSteps, long maxMillis) {
+    this.maxLength = maxLength;
+    this.maxTokens = maxTokens;
+    this.maxSteps = maxSteps;
+    this.maxMillis = maxMillis;
+  }
+
+  public int getMaxLength() {
+    return maxLength;
+  }
+
+  public int getMaxTokens() {
+    return maxTokens;
+  }
+
+  public long getMaxSteps() {
+    return maxSteps;
+  }
+
+  public long getMaxMillis() {
+    return maxMillis;
+  }
+
+  @Override
+  public String toString() {
+    return "ParseBudget[length=" + maxLength + ", tokens=" + maxTokens + ", steps=" + maxSteps
+        + ", millis=" + maxMillis + "]";
+  }
+}
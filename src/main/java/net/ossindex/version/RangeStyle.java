@@ -0,0 +1,153 @@
+package net.ossindex.version;
+
+/**
+ * The syntax style a version or range string is written in. The style is found
+ * with a single scan over the characters, without parsing, so it is cheap
+ * enough to group or route large numbers of inputs before they are parsed.
+ *
+ * Parsed ranges report their style through IVersionRange.getType().
+ */
+public enum RangeStyle
+{
+  /**
+   * A single version, such as "1.2.3" or "1.2.3-beta"
+   */
+  VERSION("version"),
+
+  /**
+   * A comma separated list of versions, such as "1.2.3,1.2.4"
+   */
+  SET("set"),
+
+  /**
+   * Maven intervals, such as "[1.0,2.0)" or "[1.0],[1.2,)"
+   */
+  MAVEN("maven"),
+
+  /**
+   * npm/semver style comparators, such as ">=1.0.0 <2.0.0" or "<1.2.3"
+   */
+  COMPARATOR("comparator"),
+
+  /**
+   * Ruby pessimistic ranges, such as "~> 1.2" or "~> 1.2, >= 1.2.3"
+   */
+  PESSIMISTIC("pessimistic"),
+
+  /**
+   * Caret ranges, such as "^1.2.3"
+   */
+  CARET("caret"),
+
+  /**
+   * Ranges joined by "||"
+   */
+  UNION("union"),
+
+  /**
+   * Empty input, or input that does not look like any of the other styles
+   */
+  UNKNOWN("unknown");
+
+  private final String type;
+
+  RangeStyle(String type) {
+    this.type = type;
+  }
+
+  /**
+   * The value parsed ranges of this style return from getType()
+   */
+  public String getType() {
+    return type;
+  }
+
+  /**
+   * Find the style of a string in one pass over its characters.
+   */
+  public static RangeStyle classify(String vstring) {
+    if (vstring == null) {
+      return UNKNOWN;
+    }
+    char first = 0;
+    char previous = 0;
+    boolean space = false;
+    boolean innerSpace = false;
+    boolean union = false;
+    boolean bracket = false;
+    boolean compare = false;
+    boolean pessimistic = false;
+    boolean caret = false;
+    boolean comma = false;
+    int length = vstring.length();
+    for (int i = 0; i < length; i++) {
+      char c = vstring.charAt(i);
+      switch (c) {
+        case ' ':
+        case '\t':
+        case '\n':
+        case '\r':
+          space = first != 0;
+          continue;
+        case '|':
+          union = true;
+          break;
+        case '[':
+        case ']':
+        case '(':
+        case ')':
+          bracket = true;
+          break;
+        case '~':
+          if (i + 1 < length && vstring.charAt(i + 1) == '>') {
+            pessimistic = true;
+            i++;
+          }
+          break;
+        case '<':
+        case '>':
+        case '=':
+        case '&':
+          compare = true;
+          break;
+        case '^':
+          caret = true;
+          break;
+        case ',':
+          comma = true;
+          break;
+        default:
+          break;
+      }
+      if (first == 0) {
+        first = c;
+      }
+      // Spaces around a comma still make a list
+      innerSpace |= space && c != ',' && previous != ',';
+      space = false;
+      previous = c;
+    }
+    if (first == 0) {
+      return UNKNOWN;
+    }
+    if (union) {
+      return UNION;
+    }
+    if (bracket && (first == '[' || first == '(') && !compare && !pessimistic && !caret) {
+      return MAVEN;
+    }
+    if (pessimistic) {
+      return PESSIMISTIC;
+    }
+    if (caret) {
+      return compare ? UNKNOWN : CARET;
+    }
+    if (compare) {
+      return COMPARATOR;
+    }
+    if (bracket || innerSpace) {
+      return UNKNOWN;
+    }
+    return comma ? SET : VERSION;
+  }
+}
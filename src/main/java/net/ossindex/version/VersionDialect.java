@@ -0,0 +1,34 @@
+package net.ossindex.version;
+
+import java.util.Comparator;
+
+/**
+ * Versions and ranges as written by one ecosystem, such as Maven, npm or
+ * Debian. A dialect parses its own syntax directly, without the general
+ * grammar and its guesses about which style a string is written in.
+ *
+ * Dialects are registered with VersionFactory.registerDialect(), and are used
+ * when a hint names them. They must be safe to use from several threads.
+ */
+public interface VersionDialect
+{
+  /**
+   * The hint the dialect is registered under, such as "npm"
+   */
+  public String getName();
+
+  /**
+   * Parse a version. Throws if the string is not a valid version in this dialect.
+   */
+  public IVersion getVersion(String version) throws InvalidRangeException;
+
+  /**
+   * Parse a range. Throws if the string is not a valid range in this dialect.
+   */
+  public IVersionRange getRange(String range) throws InvalidRangeException;
+
+  /**
+   * Orders versions the way the ecosystem does.
+   */
+  public Comparator<IVersion> getComparator();
+}
@@ -27,17 +27,33 @@
 package net.ossindex.version;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EmptyStackException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 import net.ossindex.version.impl.AndRange;
+import net.ossindex.version.impl.BudgetedTokenStream;
+import net.ossindex.version.impl.DebianDialect;
+import net.ossindex.version.impl.MavenDialect;
 import net.ossindex.version.impl.NamedVersion;
+import net.ossindex.version.impl.NpmDialect;
 import net.ossindex.version.impl.OrRange;
+import net.ossindex.version.impl.ParseBudgetException;
+import net.ossindex.version.impl.Pep440Dialect;
+import net.ossindex.version.impl.RangeInterner;
+import net.ossindex.version.impl.RangeMerger;
+import net.ossindex.version.impl.RpmDialect;
+import net.ossindex.version.impl.UnionBuilder;
 import net.ossindex.version.impl.VersionErrorListener;
 import net.ossindex.version.impl.VersionListener;
 import net.ossindex.version.impl.VersionRange;
@@ -46,7 +62,7 @@ import net.ossindex.version.parser.VersionLexer;
 import net.ossindex.version.parser.VersionParser;
 import net.ossindex.version.parser.VersionParser.RangeContext;
 import org.antlr.v4.runtime.ANTLRInputStream;
-import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
 /**
@@ -61,14 +77,94 @@ public class VersionFactory
 
   private static VersionFactory instance;
 
+  private static VersionFactory sharedInstance;
+
+  private static VersionFactory trustedInstance;
+
+  /**
+   * Dialects by hint
+   */
+  private static final ConcurrentMap<String, VersionDialect> dialects = new ConcurrentHashMap<String, VersionDialect>();
+
+  static {
+    registerDialect(new DebianDialect(), "debian", "dpkg");
+    registerDialect(new RpmDialect(), "rhel", "centos", "fedora");
+    registerDialect(new Pep440Dialect(), "pypi", "python", "pip");
+    registerDialect(new NpmDialect(), "node", "nodejs", "yarn");
+    registerDialect(new MavenDialect(), "mvn");
+  }
+
+  /**
+   * Most shared results that are remembered.
+   */
+  private static final int MAX_SHARED_RESULTS = 10000;
+
+  /**
+   * Version lists and union chains with at least this many entries are split
+   * and their entries parsed one at a time. The grammar nests every entry one
+   * level deeper than the last, so parsing a long list whole builds a very
+   * deep tree, and walking it can overflow the stack.
+   */
+  private static final int SPLIT_THRESHOLD = 32;
+
   private final boolean strict;
 
+  /**
+   * In shared mode ranges are immutable, and the same range is returned for the
+   * same string.
+   */
+  private final boolean shared;
+
+  /**
+   * Check that anded ranges intersect. Trusted data may skip the check.
+   */
+  private final boolean validate;
+
+  /**
+   * Limits on the work done parsing one string
+   */
+  private final ParseBudget budget;
+
+  /**
+   * Report parse errors only through hasErrors() and exceptions, without
+   * printing them. Factories with a budget of their own are quiet.
+   */
+  private final boolean quiet;
+
+  private final ConcurrentMap<String, IVersionRange> sharedResults;
+
+  /**
+   * Shares equal subtrees between the ranges handed out in shared mode.
+   */
+  private final RangeInterner interner;
+
   /**
    * Private. Use "getVersionFactory" instead.
    */
   private VersionFactory(boolean strict)
+  {
+    this(strict, false);
+  }
+
+  private VersionFactory(boolean strict, boolean shared)
+  {
+    this(strict, shared, true);
+  }
+
+  private VersionFactory(boolean strict, boolean shared, boolean validate)
+  {
+    this(strict, shared, validate, ParseBudget.DEFAULT, false);
+  }
+
+  private VersionFactory(boolean strict, boolean shared, boolean validate, ParseBudget budget, boolean quiet)
   {
     this.strict = strict;
+    this.shared = shared;
+    this.validate = validate;
+    this.budget = budget;
+    this.quiet = quiet;
+    this.sharedResults = shared ? new ConcurrentHashMap<String, IVersionRange>() : null;
+    this.interner = shared ? new RangeInterner() : null;
   }
 
   /**
@@ -97,6 +193,50 @@ public class VersionFactory
     return strictInstance;
   }
 
+  /**
+   * Get a version factory whose ranges are immutable and may be shared between
+   * threads and cached. Parsing the same string again returns the same range, and
+   * equal subtrees of different ranges are the same instance.
+   *
+   * Results are handed between threads through a concurrent map, which
+   * guarantees any thread sees them fully built.
+   */
+  public synchronized static VersionFactory getSharedVersionFactory()
+  {
+    if (sharedInstance == null) {
+      sharedInstance = new VersionFactory(false, true);
+    }
+    return sharedInstance;
+  }
+
+  /**
+   * Get a version factory for bulk loads of trusted, already validated ranges, such
+   * as advisory data. Anded ranges are not checked for intersection as they are
+   * built. Use AndRange.validate(IVersionRange) to check them later if needed.
+   */
+  public synchronized static VersionFactory getTrustedVersionFactory()
+  {
+    if (trustedInstance == null) {
+      trustedInstance = new VersionFactory(false, false, false);
+    }
+    return trustedInstance;
+  }
+
+  /**
+   * Get a factory that works like this one, but parses within the given budget.
+   * A shared factory gets its own cache. Parse errors are not printed, and are
+   * reported by hasErrors() on the range, or in strict mode by an exception.
+   */
+  public VersionFactory withBudget(ParseBudget budget)
+  {
+    return new VersionFactory(strict, shared, validate, budget, true);
+  }
+
+  public ParseBudget getBudget()
+  {
+    return budget;
+  }
+
   /**
    * Get a version implementation. Return the best match for the provided string.
    *
@@ -116,20 +256,134 @@ public class VersionFactory
    * Get a version implementation. A hint may be provided to help
    * choose the best implementation.
    *
-   * @param hint    Hint of the version style
+   * If a dialect is registered for the hint it parses the version. Otherwise,
+   * or if a non-strict factory's dialect cannot parse it, the version is parsed
+   * as if there were no hint.
+   *
+   * @param hint    Hint of the version style, such as "maven" or "npm"
    * @param version A string version to be parsed
    * @return A version implementation
    */
   public IVersion getVersion(String hint, String version) throws InvalidRangeException
   {
+    VersionDialect dialect = getDialect(hint);
+    if (dialect != null && version != null) {
+      try {
+        return dialect.getVersion(version);
+      }
+      catch (InvalidRangeException e) {
+        if (strict) {
+          throw e;
+        }
+      }
+    }
     return getVersion(version);
   }
 
+  /**
+   * Get a version range, using the dialect registered for the hint if there is
+   * one. See getVersion(String, String).
+   *
+   * @param hint  Hint of the range style, such as "maven" or "npm"
+   * @param range A string range to be parsed
+   */
+  public IVersionRange getRange(String hint, String range) throws InvalidRangeException
+  {
+    VersionDialect dialect = getDialect(hint);
+    if (dialect != null && range != null) {
+      try {
+        IVersionRange result = dialect.getRange(range);
+        return shared ? interner.intern(result) : result;
+      }
+      catch (InvalidRangeException e) {
+        if (strict) {
+          throw e;
+        }
+      }
+    }
+    return getRange(range);
+  }
+
+  /**
+   * Register a dialect under its name, and under any other hints given, for
+   * all version factories. A dialect registered later for the same hint
+   * replaces the earlier one.
+   */
+  public static void registerDialect(VersionDialect dialect, String... aliases)
+  {
+    dialects.put(normalizeHint(dialect.getName()), dialect);
+    for (String alias : aliases) {
+      dialects.put(normalizeHint(alias), dialect);
+    }
+  }
+
+  /**
+   * Remove the dialect from every hint it is registered under. Hints it was
+   * replaced on are left alone.
+   *
+   * @return true if the dialect was registered under any hint
+   */
+  public static boolean unregisterDialect(VersionDialect dialect)
+  {
+    return dialects.values().removeAll(Collections.singleton(dialect));
+  }
+
+  /**
+   * Get the dialect registered for the hint, or null if there is none. Hints
+   * are not case sensitive.
+   */
+  public static VersionDialect getDialect(String hint)
+  {
+    if (hint == null) {
+      return null;
+    }
+    return dialects.get(normalizeHint(hint));
+  }
+
+  private static String normalizeHint(String hint)
+  {
+    return hint.trim().toLowerCase(Locale.ROOT);
+  }
+
 
   /**
    * Get a version range
    */
   public IVersionRange getRange(String vstring) throws InvalidRangeException
+  {
+    if (!shared) {
+      return parseRange(vstring);
+    }
+    if (vstring == null) {
+      return interner.intern(parseRange(vstring));
+    }
+    IVersionRange range = sharedResults.get(vstring);
+    if (range == null) {
+      range = interner.intern(parseRange(vstring));
+      if (sharedResults.size() < MAX_SHARED_RESULTS) {
+        IVersionRange previous = sharedResults.putIfAbsent(vstring, range);
+        if (previous != null) {
+          range = previous;
+        }
+      }
+    }
+    return range;
+  }
+
+  /**
+   * Parse the string, and give the range the type of its style if the parse
+   * did not already give it one.
+   */
+  private IVersionRange parseRange(String vstring) throws InvalidRangeException
+  {
+    IVersionRange range = parseUntyped(vstring);
+    if (range != null && range.getType() == null) {
+      range.setType(RangeStyle.classify(vstring).getType());
+    }
+    return range;
+  }
+
+  private IVersionRange parseUntyped(String vstring) throws InvalidRangeException
   {
     if (vstring == null || vstring.isEmpty()) {
       if (strict) {
@@ -139,29 +393,16 @@ public class VersionFactory
         return new VersionSet(version);
       }
     }
+    if (vstring.length() > budget.getMaxLength()) {
+      return overBudget(vstring, "Too long (more than " + budget.getMaxLength() + " characters)");
+    }
+    IVersionRange split = parseSplit(vstring);
+    if (split != null) {
+      return split;
+    }
     try {
-      InputStream stream = new ByteArrayInputStream(vstring.getBytes(StandardCharsets.UTF_8));
-      ANTLRInputStream input = new ANTLRInputStream(stream);
-
-      VersionErrorListener errorListener = new VersionErrorListener();
-
-      VersionLexer lexer = new VersionLexer(input);
-      lexer.removeErrorListeners();
-      lexer.addErrorListener(errorListener);
-
-      CommonTokenStream tokens = new CommonTokenStream(lexer);
-
-      VersionParser parser = new VersionParser(tokens);
-
-      parser.addErrorListener(errorListener);
-
-      RangeContext context = parser.range();
-
-      ParseTreeWalker walker = new ParseTreeWalker();
-      VersionListener listener = new VersionListener(strict);
-      walker.walk(listener, context);
-
-      IVersionRange range = listener.getRange();
+      VersionErrorListener errorListener = new VersionErrorListener(quiet);
+      IVersionRange range = walk(parse(vstring, errorListener));
       if (errorListener.hasErrors()) {
         if (strict) {
           throw new InvalidRangeException("Parse errors on " + vstring);
@@ -170,11 +411,16 @@ public class VersionFactory
       }
       return range;
     }
+    catch (ParseBudgetException e) {
+      return overBudget(vstring, e.getMessage());
+    }
     catch (EmptyStackException e) {
       if (strict) {
         throw new InvalidRangeException(e);
       }
-      System.err.println("ERROR: Could not parse: " + vstring);
+      if (!quiet) {
+        System.err.println("ERROR: Could not parse: " + vstring);
+      }
     }
     catch (InvalidRangeRuntimeException e) {
       // These are always critical. They indicate a fundamental problem with the version range.
@@ -185,7 +431,9 @@ public class VersionFactory
       if (strict) {
         throw new InvalidRangeException(e);
       }
-      System.err.println("ERROR: Could not parse: " + vstring);
+      if (!quiet) {
+        System.err.println("ERROR: Could not parse: " + vstring);
+      }
     }
 
     // Fall back to a named version
@@ -193,26 +441,161 @@ public class VersionFactory
     return new VersionSet(version);
   }
 
+  /**
+   * The result for a string that is not parsed because it is over budget. It is
+   * the same every time, however far the parse got.
+   */
+  private IVersionRange overBudget(String vstring, String reason) throws InvalidRangeException
+  {
+    if (strict) {
+      throw new InvalidRangeException("Range exceeds parse budget: " + reason);
+    }
+    VersionSet range = new VersionSet(NamedVersion.opaque(vstring));
+    range.setHasErrors(true);
+    return range;
+  }
+
+  private RangeContext parse(String vstring, VersionErrorListener errorListener) throws IOException
+  {
+    InputStream stream = new ByteArrayInputStream(vstring.getBytes(StandardCharsets.UTF_8));
+    ANTLRInputStream input = new ANTLRInputStream(stream);
+
+    VersionLexer lexer = new VersionLexer(input);
+    lexer.removeErrorListeners();
+    lexer.addErrorListener(errorListener);
+
+    BudgetedTokenStream tokens = new BudgetedTokenStream(lexer, budget);
+    tokens.check();
+
+    VersionParser parser = new VersionParser(tokens);
+    parser.removeErrorListeners();
+    parser.addErrorListener(errorListener);
+
+    return parser.range();
+  }
+
+  private IVersionRange walk(RangeContext context)
+  {
+    ParseTreeWalker walker = new ParseTreeWalker();
+    VersionListener listener = new VersionListener(strict, validate);
+    walker.walk(listener, context);
+    return listener.getRange();
+  }
+
+  /**
+   * Parse a long comma separated list of versions, or a long chain of ranges
+   * joined by "||", one entry at a time, and build the set or union in a
+   * single pass.
+   *
+   * Returns null if the string is not such a list, or if any entry does not
+   * parse cleanly on its own. The whole string is then parsed as usual, so
+   * errors are reported the same way either way.
+   */
+  private IVersionRange parseSplit(String vstring)
+  {
+    if (vstring.length() < SPLIT_THRESHOLD * 2) {
+      return null;
+    }
+    boolean union = vstring.indexOf('|') >= 0;
+    for (int i = 0; i < vstring.length(); i++) {
+      switch (vstring.charAt(i)) {
+        case '[':
+        case ']':
+        case '(':
+        case ')':
+          return null;
+        case '<':
+        case '>':
+        case '=':
+        case '~':
+        case '^':
+        case '&':
+          if (!union) {
+            return null;
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    String[] entries = union ? vstring.split("\\|+", -1) : vstring.split(",", -1);
+    if (entries.length < SPLIT_THRESHOLD) {
+      return null;
+    }
+    try {
+      if (union) {
+        List<IVersionRange> ranges = new ArrayList<IVersionRange>(entries.length);
+        for (String entry : entries) {
+          IVersionRange range = parseEntry(entry, true);
+          if (range == null) {
+            return null;
+          }
+          if (range.getType() == null) {
+            range.setType(RangeStyle.classify(entry).getType());
+          }
+          ranges.add(range);
+        }
+        OrRange range = new OrRange(ranges);
+        range.setType(RangeStyle.UNION.getType());
+        return range;
+      }
+      VersionSet set = new VersionSet();
+      for (String entry : entries) {
+        IVersionRange range = parseEntry(entry, false);
+        if (range == null) {
+          return null;
+        }
+        set.add(range.getMinimum());
+      }
+      return set;
+    }
+    catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * Parse one entry of a split list. A list entry must be a single version,
+   * a union entry a single version or a range that may appear in a union.
+   */
+  private IVersionRange parseEntry(String entry, boolean union) throws IOException
+  {
+    if (entry.trim().isEmpty()) {
+      return null;
+    }
+    // An entry that does not parse is not an error, the whole string is parsed again
+    VersionErrorListener errorListener = new VersionErrorListener(true);
+    RangeContext context = parse(entry, errorListener);
+    if (errorListener.hasErrors()) {
+      return null;
+    }
+    ParseTree kind = context.getChild(0);
+    if (kind instanceof VersionParser.Version_setContext) {
+      if (kind.getChildCount() != 1) {
+        return null;
+      }
+    }
+    else if (!union || !(kind instanceof VersionParser.Range_typeContext)) {
+      return null;
+    }
+    return walk(context);
+  }
+
   /**
    * Join this set of ranges together. This could result in a set, or in a
-   * logical range.
+   * logical range. The result is a single flat union, with overlapping ranges
+   * merged and discrete versions collected into one set.
    */
   public IVersionRange getRange(String[] versions) throws InvalidRangeException
   {
     if (versions == null) {
       return null;
     }
-    IVersionRange results = null;
+    UnionBuilder builder = new UnionBuilder();
     for (String version : versions) {
-      IVersionRange range = getRange(version);
-      if (results == null) {
-        results = range;
-      }
-      else {
-        results = new OrRange(results, range);
-      }
+      builder.add(getRange(version));
     }
-    return results;
+    return shared ? interner.intern(builder.build()) : builder.build();
   }
 
   /**
@@ -226,9 +609,29 @@ public class VersionFactory
     return getRange(versions.toArray(new String[versions.size()]));
   }
 
+  /**
+   * Check the style of the string without parsing it. See RangeStyle.
+   */
   public boolean isMavenRange(String vstring) throws InvalidRangeException {
-    IVersionRange range = getRange(vstring);
-    return "maven".equals(range.getType());
+    return RangeStyle.classify(vstring) == RangeStyle.MAVEN;
+  }
+
+  /**
+   * Join the fragments of a split range back together. Unlike merge, the fragments
+   * may be in any order and of any shape. Each lower bound (> or >=) is joined to
+   * the next upper bound (< or <=) above it, and the result is a single flat union.
+   *
+   * For example:
+   *
+   * <4.0.0 | >5.0.0, >1.0.0, <2.0.0 | >3.0.0 and <6.0.0 will become
+   * (>1.0.0 <2.0.0 | >3.0.0 <4.0.0 | >5.0.0 <6.0.0)
+   */
+  public IVersionRange mergeFragments(Iterable<? extends IVersionRange> fragments) {
+    RangeMerger merger = new RangeMerger();
+    for (IVersionRange fragment : fragments) {
+      merger.add(fragment);
+    }
+    return shared ? interner.intern(merger.build()) : merger.build();
   }
 
   /**
@@ -1,5 +1,10 @@
 package net.ossindex.version.impl;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import com.github.zafarkhaja.semver.Version;
 import net.ossindex.version.IVersion;
 import net.ossindex.version.IVersionRange;
 
@@ -14,6 +19,60 @@ public abstract class AbstractCommonRange
     return myMin.compareTo(yourMin);
   }
 
+  /**
+   * Work out the matching intervals of the sorted versions once, then turn them
+   * into bits. Unsorted input is handed to containsAllUnsorted.
+   */
+  @Override
+  public BitSet containsAll(IVersion[] versions) {
+    for (int i = 1; i < versions.length; i++) {
+      if (VersionComparator.INSTANCE.compare(versions[i - 1], versions[i]) > 0) {
+        return containsAllUnsorted(versions);
+      }
+    }
+    BitSet results = new BitSet(versions.length);
+    int[] intervals = toOrdinals(versions, versions.length, semanticSize(versions));
+    for (int i = 0; i < intervals.length; i += 2) {
+      results.set(intervals[i], intervals[i + 1]);
+    }
+    return results;
+  }
+
+  /**
+   * By default sort a copy of the versions, so composite ranges only need to
+   * sort once for all their children, then read the answers back for the
+   * original order. Simple ranges can do better by checking each version.
+   */
+  BitSet containsAllUnsorted(IVersion[] versions) {
+    int size = versions.length;
+    BitSet results = new BitSet(size);
+    IVersion[] sorted = Arrays.copyOf(versions, size);
+    Arrays.sort(sorted, VersionComparator.INSTANCE);
+    int[] intervals = toOrdinals(sorted, size, semanticSize(sorted));
+    if (intervals.length > 0) {
+      for (int i = 0; i < size; i++) {
+        int ordinal = Ordinals.lowerBound(sorted, 0, size, versions[i]);
+        if (Ordinals.contains(intervals, intervals.length, ordinal)) {
+          results.set(i);
+        }
+      }
+    }
+    return results;
+  }
+
+  private static int semanticSize(IVersion[] sorted) {
+    int size = 0;
+    while (size < sorted.length && VersionComparator.isSemantic(sorted[size])) {
+      size++;
+    }
+    return size;
+  }
+
+  @Override
+  public BitSet containsAll(List<? extends IVersion> versions) {
+    return containsAll(versions.toArray(new IVersion[versions.size()]));
+  }
+
   @Override
   public boolean contains(IVersionRange trange) {
     return false;
@@ -23,4 +82,90 @@ public abstract class AbstractCommonRange
   public IVersionRange invert() {
     throw new UnsupportedOperationException();
   }
+
+  /**
+   * Get the ordinal intervals of the provided versions that this range contains. The versions
+   * must be sorted by VersionComparator, with the semantic versions in the first semanticSize
+   * entries. By default every version is checked, subclasses should do better where they can.
+   */
+  int[] toOrdinals(IVersion[] sorted, int size, int semanticSize) {
+    return Ordinals.scan(this, sorted, 0, size);
+  }
+
+  /**
+   * Get the key intervals matched by this range for the RangeCompiler, or null if
+   * the range cannot be compiled exactly.
+   */
+  long[] toKeys(RangeCompiler compiler) {
+    return null;
+  }
+
+  /**
+   * The lowest head version of any semantic version this range can contain,
+   * or null if that is not known.
+   */
+  Version getLowerHead() {
+    return null;
+  }
+
+  /**
+   * The highest head version of any semantic version this range can contain,
+   * or null if that is not known.
+   */
+  Version getUpperHead() {
+    return null;
+  }
+
+  /**
+   * Versions in ranges are only the same if they are of the same class and print
+   * the same, so equal ranges are interchangeable.
+   */
+  static boolean sameVersion(IVersion v1, IVersion v2) {
+    if (v1 == null || v2 == null) {
+      return v1 == v2;
+    }
+    return v1.getClass() == v2.getClass() && v1.toString().equals(v2.toString());
+  }
+
+  static int versionHash(IVersion version) {
+    return version == null ? 0 : version.toString().hashCode();
+  }
+
+  static Version lowerHead(IVersionRange range) {
+    return range instanceof AbstractCommonRange ? ((AbstractCommonRange) range).getLowerHead() : null;
+  }
+
+  static Version upperHead(IVersionRange range) {
+    return range instanceof AbstractCommonRange ? ((AbstractCommonRange) range).getUpperHead() : null;
+  }
+
+  /**
+   * The higher of two lower bounds, where null is unbounded.
+   */
+  static Version maxLower(Version v1, Version v2) {
+    if (v1 == null || (v2 != null && v2.compareTo(v1) > 0)) {
+      return v2;
+    }
+    return v1;
+  }
+
+  /**
+   * The higher of two upper bounds, where null is unbounded.
+   */
+  static Version maxUpper(Version v1, Version v2) {
+    if (v1 == null || v2 == null) {
+      return null;
+    }
+    return v2.compareTo(v1) > 0 ? v2 : v1;
+  }
+
+  /**
+   * The lower of two upper bounds, where null is unbounded.
+   */
+  static Version minUpper(Version v1, Version v2) {
+    if (v1 == null || (v2 != null && v2.compareTo(v1) < 0)) {
+      return v2;
+    }
+    return v1;
+  }
 }
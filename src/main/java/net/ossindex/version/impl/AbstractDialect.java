@@ -0,0 +1,100 @@
+package net.ossindex.version.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+import net.ossindex.version.InvalidRangeException;
+import net.ossindex.version.InvalidRangeRuntimeException;
+import net.ossindex.version.VersionDialect;
+
+/**
+ * Base for dialects whose ranges are written as constraints like ">= 1.2",
+ * joined by "," for "and" and by "|" or "||" for "or". A constraint without
+ * an operator is the version itself. Versions order themselves, through their
+ * compareTo.
+ */
+public abstract class AbstractDialect
+    implements VersionDialect
+{
+  private static final Comparator<IVersion> COMPARATOR = new Comparator<IVersion>()
+  {
+    @Override
+    public int compare(IVersion v1, IVersion v2) {
+      return v1.compareTo(v2);
+    }
+  };
+
+  @Override
+  public IVersionRange getRange(String range) throws InvalidRangeException {
+    List<IVersionRange> alternatives = new ArrayList<IVersionRange>();
+    for (String alternative : range.split("\\|+")) {
+      IVersionRange result = null;
+      for (String constraint : alternative.split(",")) {
+        IVersionRange next = getConstraint(constraint);
+        try {
+          result = result == null ? next : new AndRange(result, next);
+        }
+        catch (InvalidRangeRuntimeException e) {
+          throw new InvalidRangeException(e.getMessage(), e);
+        }
+      }
+      alternatives.add(result);
+    }
+    IVersionRange result = alternatives.size() == 1 ? alternatives.get(0) : new OrRange(alternatives);
+    result.setType(getName());
+    return result;
+  }
+
+  /**
+   * Parse one constraint, such as ">= 1.2" or "(<< 2.0)".
+   */
+  IVersionRange getConstraint(String constraint) throws InvalidRangeException {
+    String s = constraint.trim();
+    if (s.startsWith("(") && s.endsWith(")")) {
+      s = s.substring(1, s.length() - 1).trim();
+    }
+    int i = 0;
+    while (i < s.length() && "<>=!~^".indexOf(s.charAt(i)) >= 0) {
+      i++;
+    }
+    String version = s.substring(i).trim();
+    if (version.isEmpty()) {
+      throw new InvalidRangeException("Missing version in " + getName() + " range: " + constraint);
+    }
+    if (i == 0) {
+      return new VersionSet(getVersion(version));
+    }
+    String operator = getOperator(s.substring(0, i));
+    if (operator == null) {
+      throw new InvalidRangeException("Unknown " + getName() + " operator: " + s.substring(0, i));
+    }
+    return new DialectVersionRange(operator, getVersion(version));
+  }
+
+  /**
+   * Map an operator of the dialect to one of "<", "<=", "=", ">=" or ">", or
+   * null if it is not an operator of the dialect.
+   */
+  String getOperator(String operator) {
+    switch (operator) {
+      case "<":
+      case "<=":
+      case ">=":
+      case ">":
+        return operator;
+      case "=":
+      case "==":
+        return "=";
+      default:
+        return null;
+    }
+  }
+
+  @Override
+  public Comparator<IVersion> getComparator() {
+    return COMPARATOR;
+  }
+}
@@ -0,0 +1,92 @@
+package net.ossindex.version.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+
+/**
+ * An immutable intersection that checks first whichever side rejects versions
+ * more often, so most checks stop after one side.
+ *
+ * Sampling works as in AdaptiveOrRange: a sample checks both sides and counts
+ * their rejects, and every so many samples the side with more rejects is moved
+ * to the front. The choice is a single volatile flag, so readers need no locks.
+ */
+public class AdaptiveAndRange
+    extends ImmutableAndRange
+{
+  private volatile boolean swapped;
+
+  /**
+   * Rejects by first() and last()
+   */
+  private final AtomicLongArray rejects = new AtomicLongArray(2);
+
+  private final AtomicLong samples = new AtomicLong();
+
+  public AdaptiveAndRange(IVersionRange range1, IVersionRange range2, String type, boolean hasErrors) {
+    this(range1, range2, type, hasErrors, true);
+  }
+
+  AdaptiveAndRange(IVersionRange range1, IVersionRange range2, String type, boolean hasErrors, boolean validate) {
+    super(range1, range2, type, hasErrors, validate);
+  }
+
+  @Override
+  public boolean contains(IVersion version) {
+    if (ThreadLocalRandom.current().nextInt(AdaptiveOrRange.SAMPLE_RATE) == 0) {
+      return sample(version);
+    }
+    if (swapped) {
+      return range2.contains(version) && range1.contains(version);
+    }
+    return range1.contains(version) && range2.contains(version);
+  }
+
+  /**
+   * Check both sides, so the counts do not depend on the current order.
+   */
+  private boolean sample(IVersion version) {
+    boolean contains1 = range1.contains(version);
+    boolean contains2 = range2.contains(version);
+    if (!contains1) {
+      rejects.incrementAndGet(0);
+    }
+    if (!contains2) {
+      rejects.incrementAndGet(1);
+    }
+    if (samples.incrementAndGet() % AdaptiveOrRange.REORDER_INTERVAL == 0) {
+      long rejects1 = rejects.get(0);
+      long rejects2 = rejects.get(1);
+      swapped = rejects2 > rejects1;
+      rejects.addAndGet(0, -(rejects1 / 2));
+      rejects.addAndGet(1, -(rejects2 / 2));
+    }
+    return contains1 && contains2;
+  }
+
+  /**
+   * Number of sampled checks so far
+   */
+  public long getSamples() {
+    return samples.get();
+  }
+
+  /**
+   * Recent reject counts of first() and last(). Counts are halved each time the
+   * order is reconsidered.
+   */
+  public long[] getRejects() {
+    return new long[]{rejects.get(0), rejects.get(1)};
+  }
+
+  /**
+   * True if last() is currently checked before first()
+   */
+  public boolean isSwapped() {
+    return swapped;
+  }
+}
@@ -0,0 +1,140 @@
+package net.ossindex.version.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+
+/**
+ * An immutable union that checks its children in order of how often they match,
+ * so workloads where most versions hit a few children stop after the first check.
+ *
+ * One check in SAMPLE_RATE is a sample, which checks every child and counts the
+ * ones that match. Every REORDER_INTERVAL samples the children are reordered by
+ * their counts, which are then halved so the order follows changes in the
+ * workload. The order is an array that is replaced whole, never changed, so
+ * readers need no locks and always see a complete order.
+ */
+public class AdaptiveOrRange
+    extends ImmutableOrRange
+{
+  static final int SAMPLE_RATE = 64;
+
+  static final int REORDER_INTERVAL = 256;
+
+  /**
+   * Children in the order of getRanges()
+   */
+  private final IVersionRange[] children;
+
+  /**
+   * Indexes of the children in the order they are checked.
+   */
+  private volatile int[] order;
+
+  private final AtomicLongArray hits;
+
+  private final AtomicLong samples = new AtomicLong();
+
+  public AdaptiveOrRange(List<IVersionRange> ranges, String type, boolean hasErrors) {
+    super(ranges, type, hasErrors);
+    List<IVersionRange> sorted = getRanges();
+    this.children = sorted.toArray(new IVersionRange[sorted.size()]);
+    this.hits = new AtomicLongArray(children.length);
+    int[] order = new int[children.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    this.order = order;
+  }
+
+  @Override
+  public boolean contains(IVersion version) {
+    if (ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0) {
+      return sample(version);
+    }
+    for (int index : order) {
+      if (children[index].contains(version)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Check every child, so the counts do not depend on the current order.
+   */
+  private boolean sample(IVersion version) {
+    boolean contains = false;
+    for (int i = 0; i < children.length; i++) {
+      if (children[i].contains(version)) {
+        hits.incrementAndGet(i);
+        contains = true;
+      }
+    }
+    if (samples.incrementAndGet() % REORDER_INTERVAL == 0) {
+      reorder();
+    }
+    return contains;
+  }
+
+  private void reorder() {
+    final long[] counts = getHits();
+    Integer[] indexes = new Integer[counts.length];
+    for (int i = 0; i < indexes.length; i++) {
+      indexes[i] = i;
+    }
+    // Stable, so children with equal counts keep the order of their lower bounds
+    Arrays.sort(indexes, new Comparator<Integer>()
+    {
+      @Override
+      public int compare(Integer i1, Integer i2) {
+        return counts[i2] < counts[i1] ? -1 : (counts[i2] == counts[i1] ? 0 : 1);
+      }
+    });
+    int[] order = new int[indexes.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = indexes[i];
+      hits.addAndGet(i, -(counts[i] / 2));
+    }
+    this.order = order;
+  }
+
+  /**
+   * Number of sampled checks so far
+   */
+  public long getSamples() {
+    return samples.get();
+  }
+
+  /**
+   * Recent match counts of the children, in the order of getRanges(). Counts are
+   * halved each time the children are reordered.
+   */
+  public long[] getHits() {
+    long[] counts = new long[children.length];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = hits.get(i);
+    }
+    return counts;
+  }
+
+  /**
+   * The children in the order they are currently checked
+   */
+  public List<IVersionRange> getEvaluationOrder() {
+    int[] order = this.order;
+    List<IVersionRange> results = new ArrayList<IVersionRange>(order.length);
+    for (int index : order) {
+      results.add(children[index]);
+    }
+    return Collections.unmodifiableList(results);
+  }
+}
@@ -0,0 +1,41 @@
+package net.ossindex.version.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.ossindex.version.IVersionRange;
+
+/**
+ * Converts ranges into their adaptive form, where unions and intersections
+ * learn which children to check first. This is optional: it only pays off when
+ * the same ranges are checked many times by a skewed workload, and the samples
+ * cost a little on every range.
+ */
+public final class AdaptiveRanges
+{
+  private AdaptiveRanges() {
+  }
+
+  /**
+   * Get an immutable copy of the range in which every union and intersection is
+   * adaptive.
+   */
+  public static IVersionRange copyOf(IVersionRange range) {
+    if (range == null || range instanceof AdaptiveOrRange || range instanceof AdaptiveAndRange) {
+      return range;
+    }
+    if (range instanceof AndRange) {
+      AndRange arange = (AndRange) range;
+      return new AdaptiveAndRange(copyOf(arange.first()), copyOf(arange.last()), range.getType(),
+          range.hasErrors(), false);
+    }
+    if (range instanceof OrRange) {
+      List<IVersionRange> children = new ArrayList<IVersionRange>();
+      for (IVersionRange child : ((OrRange) range).getRanges()) {
+        children.add(copyOf(child));
+      }
+      return new AdaptiveOrRange(children, range.getType(), range.hasErrors());
+    }
+    return ImmutableRanges.copyOf(range);
+  }
+}
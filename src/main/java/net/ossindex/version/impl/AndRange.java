@@ -26,6 +26,7 @@
  */
 package net.ossindex.version.impl;
 
+import com.github.zafarkhaja.semver.Version;
 import net.ossindex.version.IVersion;
 import net.ossindex.version.IVersionRange;
 import net.ossindex.version.InvalidRangeException;
@@ -42,9 +43,9 @@ public class AndRange
   /**
    *
    */
-  protected IVersionRange range1;
+  protected final IVersionRange range1;
 
-  protected IVersionRange range2;
+  protected final IVersionRange range2;
 
   private String type;
 
@@ -57,11 +58,20 @@ public class AndRange
    * And the ranges, ordering them in Vor's preferred order.
    */
   public AndRange(IVersionRange range1, IVersionRange range2) throws InvalidRangeRuntimeException
+  {
+    this(range1, range2, true);
+  }
+
+  /**
+   * And the ranges, optionally skipping the check that they intersect. Trusted
+   * data that has already been validated can be loaded without the check, and
+   * checked later with validate(IVersionRange) if need be.
+   */
+  public AndRange(IVersionRange range1, IVersionRange range2, boolean validate) throws InvalidRangeRuntimeException
   {
     // The ranges should intersect
-    if (!range1.intersects(range2)) {
-      throw new InvalidRangeRuntimeException(
-          "Anded ranges do not intersect; this can never happen [" + range1 + " & " + range2 + "]");
+    if (validate) {
+      checkIntersects(range1, range2);
     }
 
     // If both ranges are VersionRange then these are likely overlapping
@@ -215,7 +225,7 @@ public class AndRange
    */
   @Override
   public IVersionRange getSimplifiedRange() {
-    return this;
+    return RangeSimplifier.simplify(this);
   }
 
   public String getType() {
@@ -243,6 +253,34 @@ public class AndRange
     return range1.hasErrors() || range2.hasErrors();
   }
 
+  /**
+   * The constructor only orders VersionRange children, so other children (such
+   * as dialect ranges) stay in the order they were given. And is commutative, so
+   * the children are compared as an unordered pair.
+   */
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof AndRange)) {
+      return false;
+    }
+    AndRange range = (AndRange) o;
+    return (range1.equals(range.range1) && range2.equals(range.range2))
+        || (range1.equals(range.range2) && range2.equals(range.range1));
+  }
+
+  /**
+   * Symmetric in the children, to agree with equals.
+   */
+  @Override
+  public int hashCode()
+  {
+    return range1.hashCode() + range2.hashCode();
+  }
+
   @Override
   public String toString()
   {
@@ -289,6 +327,60 @@ public class AndRange
     return new OrRange(irange1, irange2);
   }
 
+  @Override
+  int[] toOrdinals(IVersion[] sorted, int size, int semanticSize) {
+    int[] ordinals = Ordinals.of(range1, sorted, size, semanticSize);
+    if (ordinals.length == 0) {
+      return ordinals;
+    }
+    return Ordinals.and(ordinals, Ordinals.of(range2, sorted, size, semanticSize));
+  }
+
+  @Override
+  long[] toKeys(RangeCompiler compiler) {
+    long[] keys1 = compiler.intervals(range1);
+    long[] keys2 = compiler.intervals(range2);
+    if (keys1 == null || keys2 == null) {
+      return null;
+    }
+    return RangeCompiler.and(keys1, keys2);
+  }
+
+  @Override
+  Version getLowerHead() {
+    return maxLower(lowerHead(range1), lowerHead(range2));
+  }
+
+  @Override
+  Version getUpperHead() {
+    return minUpper(upperHead(range1), upperHead(range2));
+  }
+
+  /**
+   * Check every anded range in the tree, for ranges built without validation.
+   *
+   * @throws InvalidRangeRuntimeException if anded ranges do not intersect
+   */
+  public static void validate(IVersionRange range) throws InvalidRangeRuntimeException {
+    if (range instanceof AndRange) {
+      AndRange arange = (AndRange) range;
+      validate(arange.range1);
+      validate(arange.range2);
+      checkIntersects(arange.range1, arange.range2);
+    }
+    else if (range instanceof OrRange) {
+      for (IVersionRange child : ((OrRange) range).getRanges()) {
+        validate(child);
+      }
+    }
+  }
+
+  private static void checkIntersects(IVersionRange range1, IVersionRange range2) {
+    if (!range1.intersects(range2)) {
+      throw new InvalidRangeRuntimeException(
+          "Anded ranges do not intersect; this can never happen [" + range1 + " & " + range2 + "]");
+    }
+  }
 
   public IVersionRange first() {
     return range1;
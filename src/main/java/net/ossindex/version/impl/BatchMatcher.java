@@ -0,0 +1,216 @@
+package net.ossindex.version.impl;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+
+/**
+ * Match many versions against many ranges in bulk, for example the packages of an
+ * SBOM against a set of advisories.
+ *
+ * Work is partitioned by package. For each package the query versions are sorted
+ * once into a VersionCatalog, then every range is turned into ordinal intervals
+ * over that catalog, which costs a few binary searches per range endpoint. The
+ * matches fall straight out of the intervals, so a package with M versions and N
+ * ranges costs O((M + N) log M) plus the size of the output, instead of M * N
+ * calls to contains. Packages are processed in parallel on a fork-join pool.
+ *
+ * A matcher that creates its own pool shuts it down when closed. A pool passed
+ * in is left to its owner.
+ */
+public class BatchMatcher
+    implements Closeable
+{
+  private final ForkJoinPool pool;
+
+  private final boolean ownsPool;
+
+  public BatchMatcher() {
+    this(new ForkJoinPool(), true);
+  }
+
+  public BatchMatcher(ForkJoinPool pool) {
+    this(pool, false);
+  }
+
+  private BatchMatcher(ForkJoinPool pool, boolean ownsPool) {
+    this.pool = pool;
+    this.ownsPool = ownsPool;
+  }
+
+  /**
+   * Shut down the pool, if this matcher created it.
+   */
+  @Override
+  public void close() {
+    if (ownsPool) {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Match every version of a package against every range of the same package.
+   *
+   * @param versions The versions to check, by package
+   * @param ranges   The ranges to check against, by package
+   * @return The matches by package. Packages without matches are left out.
+   */
+  public Map<String, List<Match>> match(Map<String, ? extends List<? extends IVersion>> versions,
+                                       Map<String, ? extends List<? extends IVersionRange>> ranges)
+  {
+    List<String> packages = new ArrayList<String>();
+    for (String pkg : versions.keySet()) {
+      if (ranges.containsKey(pkg)) {
+        packages.add(pkg);
+      }
+    }
+    String[] names = packages.toArray(new String[packages.size()]);
+    // Each task sets its own index, so the list is never resized concurrently
+    List<List<Match>> results = new ArrayList<List<Match>>(Collections.<List<Match>>nCopies(names.length, null));
+    pool.invoke(new PackageTask(names, versions, ranges, results, 0, names.length));
+
+    Map<String, List<Match>> matches = new HashMap<String, List<Match>>();
+    for (int i = 0; i < names.length; i++) {
+      if (!results.get(i).isEmpty()) {
+        matches.put(names[i], results.get(i));
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Match the versions and ranges of a single package.
+   */
+  public static List<Match> match(List<? extends IVersion> versions, List<? extends IVersionRange> ranges) {
+    if (versions.isEmpty() || ranges.isEmpty()) {
+      return Collections.emptyList();
+    }
+    VersionCatalog catalog = new VersionCatalog(versions);
+    int[] ordinals = catalog.getOrdinals(versions);
+
+    // Group the query indexes by ordinal, so duplicate versions are all reported
+    int[] starts = new int[catalog.size() + 1];
+    for (int ordinal : ordinals) {
+      starts[ordinal + 1]++;
+    }
+    for (int i = 0; i < catalog.size(); i++) {
+      starts[i + 1] += starts[i];
+    }
+    int[] queries = new int[ordinals.length];
+    int[] fill = Arrays.copyOf(starts, catalog.size());
+    for (int i = 0; i < ordinals.length; i++) {
+      queries[fill[ordinals[i]]++] = i;
+    }
+
+    List<Match> matches = new ArrayList<Match>();
+    for (int r = 0; r < ranges.size(); r++) {
+      IVersionRange range = ranges.get(r);
+      int[] intervals = catalog.compile(range).getIntervals();
+      for (int i = 0; i < intervals.length; i += 2) {
+        for (int q = starts[intervals[i]]; q < starts[intervals[i + 1]]; q++) {
+          int index = queries[q];
+          matches.add(new Match(index, versions.get(index), r, range));
+        }
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Splits the packages in half until there is one left, then matches it.
+   */
+  private static class PackageTask
+      extends RecursiveAction
+  {
+    private final String[] names;
+
+    private final Map<String, ? extends List<? extends IVersion>> versions;
+
+    private final Map<String, ? extends List<? extends IVersionRange>> ranges;
+
+    private final List<List<Match>> results;
+
+    private final int from;
+
+    private final int to;
+
+    PackageTask(String[] names,
+                Map<String, ? extends List<? extends IVersion>> versions,
+                Map<String, ? extends List<? extends IVersionRange>> ranges,
+                List<List<Match>> results,
+                int from,
+                int to)
+    {
+      this.names = names;
+      this.versions = versions;
+      this.ranges = ranges;
+      this.results = results;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        results.set(from, match(versions.get(names[from]), ranges.get(names[from])));
+      }
+      else if (to > from) {
+        int mid = (from + to) >>> 1;
+        invokeAll(new PackageTask(names, versions, ranges, results, from, mid),
+            new PackageTask(names, versions, ranges, results, mid, to));
+      }
+    }
+  }
+
+  /**
+   * A version that is contained in a range. The indexes refer to the positions in
+   * the lists passed in for the package.
+   */
+  public static final class Match
+  {
+    private final int versionIndex;
+
+    private final IVersion version;
+
+    private final int rangeIndex;
+
+    private final IVersionRange range;
+
+    Match(int versionIndex, IVersion version, int rangeIndex, IVersionRange range) {
+      this.versionIndex = versionIndex;
+      this.version = version;
+      this.rangeIndex = rangeIndex;
+      this.range = range;
+    }
+
+    public int getVersionIndex() {
+      return versionIndex;
+    }
+
+    public IVersion getVersion() {
+      return version;
+    }
+
+    public int getRangeIndex() {
+      return rangeIndex;
+    }
+
+    public IVersionRange getRange() {
+      return range;
+    }
+
+    @Override
+    public String toString() {
+      return version + " in " + range;
+    }
+  }
+}
@@ -26,7 +26,6 @@
  */
 package net.ossindex.version.impl;
 
-import com.github.zafarkhaja.semver.expr.Expression;
 import net.ossindex.version.IVersion;
 import net.ossindex.version.IVersionRange;
 
@@ -41,8 +40,6 @@ public class BoundedVersionRange
 {
   private String type;
 
-  private Expression expression;
-
   /**
    * Used for both atomic and simple versions
    */
@@ -86,7 +83,10 @@ public class BoundedVersionRange
   {
     // This will match both SemanticVersion and FlexibleSemanticVersion
     if (version instanceof SemanticVersion) {
-      return expression.interpret(((SemanticVersion) version).getVersionImpl());
+      if (minimum == null || version.compareTo(minimum) < 0) {
+        return false;
+      }
+      return version.compareTo(maximum == null ? minimum : maximum) <= 0;
     }
     throw new IllegalArgumentException("Semantic ranges expect semantic versions");
   }
@@ -130,6 +130,29 @@ public class BoundedVersionRange
     return maximum;
   }
 
+  /**
+   * Ranges are equal when they have the same minimum and maximum.
+   */
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof BoundedVersionRange)) {
+      return false;
+    }
+    BoundedVersionRange range = (BoundedVersionRange) o;
+    return AbstractCommonRange.sameVersion(minimum, range.minimum)
+        && AbstractCommonRange.sameVersion(maximum, range.maximum);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return 31 * AbstractCommonRange.versionHash(minimum) + AbstractCommonRange.versionHash(maximum);
+  }
+
   /*
    * (non-Javadoc)
    * @see java.lang.Object#toString()
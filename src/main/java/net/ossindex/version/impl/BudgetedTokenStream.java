@@ -0,0 +1,57 @@
+package net.ossindex.version.impl;
+
+import net.ossindex.version.ParseBudget;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.TokenSource;
+
+/**
+ * A token stream that counts the lookups the parser makes, and stops the parse
+ * once it has used up its budget. Adaptive prediction reads ahead through LA,
+ * so the count covers the prediction work as well as matching tokens.
+ */
+public class BudgetedTokenStream
+    extends CommonTokenStream
+{
+  /**
+   * How many steps to take between checks of the clock
+   */
+  private static final int CLOCK_INTERVAL = 1024;
+
+  private final ParseBudget budget;
+
+  private final long deadline;
+
+  private long steps;
+
+  public BudgetedTokenStream(TokenSource tokenSource, ParseBudget budget) {
+    super(tokenSource);
+    this.budget = budget;
+    this.deadline = budget.getMaxMillis() > 0 ? System.nanoTime() + budget.getMaxMillis() * 1000000L : 0;
+  }
+
+  /**
+   * Lex the whole input, and check the number of tokens.
+   */
+  public void check() {
+    fill();
+    if (getNumberOfOnChannelTokens() > budget.getMaxTokens()) {
+      throw new ParseBudgetException("Too many tokens (more than " + budget.getMaxTokens() + ")");
+    }
+  }
+
+  @Override
+  public int LA(int i) {
+    steps++;
+    if (steps > budget.getMaxSteps()) {
+      throw new ParseBudgetException("Too many parse steps (more than " + budget.getMaxSteps() + ")");
+    }
+    if (deadline != 0 && steps % CLOCK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+      throw new ParseBudgetException("Parse took too long (more than " + budget.getMaxMillis() + "ms)");
+    }
+    return super.LA(i);
+  }
+
+  public long getSteps() {
+    return steps;
+  }
+}
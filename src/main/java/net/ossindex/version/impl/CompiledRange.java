@@ -0,0 +1,83 @@
+package net.ossindex.version.impl;
+
+import java.util.Arrays;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+
+/**
+ * A range flattened by the RangeCompiler into sorted key intervals. There is a
+ * single implementation of contains for every shape of range, so a hot call site
+ * stays monomorphic and the check is a short loop over a long array.
+ *
+ * Versions without an exact key (named and extended versions, and pre-releases
+ * when the range has pre-release bounds) are checked against the source range.
+ */
+public final class CompiledRange
+{
+  /**
+   * Interval lists up to this length are scanned, longer ones binary searched.
+   */
+  private static final int SCAN_LENGTH = 8;
+
+  private final IVersionRange source;
+
+  /**
+   * Half open [start, end) key intervals, or null if the source could not be compiled.
+   */
+  private final long[] intervals;
+
+  private final boolean prerelease;
+
+  CompiledRange(IVersionRange source, long[] intervals, boolean prerelease) {
+    this.source = source;
+    this.intervals = intervals;
+    this.prerelease = prerelease;
+  }
+
+  public boolean contains(IVersion version) {
+    if (intervals == null || version == null || version.getClass() != SemanticVersion.class) {
+      return source.contains(version);
+    }
+    SemanticVersion sv = (SemanticVersion) version;
+    long key = RangeCompiler.key(sv);
+    if (key < 0 || (prerelease && (key & 1) == 0)) {
+      return source.contains(version);
+    }
+    return contains(key);
+  }
+
+  private boolean contains(long key) {
+    long[] intervals = this.intervals;
+    if (intervals.length <= SCAN_LENGTH) {
+      for (int i = 0; i < intervals.length; i += 2) {
+        if (key < intervals[i]) {
+          return false;
+        }
+        if (key < intervals[i + 1]) {
+          return true;
+        }
+      }
+      return false;
+    }
+    // The number of boundaries at or below the key is odd inside an interval
+    int index = Arrays.binarySearch(intervals, key);
+    return index >= 0 ? (index & 1) == 0 : ((-index - 1) & 1) == 1;
+  }
+
+  /**
+   * True if every check is answered from the key intervals, rather than by the source range.
+   */
+  public boolean isCompiled() {
+    return intervals != null;
+  }
+
+  public IVersionRange getSource() {
+    return source;
+  }
+
+  @Override
+  public String toString() {
+    return source.toString();
+  }
+}
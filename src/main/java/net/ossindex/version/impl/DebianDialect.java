@@ -0,0 +1,43 @@
+package net.ossindex.version.impl;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.InvalidRangeException;
+
+/**
+ * Debian package versions, and ranges written as dpkg relations such as
+ * "(>= 1:2.3-1), (<< 1:3.0)". As in dpkg, the obsolete "<" and ">" mean
+ * "<=" and ">=".
+ */
+public class DebianDialect
+    extends AbstractDialect
+{
+  @Override
+  public String getName() {
+    return "deb";
+  }
+
+  @Override
+  public IVersion getVersion(String version) throws InvalidRangeException {
+    return new DebianVersion(version);
+  }
+
+  @Override
+  String getOperator(String operator) {
+    switch (operator) {
+      case "<<":
+        return "<";
+      case "<":
+      case "<=":
+        return "<=";
+      case "=":
+        return "=";
+      case ">":
+      case ">=":
+        return ">=";
+      case ">>":
+        return ">";
+      default:
+        return null;
+    }
+  }
+}
@@ -0,0 +1,265 @@
+package net.ossindex.version.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.InvalidRangeException;
+
+/**
+ * A Debian package version, "[epoch:]upstream[-revision]", ordered the way
+ * dpkg orders them.
+ *
+ * dpkg compares versions a character at a time. Here each version is turned
+ * into a byte key once, when it is built, such that comparing two keys as
+ * unsigned bytes gives the dpkg order. The key is laid out as follows:
+ *
+ * - The epoch, as four bytes.
+ * - The upstream version and then the revision, each split into alternating
+ *   non-digit and digit parts. A non-digit part is written a byte per
+ *   character, "~" as 0x01, letters from 0x03 and other characters from 0x61
+ *   up, followed by 0x02 for its end. A digit part is written as its number
+ *   of digits after dropping leading zeroes, then the digits. The whole is
+ *   followed by 0x02.
+ *
+ * So "~" sorts before the end of a part, which sorts before letters, which
+ * sort before other characters, and a missing revision sorts like "0", as
+ * dpkg does.
+ */
+public class DebianVersion
+    implements IVersion
+{
+  private static final int TILDE = 0x01;
+
+  private static final int END = 0x02;
+
+  private final String version;
+
+  private final int epoch;
+
+  private final String upstream;
+
+  private final String revision;
+
+  private final byte[] key;
+
+  private final int hash;
+
+  public DebianVersion(String version) throws InvalidRangeException {
+    String v = version.trim();
+    int colon = v.indexOf(':');
+    int epoch = 0;
+    if (colon >= 0) {
+      try {
+        epoch = Integer.parseInt(v.substring(0, colon));
+      }
+      catch (NumberFormatException e) {
+        throw new InvalidRangeException("Invalid epoch in Debian version: " + version);
+      }
+      if (epoch < 0) {
+        throw new InvalidRangeException("Invalid epoch in Debian version: " + version);
+      }
+    }
+    int dash = v.lastIndexOf('-');
+    if (dash <= colon) {
+      dash = -1;
+    }
+    this.version = v;
+    this.epoch = epoch;
+    this.upstream = dash >= 0 ? v.substring(colon + 1, dash) : v.substring(colon + 1);
+    this.revision = dash >= 0 ? v.substring(dash + 1) : "";
+    if (upstream.isEmpty()) {
+      throw new InvalidRangeException("Missing upstream version in Debian version: " + version);
+    }
+    if (dash >= 0 && revision.isEmpty()) {
+      throw new InvalidRangeException("Empty revision in Debian version: " + version);
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream(v.length() + 16);
+    out.write(epoch >>> 24);
+    out.write(epoch >>> 16);
+    out.write(epoch >>> 8);
+    out.write(epoch);
+    if (!encode(upstream, out) || !encode(revision, out)) {
+      throw new InvalidRangeException("Invalid character in Debian version: " + version);
+    }
+    this.key = out.toByteArray();
+    this.hash = Arrays.hashCode(key);
+  }
+
+  /**
+   * Write the key of one part of the version, returning false if it holds a
+   * character dpkg does not allow.
+   */
+  private static boolean encode(String s, ByteArrayOutputStream out) {
+    int length = s.length();
+    int i = 0;
+    do {
+      // Non-digit part
+      while (i < length && !isDigit(s.charAt(i))) {
+        int order = order(s.charAt(i));
+        if (order < 0) {
+          return false;
+        }
+        out.write(order);
+        i++;
+      }
+      out.write(END);
+      // Digit part, without leading zeroes
+      while (i < length && s.charAt(i) == '0') {
+        i++;
+      }
+      int start = i;
+      while (i < length && isDigit(s.charAt(i))) {
+        i++;
+      }
+      if (i - start > 255) {
+        return false;
+      }
+      out.write(i - start);
+      for (int j = start; j < i; j++) {
+        out.write(s.charAt(j));
+      }
+    }
+    while (i < length);
+    out.write(END);
+    return true;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  /**
+   * Byte for a non-digit character, or -1 if it is not allowed.
+   */
+  private static int order(char c) {
+    if (c == '~') {
+      return TILDE;
+    }
+    if (c >= 'A' && c <= 'Z') {
+      return 0x03 + (c - 'A');
+    }
+    if (c >= 'a' && c <= 'z') {
+      return 0x1D + (c - 'a');
+    }
+    if (c > ' ' && c < 0x7F) {
+      return 0x40 + c;
+    }
+    return -1;
+  }
+
+  public int getEpoch() {
+    return epoch;
+  }
+
+  public String getUpstream() {
+    return upstream;
+  }
+
+  /**
+   * The Debian revision, or "" if there is none
+   */
+  public String getRevision() {
+    return revision;
+  }
+
+  @Override
+  public int compareTo(IVersion other) {
+    if (other instanceof DebianVersion) {
+      return compareKeys(key, ((DebianVersion) other).key);
+    }
+    return toString().compareTo(other.toString());
+  }
+
+  static int compareKeys(byte[] k1, byte[] k2) {
+    return compareKeys(k1, k1.length, k2, k2.length);
+  }
+
+  /**
+   * Compare the first length1 bytes of one key with the first length2 bytes
+   * of another, as unsigned bytes.
+   */
+  static int compareKeys(byte[] k1, int length1, byte[] k2, int length2) {
+    int length = Math.min(length1, length2);
+    for (int i = 0; i < length; i++) {
+      int cmp = (k1[i] & 0xff) - (k2[i] & 0xff);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return length1 - length2;
+  }
+
+  /**
+   * Versions that dpkg considers equal, such as "1.0" and "1.00", are equal.
+   */
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof DebianVersion && Arrays.equals(key, ((DebianVersion) o).key);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return version;
+  }
+
+  @Override
+  public int getMajor() {
+    return number(0);
+  }
+
+  @Override
+  public int getMinor() {
+    return number(1);
+  }
+
+  @Override
+  public int getPatch() {
+    return number(2);
+  }
+
+  @Override
+  public int getBuild() {
+    return number(3);
+  }
+
+  /**
+   * The index'th run of digits in the upstream version, or 0 if there is none
+   */
+  private int number(int index) {
+    int i = 0;
+    int length = upstream.length();
+    for (int n = 0; i < length; n++) {
+      while (i < length && !isDigit(upstream.charAt(i))) {
+        i++;
+      }
+      int start = i;
+      while (i < length && isDigit(upstream.charAt(i))) {
+        i++;
+      }
+      if (n == index) {
+        try {
+          return start < i ? Integer.parseInt(upstream.substring(start, i)) : 0;
+        }
+        catch (NumberFormatException e) {
+          return Integer.MAX_VALUE;
+        }
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Pre-releases are marked with "~", such as "1.0~rc1"
+   */
+  @Override
+  public boolean isStable() {
+    return upstream.indexOf('~') < 0;
+  }
+}
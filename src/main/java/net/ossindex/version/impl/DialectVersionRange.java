@@ -0,0 +1,279 @@
+package net.ossindex.version.impl;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+
+/**
+ * A bound on the versions of a dialect, such as ">= 1:2.3-1" for Debian. The
+ * versions are ordered by their own compareTo, so the range works for any
+ * dialect whose versions order themselves. Versions of another class are
+ * never contained.
+ *
+ * Bounds are joined with AndRange and OrRange like any other range.
+ */
+public class DialectVersionRange
+    extends AbstractCommonRange
+{
+  /**
+   * A version that compares other versions to itself when it bounds a range,
+   * for dialects where a bound may leave out part of a version.
+   */
+  public interface Bound
+  {
+    /**
+     * Compare the version to this bound, as version.compareTo(bound) would.
+     */
+    int compareToBound(IVersion version);
+  }
+
+  private final String operator;
+
+  private final IVersion version;
+
+  private String type;
+
+  private boolean hasErrors = false;
+
+  /**
+   * @param operator One of "<", "<=", "=", ">=" or ">"
+   */
+  public DialectVersionRange(String operator, IVersion version) {
+    switch (operator) {
+      case "<":
+      case "<=":
+      case "=":
+      case ">=":
+      case ">":
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown operator: " + operator);
+    }
+    this.operator = operator;
+    this.version = version;
+  }
+
+  public String getOperator() {
+    return operator;
+  }
+
+  public IVersion getVersion() {
+    return version;
+  }
+
+  @Override
+  public boolean contains(IVersion v) {
+    if (v == null || v.getClass() != version.getClass()) {
+      return false;
+    }
+    return matches(compareToBound(v));
+  }
+
+  private int compareToBound(IVersion v) {
+    return version instanceof Bound ? ((Bound) version).compareToBound(v) : v.compareTo(version);
+  }
+
+  private boolean matches(int cmp) {
+    switch (operator) {
+      case "<":
+        return cmp < 0;
+      case "<=":
+        return cmp <= 0;
+      case "=":
+        return cmp == 0;
+      case ">=":
+        return cmp >= 0;
+      default:
+        return cmp > 0;
+    }
+  }
+
+  private boolean isLower() {
+    return operator.charAt(0) == '>';
+  }
+
+  private boolean isInclusive() {
+    return operator.indexOf('=') >= 0;
+  }
+
+  private boolean hasLower() {
+    return isLower() || isDiscrete();
+  }
+
+  private boolean hasUpper() {
+    return !isLower();
+  }
+
+  /**
+   * Check whether any version lies between a lower and an upper bound. The
+   * lower version is compared with the upper bound, and the upper version with
+   * the lower bound, since a bound may compare only part of a version. Where
+   * only one bound finds the versions equal, that bound covers the other's
+   * version and all those around it, so its own inclusive flag decides.
+   */
+  private static boolean boundsMeet(DialectVersionRange lower, DialectVersionRange upper) {
+    int below = upper.compareToBound(lower.version);
+    int above = lower.compareToBound(upper.version);
+    if (below == 0 && above == 0) {
+      return lower.isInclusive() && upper.isInclusive();
+    }
+    if (below == 0) {
+      return upper.isInclusive();
+    }
+    if (above == 0) {
+      return lower.isInclusive();
+    }
+    return below < 0;
+  }
+
+  @Override
+  public boolean isDiscrete() {
+    return "=".equals(operator);
+  }
+
+  /**
+   * The bound. Ranges that are unbounded below have no lower version to give.
+   */
+  @Override
+  public IVersion getMinimum() {
+    return version;
+  }
+
+  @Override
+  public IVersion getMaximum() {
+    return version;
+  }
+
+  @Override
+  public boolean isSimple() {
+    return true;
+  }
+
+  @Override
+  public boolean intersects(IVersionRange yourRange) {
+    if (yourRange instanceof DialectVersionRange) {
+      DialectVersionRange range = (DialectVersionRange) yourRange;
+      if (range.version.getClass() != version.getClass()) {
+        return false;
+      }
+      // "=" is both a lower and an upper bound. Bounds that point the same way
+      // always meet.
+      return (!hasLower() || !range.hasUpper() || boundsMeet(this, range))
+          && (!range.hasLower() || !hasUpper() || boundsMeet(range, this));
+    }
+    if (yourRange instanceof AndRange || yourRange instanceof OrRange || yourRange instanceof VersionSet) {
+      return yourRange.intersects(this);
+    }
+    return false;
+  }
+
+  @Override
+  public boolean contains(IVersionRange yourRange) {
+    if (yourRange instanceof VersionSet) {
+      for (IVersion v : (VersionSet) yourRange) {
+        if (!contains(v)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (!(yourRange instanceof DialectVersionRange)) {
+      return false;
+    }
+    DialectVersionRange range = (DialectVersionRange) yourRange;
+    if (range.version.getClass() != version.getClass()) {
+      return false;
+    }
+    if (range.isDiscrete()) {
+      return contains(range.version);
+    }
+    if (isDiscrete() || isLower() != range.isLower()) {
+      return false;
+    }
+    int cmp = compareToBound(range.version);
+    if (cmp == 0) {
+      return isInclusive() || !range.isInclusive();
+    }
+    return isLower() ? cmp > 0 : cmp < 0;
+  }
+
+  @Override
+  public IVersionRange getSimplifiedRange() {
+    return this;
+  }
+
+  @Override
+  public String getType() {
+    return type;
+  }
+
+  @Override
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  @Override
+  public void setHasErrors(boolean b) {
+    hasErrors = b;
+  }
+
+  @Override
+  public boolean hasErrors() {
+    return hasErrors;
+  }
+
+  @Override
+  public IVersionRange invert() {
+    switch (operator) {
+      case ">":
+        return new DialectVersionRange("<=", version);
+      case ">=":
+        return new DialectVersionRange("<", version);
+      case "<":
+        return new DialectVersionRange(">=", version);
+      case "<=":
+        return new DialectVersionRange(">", version);
+      default:
+        return new OrRange(new DialectVersionRange("<", version), new DialectVersionRange(">", version));
+    }
+  }
+
+  @Override
+  public String toMavenString() {
+    switch (operator) {
+      case "<":
+        return "(," + version + ")";
+      case "<=":
+        return "(," + version + "]";
+      case "=":
+        return "[" + version + "]";
+      case ">=":
+        return "[" + version + ",)";
+      default:
+        return "(" + version + ",)";
+    }
+  }
+
+  /**
+   * Bounds that print the same can still compare different parts of a version,
+   * such as "===1.0" and "==1.0" for PEP 440, so the versions must be equal as
+   * well.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof DialectVersionRange)) {
+      return false;
+    }
+    DialectVersionRange range = (DialectVersionRange) o;
+    return operator.equals(range.operator) && sameVersion(version, range.version) && version.equals(range.version);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * operator.hashCode() + versionHash(version);
+  }
+
+  @Override
+  public String toString() {
+    return operator + version;
+  }
+}
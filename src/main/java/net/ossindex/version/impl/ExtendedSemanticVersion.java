@@ -14,9 +14,9 @@ public class ExtendedSemanticVersion
   /**
    * The trailing values are considered the tail
    */
-  private SemanticVersion tail;
+  private final SemanticVersion tail;
 
-  private String postfix;
+  private final String postfix;
 
   /**
    * Dirty hack for four digit builds
@@ -25,6 +25,7 @@ public class ExtendedSemanticVersion
   {
     head = Version.forIntegers(major, minor, patch);
     tail = new SemanticVersion(build);
+    postfix = null;
     significantDigits = 4;
   }
 
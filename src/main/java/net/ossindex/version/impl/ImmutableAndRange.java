@@ -0,0 +1,48 @@
+package net.ossindex.version.impl;
+
+import net.ossindex.version.IVersionRange;
+
+/**
+ * Two ranges anded together that cannot be changed once built. The children
+ * should be immutable themselves.
+ */
+public class ImmutableAndRange
+    extends AndRange
+{
+  private final String type;
+
+  private final boolean hasErrors;
+
+  public ImmutableAndRange(IVersionRange range1, IVersionRange range2, String type, boolean hasErrors) {
+    this(range1, range2, type, hasErrors, true);
+  }
+
+  /**
+   * Copies of an AndRange that was already built do not need to be checked again.
+   */
+  ImmutableAndRange(IVersionRange range1, IVersionRange range2, String type, boolean hasErrors, boolean validate) {
+    super(range1, range2, validate);
+    this.type = type;
+    this.hasErrors = hasErrors;
+  }
+
+  @Override
+  public String getType() {
+    return type;
+  }
+
+  @Override
+  public boolean hasErrors() {
+    return hasErrors;
+  }
+
+  @Override
+  public void setType(String type) {
+    throw new UnsupportedOperationException("Immutable range");
+  }
+
+  @Override
+  public void setHasErrors(boolean b) {
+    throw new UnsupportedOperationException("Immutable range");
+  }
+}
@@ -0,0 +1,42 @@
+package net.ossindex.version.impl;
+
+import net.ossindex.version.IVersion;
+
+/**
+ * A dialect bound that cannot be changed once built. The type and error flag
+ * are given at construction, and every field is final, so instances can be
+ * shared between threads.
+ */
+public class ImmutableDialectVersionRange
+    extends DialectVersionRange
+{
+  private final String type;
+
+  private final boolean hasErrors;
+
+  public ImmutableDialectVersionRange(String operator, IVersion version, String type, boolean hasErrors) {
+    super(operator, version);
+    this.type = type;
+    this.hasErrors = hasErrors;
+  }
+
+  @Override
+  public String getType() {
+    return type;
+  }
+
+  @Override
+  public boolean hasErrors() {
+    return hasErrors;
+  }
+
+  @Override
+  public void setType(String type) {
+    throw new UnsupportedOperationException("Immutable range");
+  }
+
+  @Override
+  public void setHasErrors(boolean b) {
+    throw new UnsupportedOperationException("Immutable range");
+  }
+}
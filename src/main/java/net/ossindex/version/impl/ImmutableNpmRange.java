@@ -0,0 +1,41 @@
+package net.ossindex.version.impl;
+
+/**
+ * An npm range that cannot be changed once built. It shares the compiled
+ * intervals of the range it copies, which are never changed either. The type
+ * and error flag are given at construction, so instances can be shared between
+ * threads.
+ */
+public class ImmutableNpmRange
+    extends NpmRange
+{
+  private final String type;
+
+  private final boolean hasErrors;
+
+  public ImmutableNpmRange(NpmRange range, String type, boolean hasErrors) {
+    super(range);
+    this.type = type;
+    this.hasErrors = hasErrors;
+  }
+
+  @Override
+  public String getType() {
+    return type;
+  }
+
+  @Override
+  public boolean hasErrors() {
+    return hasErrors;
+  }
+
+  @Override
+  public void setType(String type) {
+    throw new UnsupportedOperationException("Immutable range");
+  }
+
+  @Override
+  public void setHasErrors(boolean b) {
+    throw new UnsupportedOperationException("Immutable range");
+  }
+}
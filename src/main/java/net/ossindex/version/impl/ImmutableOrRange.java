@@ -0,0 +1,57 @@
+package net.ossindex.version.impl;
+
+import java.util.List;
+
+import net.ossindex.version.IVersionRange;
+
+/**
+ * A union that cannot be changed once built. The children should be immutable
+ * themselves.
+ */
+public class ImmutableOrRange
+    extends OrRange
+{
+  private final String type;
+
+  private final boolean hasErrors;
+
+  /**
+   * Children may only be added by the super constructor, before this is set.
+   */
+  private final boolean sealed;
+
+  public ImmutableOrRange(List<IVersionRange> ranges, String type, boolean hasErrors) {
+    super(ranges);
+    this.type = type;
+    this.hasErrors = hasErrors;
+    this.sealed = true;
+  }
+
+  @Override
+  public OrRange add(IVersionRange range) {
+    if (sealed) {
+      throw new UnsupportedOperationException("Immutable range");
+    }
+    return super.add(range);
+  }
+
+  @Override
+  public String getType() {
+    return type;
+  }
+
+  @Override
+  public boolean hasErrors() {
+    return hasErrors;
+  }
+
+  @Override
+  public void setType(String type) {
+    throw new UnsupportedOperationException("Immutable range");
+  }
+
+  @Override
+  public void setHasErrors(boolean b) {
+    throw new UnsupportedOperationException("Immutable range");
+  }
+}
@@ -0,0 +1,67 @@
+package net.ossindex.version.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.ossindex.version.IVersionRange;
+
+/**
+ * Converts ranges built by the parser into their immutable variants.
+ *
+ * The parser builds ranges up piece by piece, so the mutable classes act as its
+ * builders. Once a range is complete it can be copied here into a tree whose
+ * type and error flags are fixed at construction and which rejects any further
+ * changes. Versions are already immutable and are shared with the original.
+ */
+public final class ImmutableRanges
+{
+  private ImmutableRanges() {
+  }
+
+  /**
+   * Get an immutable copy of the range. Ranges that are already immutable, and
+   * range types without an immutable variant, are returned as they are.
+   */
+  public static IVersionRange copyOf(IVersionRange range) {
+    if (range == null || isImmutable(range)) {
+      return range;
+    }
+    String type = range.getType();
+    boolean hasErrors = range.hasErrors();
+    if (range instanceof VersionRange) {
+      VersionRange vrange = (VersionRange) range;
+      return new ImmutableVersionRange(vrange.getOperator(), vrange.getVersion(), type, hasErrors);
+    }
+    if (range instanceof AndRange) {
+      AndRange arange = (AndRange) range;
+      return new ImmutableAndRange(copyOf(arange.first()), copyOf(arange.last()), type, hasErrors, false);
+    }
+    if (range instanceof OrRange) {
+      List<IVersionRange> children = new ArrayList<IVersionRange>();
+      for (IVersionRange child : ((OrRange) range).getRanges()) {
+        children.add(copyOf(child));
+      }
+      return new ImmutableOrRange(children, type, hasErrors);
+    }
+    if (range instanceof VersionSet) {
+      return ImmutableVersionSet.of(((VersionSet) range).getVersions(), type, hasErrors);
+    }
+    if (range instanceof DialectVersionRange) {
+      DialectVersionRange drange = (DialectVersionRange) range;
+      return new ImmutableDialectVersionRange(drange.getOperator(), drange.getVersion(), type, hasErrors);
+    }
+    if (range instanceof NpmRange) {
+      return new ImmutableNpmRange((NpmRange) range, type, hasErrors);
+    }
+    return range;
+  }
+
+  public static boolean isImmutable(IVersionRange range) {
+    return range instanceof ImmutableVersionRange
+        || range instanceof ImmutableAndRange
+        || range instanceof ImmutableOrRange
+        || range instanceof ImmutableVersionSet
+        || range instanceof ImmutableDialectVersionRange
+        || range instanceof ImmutableNpmRange;
+  }
+}
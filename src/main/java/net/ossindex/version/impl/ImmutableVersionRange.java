@@ -0,0 +1,40 @@
+package net.ossindex.version.impl;
+
+/**
+ * A simple range that cannot be changed once built. The type and error flag are
+ * given at construction, and every field is final, so instances can be shared
+ * between threads.
+ */
+public class ImmutableVersionRange
+    extends VersionRange
+{
+  private final String type;
+
+  private final boolean hasErrors;
+
+  public ImmutableVersionRange(String operator, SemanticVersion version, String type, boolean hasErrors) {
+    super(operator, version);
+    this.type = type;
+    this.hasErrors = hasErrors;
+  }
+
+  @Override
+  public String getType() {
+    return type;
+  }
+
+  @Override
+  public boolean hasErrors() {
+    return hasErrors;
+  }
+
+  @Override
+  public void setType(String type) {
+    throw new UnsupportedOperationException("Immutable range");
+  }
+
+  @Override
+  public void setHasErrors(boolean b) {
+    throw new UnsupportedOperationException("Immutable range");
+  }
+}
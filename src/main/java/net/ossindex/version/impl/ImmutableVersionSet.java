@@ -0,0 +1,290 @@
+package net.ossindex.version.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import net.ossindex.version.IVersion;
+
+/**
+ * A set of versions that cannot be changed once built, and whose iterator is
+ * read only.
+ *
+ * The versions are kept in arrays rather than a tree. Semantic versions are
+ * found with a binary search, other versions by name from a hash set. Use
+ * of() to get the most compact form for the number of versions, and union()
+ * and intersection() to combine sets without rebuilding a tree.
+ */
+public class ImmutableVersionSet
+    extends VersionSet
+{
+  /**
+   * Sets up to this size are scanned rather than searched.
+   */
+  static final int SMALL_SIZE = 8;
+
+  private final String type;
+
+  private final boolean hasErrors;
+
+  /**
+   * In the order a VersionSet iterates them
+   */
+  final IVersion[] versions;
+
+  /**
+   * In VersionComparator order, which puts the semantic versions first. Same
+   * array as versions when the orders agree.
+   */
+  private final IVersion[] sorted;
+
+  private final int semanticSize;
+
+  /**
+   * Names of the versions that are not semantic, or null if there are none.
+   */
+  private final Set<String> names;
+
+  public ImmutableVersionSet(Collection<IVersion> versions, String type, boolean hasErrors) {
+    this(toArray(versions), type, hasErrors, true);
+  }
+
+  /**
+   * @param versions Distinct versions, in VersionSet order
+   * @param index Build the name lookup. Subclasses that scan do not need it.
+   */
+  ImmutableVersionSet(IVersion[] versions, String type, boolean hasErrors, boolean index) {
+    super((SortedSet<IVersion>) null);
+    this.versions = versions;
+    this.type = type;
+    this.hasErrors = hasErrors;
+    IVersion[] sorted = versions.clone();
+    Arrays.sort(sorted, VersionComparator.INSTANCE);
+    this.sorted = sameOrder(sorted, versions) ? versions : sorted;
+    int semanticSize = 0;
+    while (semanticSize < sorted.length && VersionComparator.isSemantic(sorted[semanticSize])) {
+      semanticSize++;
+    }
+    this.semanticSize = semanticSize;
+    if (!index || semanticSize == sorted.length) {
+      this.names = null;
+    }
+    else {
+      Set<String> names = new HashSet<String>();
+      for (int i = semanticSize; i < sorted.length; i++) {
+        names.add(sorted[i].toString());
+      }
+      this.names = names;
+    }
+  }
+
+  /**
+   * Get an immutable set in the most compact form for the number of versions.
+   */
+  public static ImmutableVersionSet of(Collection<IVersion> versions, String type, boolean hasErrors) {
+    return of(toArray(versions), type, hasErrors);
+  }
+
+  private static ImmutableVersionSet of(IVersion[] versions, String type, boolean hasErrors) {
+    if (versions.length == 1) {
+      return new SingletonVersionSet(versions[0], type, hasErrors);
+    }
+    if (versions.length <= SMALL_SIZE) {
+      return new SmallVersionSet(versions, type, hasErrors);
+    }
+    return new ImmutableVersionSet(versions, type, hasErrors, true);
+  }
+
+  /**
+   * Versions in either set, found by merging the sorted versions of both. The
+   * type is taken from the first set.
+   */
+  public static ImmutableVersionSet union(VersionSet set1, VersionSet set2) {
+    IVersion[] v1 = set1.toSortedArray();
+    IVersion[] v2 = set2.toSortedArray();
+    List<IVersion> results = new ArrayList<IVersion>(v1.length + v2.length);
+    int i = 0;
+    int j = 0;
+    while (i < v1.length && j < v2.length) {
+      int cmp = VersionComparator.INSTANCE.compare(v1[i], v2[j]);
+      if (cmp <= 0) {
+        results.add(v1[i++]);
+        if (cmp == 0) {
+          j++;
+        }
+      }
+      else {
+        results.add(v2[j++]);
+      }
+    }
+    while (i < v1.length) {
+      results.add(v1[i++]);
+    }
+    while (j < v2.length) {
+      results.add(v2[j++]);
+    }
+    return of(results, set1.getType(), set1.hasErrors() || set2.hasErrors());
+  }
+
+  /**
+   * Versions in both sets, found by merging the sorted versions of both. The
+   * type is taken from the first set.
+   */
+  public static ImmutableVersionSet intersection(VersionSet set1, VersionSet set2) {
+    IVersion[] v1 = set1.toSortedArray();
+    IVersion[] v2 = set2.toSortedArray();
+    List<IVersion> results = new ArrayList<IVersion>(Math.min(v1.length, v2.length));
+    int i = 0;
+    int j = 0;
+    while (i < v1.length && j < v2.length) {
+      int cmp = VersionComparator.INSTANCE.compare(v1[i], v2[j]);
+      if (cmp == 0) {
+        results.add(v1[i]);
+        i++;
+        j++;
+      }
+      else if (cmp < 0) {
+        i++;
+      }
+      else {
+        j++;
+      }
+    }
+    return of(results, set1.getType(), set1.hasErrors() || set2.hasErrors());
+  }
+
+  /**
+   * Matches the versions a VersionSet holding the same versions would match.
+   */
+  @Override
+  public boolean contains(IVersion version) {
+    if (VersionComparator.isSemantic(version)) {
+      SemanticVersion query = (SemanticVersion) version;
+      int low = 0;
+      int high = semanticSize;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (((SemanticVersion) sorted[mid]).getVersionImpl().compareTo(query.getVersionImpl()) < 0) {
+          low = mid + 1;
+        }
+        else {
+          high = mid;
+        }
+      }
+      for (int i = low; i < semanticSize; i++) {
+        SemanticVersion member = (SemanticVersion) sorted[i];
+        if (!member.getVersionImpl().equals(query.getVersionImpl())) {
+          break;
+        }
+        if (query.compareTo(member) == 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+    if (version instanceof NamedVersion) {
+      return names != null && names.contains(version.toString());
+    }
+    return scan(version);
+  }
+
+  /**
+   * Check the version against every member the way a tree lookup would.
+   */
+  boolean scan(IVersion version) {
+    for (IVersion member : versions) {
+      if (version.compareTo(member) == 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public IVersion getMinimum() {
+    if (versions.length == 0) {
+      return new VersionImpl(0, 0, 0);
+    }
+    return versions[0];
+  }
+
+  @Override
+  public IVersion getMaximum() {
+    if (versions.length == 0) {
+      return new VersionImpl(0, 0, 0);
+    }
+    return versions[versions.length - 1];
+  }
+
+  @Override
+  public void add(IVersion version) {
+    throw new UnsupportedOperationException("Immutable range");
+  }
+
+  @Override
+  public Iterator<IVersion> iterator() {
+    return getVersions().iterator();
+  }
+
+  @Override
+  public Collection<IVersion> getVersions() {
+    return Collections.unmodifiableList(Arrays.asList(versions));
+  }
+
+  @Override
+  public int size() {
+    return versions.length;
+  }
+
+  @Override
+  IVersion[] toSortedArray() {
+    return sorted.clone();
+  }
+
+  @Override
+  public String getType() {
+    return type;
+  }
+
+  @Override
+  public boolean hasErrors() {
+    return hasErrors;
+  }
+
+  @Override
+  public void setType(String type) {
+    throw new UnsupportedOperationException("Immutable range");
+  }
+
+  @Override
+  public void setHasErrors(boolean b) {
+    throw new UnsupportedOperationException("Immutable range");
+  }
+
+  private static boolean sameOrder(IVersion[] v1, IVersion[] v2) {
+    for (int i = 0; i < v1.length; i++) {
+      if (v1[i] != v2[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Distinct versions in the order a VersionSet keeps them.
+   */
+  private static IVersion[] toArray(Collection<IVersion> versions) {
+    SortedSet<IVersion> set = new TreeSet<IVersion>();
+    for (IVersion version : versions) {
+      set.add(version);
+    }
+    return set.toArray(new IVersion[set.size()]);
+  }
+}
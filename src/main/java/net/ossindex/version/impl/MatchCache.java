@@ -0,0 +1,275 @@
+package net.ossindex.version.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+
+/**
+ * Remembers the result of checking a version against a range, for scans that
+ * check the same pairs over and over, such as the same SBOMs against a mostly
+ * unchanged set of advisories.
+ *
+ * Results are kept by range identity, so the cache works best with interned
+ * ranges (see RangeInterner and VersionFactory.getSharedVersionFactory()), where
+ * every equal range is the same instance. Versions are matched by class and
+ * equality, so a version parsed again on the next scan still hits. A range must
+ * not change while its results are cached. When a range is replaced, or changed,
+ * invalidate it.
+ *
+ * The cache is safe to use from several threads. Once it holds the maximum
+ * number of results new results are no longer remembered, until ranges are
+ * invalidated or the cache is cleared.
+ */
+public class MatchCache
+{
+  /**
+   * Default maximum number of results that are remembered.
+   */
+  private static final int MAX_RESULTS = 1000000;
+
+  private final int maxResults;
+
+  private final ConcurrentMap<RangeKey, Memo> memos = new ConcurrentHashMap<RangeKey, Memo>();
+
+  private final AtomicInteger size = new AtomicInteger();
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  public MatchCache() {
+    this(MAX_RESULTS);
+  }
+
+  public MatchCache(int maxResults) {
+    this.maxResults = maxResults;
+  }
+
+  /**
+   * Get a range that behaves like the provided one, but whose contains(IVersion)
+   * is answered from this cache.
+   */
+  public IVersionRange wrap(IVersionRange range) {
+    if (range instanceof MemoizedRange && ((MemoizedRange) range).getCache() == this) {
+      return range;
+    }
+    return new MemoizedRange(unwrap(range), this);
+  }
+
+  /**
+   * Check the version against the range, remembering the result.
+   */
+  public boolean contains(IVersionRange range, IVersion version) {
+    range = unwrap(range);
+    if (version == null) {
+      return range.contains(version);
+    }
+    return contains(getMemo(range), version);
+  }
+
+  boolean contains(Memo memo, IVersion version) {
+    VersionKey key = new VersionKey(version);
+    Boolean result = memo.results.get(key);
+    if (result != null) {
+      hits.incrementAndGet();
+      return result;
+    }
+    misses.incrementAndGet();
+    boolean contains = memo.range.contains(version);
+    if (!memo.invalid && reserve()) {
+      if (memo.results.putIfAbsent(key, contains) != null) {
+        size.decrementAndGet();
+      }
+      else if (memo.invalid) {
+        // Invalidated while adding, and the result may have been missed
+        forget(memo, key);
+      }
+    }
+    return contains;
+  }
+
+  /**
+   * Count one more result, if there is room for it.
+   */
+  private boolean reserve() {
+    while (true) {
+      int n = size.get();
+      if (n >= maxResults) {
+        return false;
+      }
+      if (size.compareAndSet(n, n + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Remove one result. Only the thread that removes it uncounts it.
+   */
+  private void forget(Memo memo, VersionKey key) {
+    if (memo.results.remove(key) != null) {
+      size.decrementAndGet();
+    }
+  }
+
+  /**
+   * Get the results for the range, creating them if needed. Once the cache is
+   * full no more ranges are added, and the range gets results that are never
+   * filled.
+   */
+  Memo getMemo(IVersionRange range) {
+    RangeKey key = new RangeKey(range);
+    Memo memo = memos.get(key);
+    if (memo == null) {
+      memo = new Memo(range);
+      if (size.get() >= maxResults || memos.size() >= maxResults) {
+        memo.invalid = true;
+        return memo;
+      }
+      Memo previous = memos.putIfAbsent(key, memo);
+      if (previous != null) {
+        memo = previous;
+      }
+    }
+    return memo;
+  }
+
+  /**
+   * Forget all results for the range.
+   */
+  public void invalidate(IVersionRange range) {
+    Memo memo = memos.remove(new RangeKey(unwrap(range)));
+    if (memo != null) {
+      memo.invalid = true;
+      for (VersionKey key : memo.results.keySet()) {
+        forget(memo, key);
+      }
+    }
+  }
+
+  /**
+   * Forget the results of a range that is being replaced, and get the cached
+   * replacement.
+   */
+  public IVersionRange replace(IVersionRange oldRange, IVersionRange newRange) {
+    invalidate(oldRange);
+    return wrap(newRange);
+  }
+
+  /**
+   * Forget all results, and reset the statistics.
+   */
+  public void clear() {
+    for (RangeKey key : memos.keySet()) {
+      invalidate(key.range);
+    }
+    hits.set(0);
+    misses.set(0);
+  }
+
+  /**
+   * Number of results remembered
+   */
+  public int size() {
+    return size.get();
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Fraction of checks answered from the cache, or 0 if nothing was checked yet.
+   */
+  public double getHitRate() {
+    long h = hits.get();
+    long total = h + misses.get();
+    return total == 0 ? 0 : (double) h / total;
+  }
+
+  @Override
+  public String toString() {
+    return "MatchCache[size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + "]";
+  }
+
+  private static IVersionRange unwrap(IVersionRange range) {
+    return range instanceof MemoizedRange ? ((MemoizedRange) range).getRange() : range;
+  }
+
+  /**
+   * The results of one range. Once invalidated it is no longer filled, and
+   * ranges holding on to it should fetch a new one. Results are only counted
+   * by the thread that adds them and uncounted by the thread that removes them,
+   * so the size stays exact when a range is invalidated while it is filled.
+   */
+  static final class Memo
+  {
+    final IVersionRange range;
+
+    final ConcurrentMap<VersionKey, Boolean> results = new ConcurrentHashMap<VersionKey, Boolean>();
+
+    volatile boolean invalid;
+
+    Memo(IVersionRange range) {
+      this.range = range;
+    }
+  }
+
+  /**
+   * Ranges are kept by identity.
+   */
+  private static final class RangeKey
+  {
+    private final IVersionRange range;
+
+    RangeKey(IVersionRange range) {
+      this.range = range;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof RangeKey && ((RangeKey) o).range == range;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(range);
+    }
+  }
+
+  /**
+   * Versions of different classes can be equal (a SemanticVersion equals an
+   * ExtendedSemanticVersion with the same head) yet match differently, so the
+   * class is part of the key.
+   */
+  private static final class VersionKey
+  {
+    private final IVersion version;
+
+    VersionKey(IVersion version) {
+      this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof VersionKey)) {
+        return false;
+      }
+      IVersion other = ((VersionKey) o).version;
+      return other == version || (other.getClass() == version.getClass() && other.equals(version));
+    }
+
+    @Override
+    public int hashCode() {
+      return version.hashCode();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package net.ossindex.version.impl;
+
+import java.util.Comparator;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+import net.ossindex.version.InvalidRangeException;
+import net.ossindex.version.InvalidRangeRuntimeException;
+import net.ossindex.version.ParseBudget;
+import net.ossindex.version.VersionDialect;
+import net.ossindex.version.parser.VersionLexer;
+import net.ossindex.version.parser.VersionParser;
+import net.ossindex.version.parser.VersionParser.RangeContext;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+/**
+ * Maven versions and version ranges, ordered exactly as Maven orders them.
+ * Ranges are Maven intervals such as "[1.0,2.0)", "(,1.0]" or "[1.2]", joined
+ * by "," for "or". A version without brackets matches only itself.
+ *
+ * Maven intervals are what the general grammar's maven_range rule reads, so
+ * ranges are parsed with the grammar, and a listener in Maven mode builds the
+ * bounds as MavenVersions instead of semantic versions.
+ */
+public class MavenDialect
+    implements VersionDialect
+{
+  private static final Comparator<IVersion> COMPARATOR = new Comparator<IVersion>()
+  {
+    @Override
+    public int compare(IVersion v1, IVersion v2) {
+      return v1.compareTo(v2);
+    }
+  };
+
+  @Override
+  public String getName() {
+    return "maven";
+  }
+
+  @Override
+  public IVersion getVersion(String version) throws InvalidRangeException {
+    return new MavenVersion(version);
+  }
+
+  @Override
+  public IVersionRange getRange(String range) throws InvalidRangeException {
+    String s = range.trim();
+    if (s.isEmpty() || (s.charAt(0) != '[' && s.charAt(0) != '(')) {
+      IVersionRange result = new DialectVersionRange("=", new MavenVersion(s));
+      result.setType(getName());
+      return result;
+    }
+    if (s.length() > ParseBudget.DEFAULT.getMaxLength()) {
+      throw new InvalidRangeException("Maven range too long: " + range.length() + " characters");
+    }
+    try {
+      VersionErrorListener errorListener = new VersionErrorListener();
+      VersionLexer lexer = new VersionLexer(new ANTLRInputStream(s));
+      lexer.removeErrorListeners();
+      lexer.addErrorListener(errorListener);
+      BudgetedTokenStream tokens = new BudgetedTokenStream(lexer, ParseBudget.DEFAULT);
+      tokens.check();
+      VersionParser parser = new VersionParser(tokens);
+      parser.removeErrorListeners();
+      parser.addErrorListener(errorListener);
+      RangeContext context = parser.range();
+      if (errorListener.hasErrors() || context.maven_ranges() == null) {
+        throw new InvalidRangeException("Invalid Maven range: " + range);
+      }
+      VersionListener listener = new VersionListener(false, true, true);
+      new ParseTreeWalker().walk(listener, context);
+      return listener.getRange();
+    }
+    catch (InvalidRangeRuntimeException e) {
+      throw new InvalidRangeException(e.getMessage(), e);
+    }
+    catch (RuntimeException e) {
+      // Parse budget and stack errors
+      throw new InvalidRangeException(e);
+    }
+  }
+
+  @Override
+  public Comparator<IVersion> getComparator() {
+    return COMPARATOR;
+  }
+}
@@ -0,0 +1,394 @@
+package net.ossindex.version.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.InvalidRangeException;
+
+/**
+ * A Maven version, ordered exactly as Maven's ComparableVersion orders them.
+ *
+ * The version is split into items at ".", at "-", and where digits change to
+ * letters or back. A "-" or a change between digits and letters starts a
+ * sub-list, which holds the rest of the version. Trailing zeroes and release
+ * qualifiers ("", "ga", "final", "release") are dropped from each list, so
+ * "1", "1.0" and "1-ga" are the same version. Qualifiers are ordered
+ *
+ * alpha &lt; beta &lt; milestone &lt; rc = cr &lt; snapshot &lt; "" &lt; sp
+ *
+ * followed by unknown qualifiers in alphabetical order, and "a1", "b1" and
+ * "m1" are "alpha-1", "beta-1" and "milestone-1". A number is newer than a
+ * sub-list, and a sub-list is newer than a qualifier, so
+ * "1-alpha" &lt; "1" &lt; "1-sp" &lt; "1-1" &lt; "1.1".
+ *
+ * The normalized items are written once, when the version is built, into a
+ * key whose unsigned byte order is the ComparableVersion order. Each item is
+ * a kind byte, ordered as the item kinds are: a qualifier as 0x01 followed by
+ * its rank, and for unknown qualifiers the characters and two 0x00 bytes; a
+ * sub-list as 0x02; and a number as 0x03 followed by the number of digits
+ * without leading zeroes and the digits. Sub-lists always come last, so the
+ * items of a sub-list simply follow its 0x02.
+ *
+ * Where one key runs out, Maven compares the rest of the other version with
+ * nothing: zero and "" are equal to nothing, other numbers are newer, known
+ * qualifiers below "" are older, and a sub-list counts as its first item.
+ * That is the only place the keys are not compared byte for byte.
+ */
+public class MavenVersion
+    implements IVersion
+{
+  private static final int QUALIFIER = 0x01;
+
+  private static final int LIST = 0x02;
+
+  private static final int NUMBER = 0x03;
+
+  private static final List<String> QUALIFIERS = Arrays.asList("alpha", "beta", "milestone", "rc", "snapshot", "", "sp");
+
+  /**
+   * Rank of the release qualifier, ""
+   */
+  private static final int RELEASE = 5;
+
+  /**
+   * Rank of qualifiers that are not well known
+   */
+  private static final int UNKNOWN = 7;
+
+  private static final byte[] ZERO = {NUMBER, 0};
+
+  /**
+   * Numbers with more digits than this have a long length
+   */
+  private static final int SHORT_LENGTH = 254;
+
+  private final String version;
+
+  private final byte[] key;
+
+  private final int hash;
+
+  public MavenVersion(String version) throws InvalidRangeException {
+    String s = version.trim();
+    if (s.isEmpty()) {
+      throw new InvalidRangeException("Empty Maven version");
+    }
+    this.version = s;
+    this.key = encode(parse(s.toLowerCase(Locale.ENGLISH)));
+    this.hash = Arrays.hashCode(key);
+  }
+
+  /**
+   * Split the version into its items, as ComparableVersion does. Each list
+   * holds the items of one level of nesting, before its sub-list, which is the
+   * next list.
+   */
+  private static List<List<byte[]>> parse(String s) {
+    List<List<byte[]>> lists = new ArrayList<List<byte[]>>();
+    List<byte[]> list = new ArrayList<byte[]>();
+    lists.add(list);
+    boolean digit = false;
+    int start = 0;
+    int length = s.length();
+    for (int i = 0; i < length; i++) {
+      char c = s.charAt(i);
+      if (c == '.' || c == '-') {
+        list.add(i == start ? ZERO : item(s, start, i, digit, false));
+        start = i + 1;
+        if (c == '-') {
+          list = new ArrayList<byte[]>();
+          lists.add(list);
+        }
+      }
+      else if (Character.isDigit(c)) {
+        if (!digit && i > start) {
+          list.add(item(s, start, i, false, true));
+          start = i;
+          list = new ArrayList<byte[]>();
+          lists.add(list);
+        }
+        digit = true;
+      }
+      else {
+        if (digit && i > start) {
+          list.add(item(s, start, i, true, false));
+          start = i;
+          list = new ArrayList<byte[]>();
+          lists.add(list);
+        }
+        digit = false;
+      }
+    }
+    if (length > start) {
+      list.add(item(s, start, length, digit, false));
+    }
+    normalize(lists);
+    return lists;
+  }
+
+  /**
+   * Drop trailing zeroes and release qualifiers from each list, innermost
+   * first, and drop a sub-list that is left empty.
+   */
+  private static void normalize(List<List<byte[]>> lists) {
+    for (int i = lists.size() - 1; i >= 0; i--) {
+      List<byte[]> list = lists.get(i);
+      int size = list.size();
+      while (size > 0 && isNull(list.get(size - 1))) {
+        size--;
+      }
+      list.subList(size, list.size()).clear();
+      if (size == 0 && i > 0 && i == lists.size() - 1) {
+        lists.remove(i);
+      }
+    }
+  }
+
+  private static boolean isNull(byte[] item) {
+    return item[1] == (item[0] == NUMBER ? 0 : RELEASE);
+  }
+
+  private static byte[] item(String s, int start, int end, boolean digit, boolean followedByDigit) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(end - start + 4);
+    if (digit) {
+      while (start < end && s.charAt(start) == '0') {
+        start++;
+      }
+      int length = end - start;
+      out.write(NUMBER);
+      if (length <= SHORT_LENGTH) {
+        out.write(length);
+      }
+      else {
+        out.write(0xff);
+        out.write(length >>> 24);
+        out.write(length >>> 16);
+        out.write(length >>> 8);
+        out.write(length);
+      }
+      for (int i = start; i < end; i++) {
+        out.write('0' + Character.digit(s.charAt(i), 10));
+      }
+      return out.toByteArray();
+    }
+    String qualifier = qualifier(s.substring(start, end), followedByDigit);
+    int rank = QUALIFIERS.indexOf(qualifier);
+    out.write(QUALIFIER);
+    if (rank >= 0) {
+      out.write(rank);
+      return out.toByteArray();
+    }
+    out.write(UNKNOWN);
+    for (int i = 0; i < qualifier.length(); i++) {
+      char c = qualifier.charAt(i);
+      out.write(c >>> 8);
+      out.write(c);
+    }
+    out.write(0);
+    out.write(0);
+    return out.toByteArray();
+  }
+
+  private static String qualifier(String qualifier, boolean followedByDigit) {
+    if (followedByDigit && qualifier.length() == 1) {
+      switch (qualifier.charAt(0)) {
+        case 'a':
+          return "alpha";
+        case 'b':
+          return "beta";
+        case 'm':
+          return "milestone";
+        default:
+          break;
+      }
+    }
+    switch (qualifier) {
+      case "ga":
+      case "final":
+      case "release":
+        return "";
+      case "cr":
+        return "rc";
+      default:
+        return qualifier;
+    }
+  }
+
+  private static byte[] encode(List<List<byte[]>> lists) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int i = 0; i < lists.size(); i++) {
+      if (i > 0) {
+        out.write(LIST);
+      }
+      for (byte[] item : lists.get(i)) {
+        out.write(item, 0, item.length);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  static int compareKeys(byte[] k1, byte[] k2) {
+    int length = Math.min(k1.length, k2.length);
+    for (int i = 0; i < length; i++) {
+      int cmp = (k1[i] & 0xff) - (k2[i] & 0xff);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    if (k1.length > length) {
+      return compareToNothing(k1, length);
+    }
+    if (k2.length > length) {
+      return -compareToNothing(k2, length);
+    }
+    return 0;
+  }
+
+  /**
+   * Compare the items of the key from index on with missing items, the way
+   * ComparableVersion compares items with null.
+   */
+  private static int compareToNothing(byte[] key, int index) {
+    int i = index;
+    while (i < key.length) {
+      if (key[i] == LIST) {
+        // A list compares as its first item, and is the last item of its list
+        do {
+          i++;
+        }
+        while (i < key.length && key[i] == LIST);
+        return i < key.length ? compareItemToNothing(key, i) : 0;
+      }
+      int cmp = compareItemToNothing(key, i);
+      if (cmp != 0) {
+        return cmp;
+      }
+      // Only zero and the release qualifier are equal to nothing, both two bytes
+      i += 2;
+    }
+    return 0;
+  }
+
+  private static int compareItemToNothing(byte[] key, int i) {
+    if (key[i] == NUMBER) {
+      return key[i + 1] == 0 ? 0 : 1;
+    }
+    return Integer.signum(key[i + 1] - RELEASE);
+  }
+
+  @Override
+  public int compareTo(IVersion other) {
+    if (other instanceof MavenVersion) {
+      return compareKeys(key, ((MavenVersion) other).key);
+    }
+    return toString().compareTo(other.toString());
+  }
+
+  /**
+   * Versions with the same items after normalization, such as "1.0" and
+   * "1-GA", are equal. As with ComparableVersion, some versions that are not
+   * equal still compare as 0, such as "1-0.1" and "1".
+   */
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof MavenVersion && Arrays.equals(key, ((MavenVersion) o).key);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return version;
+  }
+
+  @Override
+  public int getMajor() {
+    return number(0);
+  }
+
+  @Override
+  public int getMinor() {
+    return number(1);
+  }
+
+  @Override
+  public int getPatch() {
+    return number(2);
+  }
+
+  @Override
+  public int getBuild() {
+    return number(3);
+  }
+
+  /**
+   * The index'th item of the outer list, if it is a number, otherwise 0
+   */
+  private int number(int index) {
+    int i = 0;
+    for (int n = 0; i < key.length && key[i] != LIST; n++) {
+      int end = skip(key, i);
+      if (n == index) {
+        if (key[i] != NUMBER) {
+          return 0;
+        }
+        if (end - i - 2 > 9) {
+          return Integer.MAX_VALUE;
+        }
+        long value = 0;
+        for (int j = i + 2; j < end; j++) {
+          value = value * 10 + (key[j] - '0');
+        }
+        return (int) Math.min(value, Integer.MAX_VALUE);
+      }
+      i = end;
+    }
+    return 0;
+  }
+
+  /**
+   * The index just past the item starting at i
+   */
+  private static int skip(byte[] key, int i) {
+    switch (key[i]) {
+      case NUMBER:
+        if ((key[i + 1] & 0xff) == 0xff) {
+          int length = ((key[i + 2] & 0xff) << 24) | ((key[i + 3] & 0xff) << 16) | ((key[i + 4] & 0xff) << 8) | (key[i + 5] & 0xff);
+          return i + 6 + length;
+        }
+        return i + 2 + (key[i + 1] & 0xff);
+      case QUALIFIER:
+        if (key[i + 1] != UNKNOWN) {
+          return i + 2;
+        }
+        i += 2;
+        while (key[i] != 0 || key[i + 1] != 0) {
+          i += 2;
+        }
+        return i + 2;
+      default:
+        return i + 1;
+    }
+  }
+
+  /**
+   * Versions with an alpha, beta, milestone, rc or snapshot qualifier are not
+   * stable.
+   */
+  @Override
+  public boolean isStable() {
+    for (int i = 0; i < key.length; i = skip(key, i)) {
+      if (key[i] == QUALIFIER && key[i + 1] < RELEASE) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,159 @@
+package net.ossindex.version.impl;
+
+import java.util.BitSet;
+import java.util.List;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+
+/**
+ * A range whose contains(IVersion) is answered from a MatchCache. Everything
+ * else is passed straight on to the wrapped range.
+ *
+ * Other ranges do not know about this wrapper, so pass getRange() to their
+ * intersects and contains(IVersionRange) methods.
+ */
+public class MemoizedRange
+    implements IVersionRange
+{
+  private final IVersionRange range;
+
+  private final MatchCache cache;
+
+  private volatile MatchCache.Memo memo;
+
+  MemoizedRange(IVersionRange range, MatchCache cache) {
+    this.range = range;
+    this.cache = cache;
+  }
+
+  @Override
+  public boolean contains(IVersion version) {
+    if (version == null) {
+      return range.contains(version);
+    }
+    MatchCache.Memo memo = this.memo;
+    if (memo == null || memo.invalid) {
+      memo = cache.getMemo(range);
+      this.memo = memo;
+    }
+    return cache.contains(memo, version);
+  }
+
+  /**
+   * The bulk check is already cheaper than a lookup per version, so it is not cached.
+   */
+  @Override
+  public BitSet containsAll(IVersion[] versions) {
+    return range.containsAll(versions);
+  }
+
+  @Override
+  public BitSet containsAll(List<? extends IVersion> versions) {
+    return range.containsAll(versions);
+  }
+
+  @Override
+  public boolean isDiscrete() {
+    return range.isDiscrete();
+  }
+
+  @Override
+  public IVersion getMinimum() {
+    return range.getMinimum();
+  }
+
+  @Override
+  public IVersion getMaximum() {
+    return range.getMaximum();
+  }
+
+  @Override
+  public boolean isSimple() {
+    return range.isSimple();
+  }
+
+  @Override
+  public boolean intersects(IVersionRange yourRange) {
+    return range.intersects(unwrap(yourRange));
+  }
+
+  @Override
+  public boolean contains(IVersionRange trange) {
+    return range.contains(unwrap(trange));
+  }
+
+  @Override
+  public IVersionRange getSimplifiedRange() {
+    return range.getSimplifiedRange();
+  }
+
+  @Override
+  public String getType() {
+    return range.getType();
+  }
+
+  @Override
+  public void setType(String type) {
+    range.setType(type);
+  }
+
+  @Override
+  public void setHasErrors(boolean b) {
+    range.setHasErrors(b);
+  }
+
+  @Override
+  public boolean hasErrors() {
+    return range.hasErrors();
+  }
+
+  @Override
+  public IVersionRange invert() {
+    return range.invert();
+  }
+
+  @Override
+  public String toMavenString() {
+    return range.toMavenString();
+  }
+
+  @Override
+  public int compareTo(IVersionRange yourRange) {
+    return range.compareTo(unwrap(yourRange));
+  }
+
+  /**
+   * The range that is checked on a cache miss
+   */
+  public IVersionRange getRange() {
+    return range;
+  }
+
+  MatchCache getCache() {
+    return cache;
+  }
+
+  /**
+   * Equal to other memoized ranges of equal ranges. The wrapped range does not
+   * know about this wrapper, so a memoized range is not equal to it.
+   */
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof MemoizedRange && range.equals(((MemoizedRange) o).range);
+  }
+
+  @Override
+  public int hashCode() {
+    return range.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return range.toString();
+  }
+
+  private static IVersionRange unwrap(IVersionRange range) {
+    return range instanceof MemoizedRange ? ((MemoizedRange) range).range : range;
+  }
+}
@@ -49,14 +49,40 @@ public class NamedVersion
   // We just won't let these characters happen in a named version because that would be madness
   private static final Pattern INVALID_VERSION_CHARS = Pattern.compile("[ \t\n\r]");
 
-  private String name;
+  private final String name;
+
+  private final boolean opaque;
 
   public NamedVersion(String name) throws InvalidRangeException
   {
+    this(name, false);
     if (!isValidNamedVersion(name)) {
       throw new InvalidRangeException("Could not parse: " + name);
     }
+  }
+
+  private NamedVersion(String name, boolean opaque)
+  {
     this.name = name;
+    this.opaque = opaque;
+  }
+
+  /**
+   * A named version holding the string as is, whatever characters it has. Used
+   * for strings that are kept without being parsed at all.
+   */
+  public static NamedVersion opaque(String name)
+  {
+    return new NamedVersion(name, true);
+  }
+
+  /**
+   * True if the version was created by opaque(String), and so its name was not
+   * checked for characters that named versions may not hold.
+   */
+  public boolean isOpaque()
+  {
+    return opaque;
   }
 
   /*
@@ -0,0 +1,442 @@
+package net.ossindex.version.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.InvalidRangeException;
+import net.ossindex.version.VersionDialect;
+import net.ossindex.version.impl.NpmRange.Interval;
+
+/**
+ * npm versions and ranges, following node-semver. Versions are semantic
+ * versions, optionally written with a leading "v". Ranges are comparator sets
+ * joined by "||", where a set is a hyphen range ("1.2 - 2.3.4") or a list of
+ * comparators separated by spaces. A comparator is a version, an X-range
+ * ("1.x", "1.2.*", "*"), a tilde range ("~1.2", "~>1.2"), a caret range
+ * ("^0.2.3"), or a comparison ("<", "<=", "=", ">=", ">") with a version or an
+ * X-range.
+ *
+ * Ranges are read by a scanner, rather than the grammar, and each comparator is
+ * rewritten to plain comparisons the way node-semver does, which are then
+ * compiled to an NpmRange.
+ */
+public class NpmDialect
+    implements VersionDialect
+{
+  private static final Comparator<IVersion> COMPARATOR = new Comparator<IVersion>()
+  {
+    @Override
+    public int compare(IVersion v1, IVersion v2) {
+      return v1.compareTo(v2);
+    }
+  };
+
+  /**
+   * A wildcard or missing number
+   */
+  private static final int X = -1;
+
+  @Override
+  public String getName() {
+    return "npm";
+  }
+
+  @Override
+  public IVersion getVersion(String version) throws InvalidRangeException {
+    Partial partial = parsePartial(version.trim(), version);
+    if (partial.patch == X) {
+      throw new InvalidRangeException("Incomplete npm version: " + version);
+    }
+    return partial.toVersion(true);
+  }
+
+  @Override
+  public NpmRange getRange(String range) throws InvalidRangeException {
+    StringBuilder text = new StringBuilder();
+    List<Interval> sets = new ArrayList<Interval>();
+    List<SemanticVersion> prereleases = new ArrayList<SemanticVersion>();
+    List<Integer> prereleaseSets = new ArrayList<Integer>();
+    int start = 0;
+    while (true) {
+      int end = range.indexOf("||", start);
+      ComparatorSet set = parseSet(range.substring(start, end < 0 ? range.length() : end), range);
+      if (text.length() > 0) {
+        text.append(" || ");
+      }
+      text.append(set.text.length() == 0 ? "*" : set.text);
+      for (SemanticVersion prerelease : set.prereleases) {
+        prereleases.add(prerelease);
+        prereleaseSets.add(sets.size());
+      }
+      sets.add(set.interval);
+      if (end < 0) {
+        break;
+      }
+      start = end + 2;
+    }
+    NpmRange result = new NpmRange(text.toString(), sets, prereleases, prereleaseSets);
+    result.setType(getName());
+    return result;
+  }
+
+  @Override
+  public Comparator<IVersion> getComparator() {
+    return COMPARATOR;
+  }
+
+  private static ComparatorSet parseSet(String s, String range) throws InvalidRangeException {
+    List<String> tokens = tokenize(s);
+    ComparatorSet set = new ComparatorSet();
+    if (tokens.size() == 3 && tokens.get(1).equals("-")) {
+      addHyphen(set, parsePartial(tokens.get(0), range), parsePartial(tokens.get(2), range));
+      return set;
+    }
+    for (String token : tokens) {
+      int i = 0;
+      while (i < token.length() && "<>=~^".indexOf(token.charAt(i)) >= 0) {
+        i++;
+      }
+      String operator = token.substring(0, i);
+      if (i == token.length()) {
+        throw new InvalidRangeException("Missing version in npm range: " + range);
+      }
+      Partial partial = parsePartial(token.substring(i), range);
+      switch (operator) {
+        case "":
+        case "=":
+        case "==":
+          addXRange(set, "", partial);
+          break;
+        case "<":
+        case "<=":
+        case ">":
+        case ">=":
+          addXRange(set, operator, partial);
+          break;
+        case "~":
+        case "~>":
+          addTilde(set, partial);
+          break;
+        case "^":
+          addCaret(set, partial);
+          break;
+        default:
+          throw new InvalidRangeException("Unknown npm operator " + operator + " in range: " + range);
+      }
+    }
+    return set;
+  }
+
+  /**
+   * Split a comparator set on white space, keeping an operator with the
+   * version that follows it, so "> = 1.2" and ">= 1.2" are one token.
+   */
+  private static List<String> tokenize(String s) {
+    List<String> tokens = new ArrayList<String>();
+    int length = s.length();
+    int i = 0;
+    while (true) {
+      while (i < length && Character.isWhitespace(s.charAt(i))) {
+        i++;
+      }
+      if (i == length) {
+        return tokens;
+      }
+      StringBuilder token = new StringBuilder();
+      while (i < length && ("<>=~^".indexOf(s.charAt(i)) >= 0 || Character.isWhitespace(s.charAt(i)))) {
+        if (!Character.isWhitespace(s.charAt(i))) {
+          token.append(s.charAt(i));
+        }
+        i++;
+      }
+      while (i < length && !Character.isWhitespace(s.charAt(i))) {
+        token.append(s.charAt(i++));
+      }
+      tokens.add(token.toString());
+    }
+  }
+
+  /**
+   * Plain versions and X-ranges, alone or after a comparison operator
+   */
+  private static void addXRange(ComparatorSet set, String operator, Partial p) throws InvalidRangeException {
+    if (p.major == X) {
+      if (operator.equals("<") || operator.equals(">")) {
+        // Nothing is below 0.0.0-0, so this matches nothing
+        set.add("<", 0, 0, 0, "0");
+      }
+      return;
+    }
+    if (p.patch != X) {
+      set.add(operator.isEmpty() ? "=" : operator, p.toVersion(false));
+      return;
+    }
+    int major = p.major;
+    int minor = p.minor == X ? 0 : p.minor;
+    switch (operator) {
+      case "":
+        if (p.minor == X) {
+          set.add(">=", major, 0, 0, null);
+          set.add("<", next(major), 0, 0, "0");
+        }
+        else {
+          set.add(">=", major, minor, 0, null);
+          set.add("<", major, next(minor), 0, "0");
+        }
+        break;
+      case ">":
+        if (p.minor == X) {
+          set.add(">=", next(major), 0, 0, null);
+        }
+        else {
+          set.add(">=", major, next(minor), 0, null);
+        }
+        break;
+      case "<=":
+        if (p.minor == X) {
+          set.add("<", next(major), 0, 0, "0");
+        }
+        else {
+          set.add("<", major, next(minor), 0, "0");
+        }
+        break;
+      case "<":
+        set.add("<", major, minor, 0, "0");
+        break;
+      default:
+        set.add(">=", major, minor, 0, null);
+        break;
+    }
+  }
+
+  /**
+   * "~1.2.3" allows patch changes, "~1" minor changes
+   */
+  private static void addTilde(ComparatorSet set, Partial p) throws InvalidRangeException {
+    if (p.major == X) {
+      return;
+    }
+    if (p.minor == X) {
+      set.add(">=", p.major, 0, 0, null);
+      set.add("<", next(p.major), 0, 0, "0");
+    }
+    else {
+      set.add(">=", p.patch == X ? new Partial(p.major, p.minor, 0).toVersion(false) : p.toVersion(false));
+      set.add("<", p.major, next(p.minor), 0, "0");
+    }
+  }
+
+  /**
+   * "^1.2.3" allows changes that do not modify the left-most non-zero number
+   */
+  private static void addCaret(ComparatorSet set, Partial p) throws InvalidRangeException {
+    if (p.major == X) {
+      return;
+    }
+    if (p.minor == X) {
+      set.add(">=", p.major, 0, 0, null);
+      set.add("<", next(p.major), 0, 0, "0");
+      return;
+    }
+    set.add(">=", p.patch == X ? new Partial(p.major, p.minor, 0).toVersion(false) : p.toVersion(false));
+    if (p.major != 0) {
+      set.add("<", next(p.major), 0, 0, "0");
+    }
+    else if (p.minor != 0 || p.patch == X) {
+      set.add("<", 0, next(p.minor), 0, "0");
+    }
+    else {
+      set.add("<", 0, 0, next(p.patch), "0");
+    }
+  }
+
+  /**
+   * "1.2 - 2.3.4" is ">=1.2.0 <=2.3.4", and a partial upper bound covers all
+   * the versions it stands for
+   */
+  private static void addHyphen(ComparatorSet set, Partial from, Partial to) throws InvalidRangeException {
+    if (from.major != X) {
+      set.add(">=", from.patch == X
+          ? new Partial(from.major, from.minor == X ? 0 : from.minor, 0).toVersion(false)
+          : from.toVersion(false));
+    }
+    if (to.major == X) {
+      return;
+    }
+    if (to.minor == X) {
+      set.add("<", next(to.major), 0, 0, "0");
+    }
+    else if (to.patch == X) {
+      set.add("<", to.major, next(to.minor), 0, "0");
+    }
+    else {
+      set.add("<=", to.toVersion(false));
+    }
+  }
+
+  private static int next(int number) throws InvalidRangeException {
+    if (number == Integer.MAX_VALUE) {
+      throw new InvalidRangeException("Version number too large in npm range");
+    }
+    return number + 1;
+  }
+
+  /**
+   * Read "[v]major[.minor[.patch[-prerelease][+build]]]", where each number
+   * may be "x", "X" or "*".
+   */
+  private static Partial parsePartial(String s, String input) throws InvalidRangeException {
+    int length = s.length();
+    int i = 0;
+    while (i < length && (s.charAt(i) == 'v' || s.charAt(i) == 'V' || s.charAt(i) == '=')) {
+      i++;
+    }
+    Partial p = new Partial(X, X, X);
+    int[] numbers = new int[3];
+    int count = 0;
+    while (count < 3) {
+      if (i == length) {
+        break;
+      }
+      if (count > 0) {
+        if (s.charAt(i) != '.') {
+          break;
+        }
+        i++;
+      }
+      int start = i;
+      char c = i < length ? s.charAt(i) : 0;
+      if (c == 'x' || c == 'X' || c == '*') {
+        numbers[count++] = X;
+        i++;
+        continue;
+      }
+      while (i < length && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+        i++;
+      }
+      if (i == start || (s.charAt(start) == '0' && i - start > 1) || i - start > 10) {
+        throw new InvalidRangeException("Invalid number in npm version: " + input);
+      }
+      long number = Long.parseLong(s.substring(start, i));
+      if (number > Integer.MAX_VALUE) {
+        throw new InvalidRangeException("Version number too large in npm version: " + input);
+      }
+      numbers[count++] = (int) number;
+    }
+    if (count == 0) {
+      throw new InvalidRangeException("Missing version in npm range: " + input);
+    }
+    // Everything after a wildcard is a wildcard
+    p.major = numbers[0];
+    p.minor = count > 1 && p.major != X ? numbers[1] : X;
+    p.patch = count > 2 && p.minor != X ? numbers[2] : X;
+    if (count == 3 && i < length && s.charAt(i) == '-') {
+      int start = ++i;
+      while (i < length && s.charAt(i) != '+') {
+        i++;
+      }
+      p.prerelease = identifiers(s.substring(start, i), true, input);
+    }
+    if (count == 3 && i < length && s.charAt(i) == '+') {
+      p.build = identifiers(s.substring(i + 1), false, input);
+      i = length;
+    }
+    if (i != length) {
+      throw new InvalidRangeException("Invalid npm version: " + input);
+    }
+    if (p.patch == X) {
+      p.prerelease = null;
+      p.build = null;
+    }
+    return p;
+  }
+
+  /**
+   * Check dot separated identifiers of letters, digits and hyphens. Numeric
+   * pre-release identifiers may not have leading zeroes.
+   */
+  private static String identifiers(String s, boolean prerelease, String input) throws InvalidRangeException {
+    for (String identifier : s.split("\\.", -1)) {
+      boolean numeric = !identifier.isEmpty();
+      for (int i = 0; i < identifier.length(); i++) {
+        char c = identifier.charAt(i);
+        if (c >= '0' && c <= '9') {
+          continue;
+        }
+        numeric = false;
+        if (!(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && c != '-') {
+          throw new InvalidRangeException("Invalid identifier in npm version: " + input);
+        }
+      }
+      if (identifier.isEmpty() || (prerelease && numeric && identifier.length() > 1 && identifier.charAt(0) == '0')) {
+        throw new InvalidRangeException("Invalid identifier in npm version: " + input);
+      }
+    }
+    return s;
+  }
+
+  /**
+   * The numbers of a version, where any may be X
+   */
+  private static final class Partial
+  {
+    int major;
+
+    int minor;
+
+    int patch;
+
+    String prerelease;
+
+    String build;
+
+    Partial(int major, int minor, int patch) {
+      this.major = major;
+      this.minor = minor;
+      this.patch = patch;
+    }
+
+    SemanticVersion toVersion(boolean withBuild) {
+      StringBuilder sb = new StringBuilder();
+      sb.append(major).append('.').append(minor).append('.').append(patch);
+      if (prerelease != null) {
+        sb.append('-').append(prerelease);
+      }
+      if (withBuild && build != null) {
+        sb.append('+').append(build);
+      }
+      return new SemanticVersion(sb.toString());
+    }
+  }
+
+  /**
+   * The comparisons of one comparator set, and the interval they bound
+   */
+  private static final class ComparatorSet
+  {
+    final StringBuilder text = new StringBuilder();
+
+    final List<SemanticVersion> prereleases = new ArrayList<SemanticVersion>();
+
+    Interval interval = Interval.ALL;
+
+    void add(String operator, int major, int minor, int patch, String prerelease) {
+      Partial p = new Partial(major, minor, patch);
+      p.prerelease = prerelease;
+      add(operator, p.toVersion(false));
+    }
+
+    void add(String operator, SemanticVersion version) {
+      if (text.length() > 0) {
+        text.append(' ');
+      }
+      text.append(operator).append(version);
+      if (!version.getVersionImpl().getPreReleaseVersion().isEmpty()) {
+        prereleases.add(version);
+      }
+      interval = interval.and(Interval.of(operator, version));
+    }
+  }
+}
@@ -0,0 +1,540 @@
+package net.ossindex.version.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.github.zafarkhaja.semver.Version;
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+
+/**
+ * An npm range, such as "^1.2.3 || 2.x - 3.1", compiled to intervals of
+ * semantic versions.
+ *
+ * Each comparator set of the range is one interval. For release versions the
+ * intervals of all sets are merged into a sorted list of disjoint intervals,
+ * so contains is a binary search. As in node-semver, a pre-release version is
+ * only contained by a set that has a comparator on a pre-release of the same
+ * major, minor and patch, so those comparators are kept alongside the
+ * interval of their set and checked in turn.
+ */
+public class NpmRange
+    extends AbstractCommonRange
+{
+  private static final Interval[] NONE = new Interval[0];
+
+  private final String range;
+
+  /**
+   * Sorted and disjoint
+   */
+  private final Interval[] intervals;
+
+  /**
+   * Comparator versions with a pre-release, and the interval of their set
+   */
+  private final Version[] prereleases;
+
+  private final Interval[] prereleaseIntervals;
+
+  private String type;
+
+  private boolean hasErrors = false;
+
+  /**
+   * @param range The normalized range, as printed by toString
+   * @param sets The interval of each comparator set
+   * @param prereleases Versions with a pre-release in the comparators of any set
+   * @param prereleaseSets The index of the set of each pre-release version
+   */
+  NpmRange(String range, List<Interval> sets, List<SemanticVersion> prereleases, List<Integer> prereleaseSets) {
+    this.range = range;
+    this.intervals = merge(sets);
+    this.prereleases = new Version[prereleases.size()];
+    this.prereleaseIntervals = new Interval[prereleases.size()];
+    for (int i = 0; i < this.prereleases.length; i++) {
+      this.prereleases[i] = prereleases.get(i).getVersionImpl();
+      this.prereleaseIntervals[i] = sets.get(prereleaseSets.get(i));
+    }
+  }
+
+  /**
+   * Share the compiled intervals of the range, but not its type or error flag
+   */
+  NpmRange(NpmRange range) {
+    this.range = range.range;
+    this.intervals = range.intervals;
+    this.prereleases = range.prereleases;
+    this.prereleaseIntervals = range.prereleaseIntervals;
+  }
+
+  private static Interval[] merge(List<Interval> sets) {
+    List<Interval> sorted = new ArrayList<Interval>(sets.size());
+    for (Interval interval : sets) {
+      if (!interval.isEmpty()) {
+        sorted.add(interval);
+      }
+    }
+    if (sorted.isEmpty()) {
+      return NONE;
+    }
+    Collections.sort(sorted, Interval.BY_LOWER);
+    List<Interval> merged = new ArrayList<Interval>(sorted.size());
+    Interval current = sorted.get(0);
+    for (int i = 1; i < sorted.size(); i++) {
+      Interval next = sorted.get(i);
+      if (current.meets(next)) {
+        current = current.or(next);
+      }
+      else {
+        merged.add(current);
+        current = next;
+      }
+    }
+    merged.add(current);
+    return merged.toArray(new Interval[merged.size()]);
+  }
+
+  @Override
+  public boolean contains(IVersion version) {
+    if (!(version instanceof SemanticVersion)) {
+      return false;
+    }
+    Version head = ((SemanticVersion) version).getVersionImpl();
+    if (head == null) {
+      return false;
+    }
+    if (!head.getPreReleaseVersion().isEmpty()) {
+      for (int i = 0; i < prereleases.length; i++) {
+        Version allowed = prereleases[i];
+        if (allowed.getMajorVersion() == head.getMajorVersion()
+            && allowed.getMinorVersion() == head.getMinorVersion()
+            && allowed.getPatchVersion() == head.getPatchVersion()
+            && prereleaseIntervals[i].contains(head)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    int index = firstNotBelow(head);
+    return index < intervals.length && intervals[index].contains(head);
+  }
+
+  /**
+   * Index of the first interval that does not lie wholly below the version
+   */
+  private int firstNotBelow(Version head) {
+    int low = 0;
+    int high = intervals.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (intervals[mid].isBelow(head)) {
+        low = mid + 1;
+      }
+      else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * The highest of the versions this range contains, or null if there is none.
+   * The versions must be sorted by VersionComparator, so each interval is
+   * searched from its top.
+   */
+  public IVersion maxSatisfying(List<? extends IVersion> sorted) {
+    int end = sorted.size();
+    for (int k = intervals.length - 1; k >= 0 && end > 0; k--) {
+      Interval interval = intervals[k];
+      // First version above the interval. Versions that are not semantic sort
+      // above all the others.
+      int low = 0;
+      int high = end;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        Version head = head(sorted.get(mid));
+        if (head == null || interval.isBelow(head)) {
+          high = mid;
+        }
+        else {
+          low = mid + 1;
+        }
+      }
+      int i = low - 1;
+      for (; i >= 0; i--) {
+        IVersion version = sorted.get(i);
+        if (interval.isAbove(head(version))) {
+          break;
+        }
+        if (contains(version)) {
+          return version;
+        }
+      }
+      end = i + 1;
+    }
+    return null;
+  }
+
+  private static Version head(IVersion version) {
+    return version instanceof SemanticVersion ? ((SemanticVersion) version).getVersionImpl() : null;
+  }
+
+  @Override
+  public boolean isDiscrete() {
+    if (intervals.length == 0) {
+      return false;
+    }
+    for (Interval interval : intervals) {
+      if (!interval.isPoint()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The lowest bound, or 0.0.0 if the range is not bounded below
+   */
+  @Override
+  public IVersion getMinimum() {
+    if (intervals.length == 0 || intervals[0].lower == null) {
+      return new SemanticVersion(0, 0, 0);
+    }
+    return intervals[0].lower;
+  }
+
+  /**
+   * The highest bound, or null if the range is not bounded above
+   */
+  @Override
+  public IVersion getMaximum() {
+    return intervals.length == 0 ? null : intervals[intervals.length - 1].upper;
+  }
+
+  @Override
+  public boolean isSimple() {
+    return intervals.length == 1;
+  }
+
+  @Override
+  public boolean intersects(IVersionRange yourRange) {
+    if (yourRange instanceof NpmRange) {
+      Interval[] mine = intervals;
+      Interval[] yours = ((NpmRange) yourRange).intervals;
+      int i = 0;
+      int j = 0;
+      while (i < mine.length && j < yours.length) {
+        if (!mine[i].and(yours[j]).isEmpty()) {
+          return true;
+        }
+        if (Interval.compareUpper(mine[i], yours[j]) < 0) {
+          i++;
+        }
+        else {
+          j++;
+        }
+      }
+      return false;
+    }
+    if (yourRange instanceof AndRange || yourRange instanceof OrRange || yourRange instanceof VersionSet) {
+      return yourRange.intersects(this);
+    }
+    return false;
+  }
+
+  /**
+   * True for sets of contained versions, and for npm ranges whose intervals
+   * all lie within intervals of this one.
+   */
+  @Override
+  public boolean contains(IVersionRange yourRange) {
+    if (yourRange instanceof VersionSet) {
+      for (IVersion v : (VersionSet) yourRange) {
+        if (!contains(v)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (!(yourRange instanceof NpmRange)) {
+      return false;
+    }
+    NpmRange range = (NpmRange) yourRange;
+    for (Interval interval : range.intervals) {
+      if (!covers(interval)) {
+        return false;
+      }
+    }
+    for (int i = 0; i < range.prereleases.length; i++) {
+      if (!coversPrerelease(range.prereleases[i], range.prereleaseIntervals[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean covers(Interval interval) {
+    for (Interval mine : intervals) {
+      if (mine.and(interval).equals(interval)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean coversPrerelease(Version prerelease, Interval interval) {
+    for (int i = 0; i < prereleases.length; i++) {
+      if (prereleases[i].getNormalVersion().equals(prerelease.getNormalVersion())
+          && prereleaseIntervals[i].and(interval).equals(interval)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public IVersionRange getSimplifiedRange() {
+    return this;
+  }
+
+  @Override
+  public String getType() {
+    return type;
+  }
+
+  @Override
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  @Override
+  public void setHasErrors(boolean b) {
+    hasErrors = b;
+  }
+
+  @Override
+  public boolean hasErrors() {
+    return hasErrors;
+  }
+
+  /**
+   * The merged intervals. Pre-release rules are not kept.
+   */
+  @Override
+  public String toMavenString() {
+    StringBuilder sb = new StringBuilder();
+    for (Interval interval : intervals) {
+      if (sb.length() > 0) {
+        sb.append(',');
+      }
+      sb.append(interval.lower != null && interval.lowerInclusive ? '[' : '(');
+      sb.append(interval.lower == null ? "" : interval.lower.toString()).append(',');
+      sb.append(interval.upper == null ? "" : interval.upper.toString());
+      sb.append(interval.upper != null && interval.upperInclusive ? ']' : ')');
+    }
+    return sb.toString();
+  }
+
+  @Override
+  Version getLowerHead() {
+    return intervals.length == 0 || intervals[0].lower == null ? null : intervals[0].lower.getVersionImpl();
+  }
+
+  @Override
+  Version getUpperHead() {
+    if (intervals.length == 0 || intervals[intervals.length - 1].upper == null) {
+      return null;
+    }
+    return intervals[intervals.length - 1].upper.getVersionImpl();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof NpmRange && range.equals(((NpmRange) o).range);
+  }
+
+  @Override
+  public int hashCode() {
+    return range.hashCode();
+  }
+
+  /**
+   * The comparators each part of the range stands for, such as
+   * ">=1.2.3 <2.0.0-0 || >=3.0.0"
+   */
+  @Override
+  public String toString() {
+    return range;
+  }
+
+  /**
+   * Versions between two bounds. A null bound is unbounded.
+   */
+  static final class Interval
+  {
+    static final Interval ALL = new Interval(null, false, null, false);
+
+    static final Comparator<Interval> BY_LOWER = new Comparator<Interval>()
+    {
+      @Override
+      public int compare(Interval i1, Interval i2) {
+        return compareLower(i1, i2);
+      }
+    };
+
+    final SemanticVersion lower;
+
+    final boolean lowerInclusive;
+
+    final SemanticVersion upper;
+
+    final boolean upperInclusive;
+
+    Interval(SemanticVersion lower, boolean lowerInclusive, SemanticVersion upper, boolean upperInclusive) {
+      this.lower = lower;
+      this.lowerInclusive = lowerInclusive;
+      this.upper = upper;
+      this.upperInclusive = upperInclusive;
+    }
+
+    /**
+     * Versions that compare to the version as the operator says
+     *
+     * @param operator One of "<", "<=", "=", ">=" or ">"
+     */
+    static Interval of(String operator, SemanticVersion version) {
+      switch (operator) {
+        case "<":
+          return new Interval(null, false, version, false);
+        case "<=":
+          return new Interval(null, false, version, true);
+        case ">":
+          return new Interval(version, false, null, false);
+        case ">=":
+          return new Interval(version, true, null, false);
+        default:
+          return new Interval(version, true, version, true);
+      }
+    }
+
+    boolean contains(Version head) {
+      return !isBelow(head) && !isAbove(head);
+    }
+
+    /**
+     * True if every version of the interval is below the version
+     */
+    boolean isBelow(Version head) {
+      if (upper == null) {
+        return false;
+      }
+      int cmp = upper.getVersionImpl().compareTo(head);
+      return cmp < 0 || (cmp == 0 && !upperInclusive);
+    }
+
+    /**
+     * True if every version of the interval is above the version
+     */
+    boolean isAbove(Version head) {
+      if (lower == null) {
+        return false;
+      }
+      int cmp = lower.getVersionImpl().compareTo(head);
+      return cmp > 0 || (cmp == 0 && !lowerInclusive);
+    }
+
+    boolean isEmpty() {
+      if (lower == null || upper == null) {
+        return false;
+      }
+      int cmp = lower.getVersionImpl().compareTo(upper.getVersionImpl());
+      return cmp > 0 || (cmp == 0 && !(lowerInclusive && upperInclusive));
+    }
+
+    boolean isPoint() {
+      return lower != null && upper != null && lowerInclusive && upperInclusive
+          && lower.getVersionImpl().compareTo(upper.getVersionImpl()) == 0;
+    }
+
+    Interval and(Interval other) {
+      Interval low = compareLower(this, other) >= 0 ? this : other;
+      Interval high = compareUpper(this, other) <= 0 ? this : other;
+      return new Interval(low.lower, low.lowerInclusive, high.upper, high.upperInclusive);
+    }
+
+    /**
+     * The union of two intervals that meet
+     */
+    Interval or(Interval other) {
+      Interval low = compareLower(this, other) <= 0 ? this : other;
+      Interval high = compareUpper(this, other) >= 0 ? this : other;
+      return new Interval(low.lower, low.lowerInclusive, high.upper, high.upperInclusive);
+    }
+
+    /**
+     * True if the other interval, which does not start below this one,
+     * overlaps or touches this one, or if only pre-releases lie between them,
+     * as between "<2.0.0-0" and ">=2.0.0". Merged intervals are only used for
+     * release versions.
+     */
+    boolean meets(Interval other) {
+      if (upper == null || other.lower == null) {
+        return true;
+      }
+      Version high = upper.getVersionImpl();
+      Version low = other.lower.getVersionImpl();
+      int cmp = high.compareTo(low);
+      if (cmp > 0 || (cmp == 0 && (upperInclusive || other.lowerInclusive))) {
+        return true;
+      }
+      return high.getNormalVersion().equals(low.getNormalVersion())
+          && (other.lowerInclusive || !low.getPreReleaseVersion().isEmpty());
+    }
+
+    /**
+     * Order by lower bound, unbounded first, and inclusive before exclusive
+     */
+    static int compareLower(Interval i1, Interval i2) {
+      if (i1.lower == null || i2.lower == null) {
+        return i1.lower == null ? (i2.lower == null ? 0 : -1) : 1;
+      }
+      int cmp = i1.lower.getVersionImpl().compareTo(i2.lower.getVersionImpl());
+      if (cmp != 0 || i1.lowerInclusive == i2.lowerInclusive) {
+        return cmp;
+      }
+      return i1.lowerInclusive ? -1 : 1;
+    }
+
+    /**
+     * Order by upper bound, unbounded last, and exclusive before inclusive
+     */
+    static int compareUpper(Interval i1, Interval i2) {
+      if (i1.upper == null || i2.upper == null) {
+        return i1.upper == null ? (i2.upper == null ? 0 : 1) : -1;
+      }
+      int cmp = i1.upper.getVersionImpl().compareTo(i2.upper.getVersionImpl());
+      if (cmp != 0 || i1.upperInclusive == i2.upperInclusive) {
+        return cmp;
+      }
+      return i1.upperInclusive ? 1 : -1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Interval)) {
+        return false;
+      }
+      Interval interval = (Interval) o;
+      return compareLower(this, interval) == 0 && compareUpper(this, interval) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(new Object[]{lower, upper});
+    }
+  }
+}
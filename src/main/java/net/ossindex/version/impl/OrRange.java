@@ -26,22 +26,46 @@
  */
 package net.ossindex.version.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.Map;
 
+import com.github.zafarkhaja.semver.Version;
 import net.ossindex.version.IVersion;
 import net.ossindex.version.IVersionRange;
 
 /**
  * Multiple ranges ORed together. The or range allows multiple inputs (not just two)
  * since it is generally the top level operator.
+ *
+ * The children are kept in an array sorted by a precomputed lower bound, with
+ * the running maximum of their upper bounds alongside. A semantic version only
+ * needs to be checked against the children that start at or below it, walking
+ * back until no earlier child reaches up to it.
  */
 public class OrRange
     extends AbstractCommonRange
 {
-  private SortedSet<IVersionRange> ranges = new TreeSet<IVersionRange>();
+  private final List<IVersionRange> ranges = new ArrayList<IVersionRange>();
+
+  /**
+   * Lowest head version each child can contain, null if unknown.
+   */
+  private Version[] lowers = new Version[4];
+
+  /**
+   * Highest head version each child can contain, null if unknown.
+   */
+  private Version[] uppers = new Version[4];
+
+  /**
+   * The highest upper bound of the children up to and including each index.
+   */
+  private Version[] maxUppers = new Version[4];
 
   private String type;
 
@@ -52,12 +76,14 @@ public class OrRange
    */
   public OrRange(IVersionRange range1, IVersionRange range2)
   {
-    ranges.add(range1);
-    ranges.add(range2);
+    add(range1);
+    add(range2);
   }
 
   public OrRange(List<IVersionRange> results) {
-    ranges.addAll(results);
+    for (IVersionRange range : results) {
+      add(range);
+    }
   }
 
   /*
@@ -67,6 +93,19 @@ public class OrRange
   @Override
   public boolean contains(IVersion version)
   {
+    Version head = version instanceof SemanticVersion ? ((SemanticVersion) version).getVersionImpl() : null;
+    if (head != null) {
+      for (int i = upperBound(head) - 1; i >= 0; i--) {
+        if (maxUppers[i] != null && maxUppers[i].lessThan(head)) {
+          return false;
+        }
+        if (ranges.get(i).contains(version)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
     for (IVersionRange range : ranges) {
       if (range.contains(version)) {
         return true;
@@ -167,7 +206,7 @@ public class OrRange
    */
   @Override
   public IVersionRange getSimplifiedRange() {
-    return this;
+    return RangeSimplifier.simplify(this);
   }
 
   public String getType() {
@@ -203,6 +242,52 @@ public class OrRange
     return false;
   }
 
+  /**
+   * Unions are equal when they have equal children, in any order.
+   */
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof OrRange)) {
+      return false;
+    }
+    OrRange range = (OrRange) o;
+    if (ranges.size() != range.ranges.size()) {
+      return false;
+    }
+    Map<IVersionRange, Integer> counts = new HashMap<IVersionRange, Integer>();
+    for (IVersionRange child : ranges) {
+      Integer count = counts.get(child);
+      counts.put(child, count == null ? 1 : count + 1);
+    }
+    for (IVersionRange child : range.ranges) {
+      Integer count = counts.get(child);
+      if (count == null) {
+        return false;
+      }
+      if (count == 1) {
+        counts.remove(child);
+      }
+      else {
+        counts.put(child, count - 1);
+      }
+    }
+    return counts.isEmpty();
+  }
+
+  @Override
+  public int hashCode()
+  {
+    int h = 0;
+    for (IVersionRange child : ranges) {
+      h += child.hashCode();
+    }
+    return h;
+  }
+
   @Override
   public String toString()
   {
@@ -240,10 +325,51 @@ public class OrRange
   }
 
   public OrRange add(IVersionRange range) {
-    ranges.add(range);
+    Version lower = lowerHead(range);
+    int index = upperBound(lower);
+    int size = ranges.size();
+    if (size == lowers.length) {
+      lowers = Arrays.copyOf(lowers, size * 2);
+      uppers = Arrays.copyOf(uppers, size * 2);
+      maxUppers = Arrays.copyOf(maxUppers, size * 2);
+    }
+    System.arraycopy(lowers, index, lowers, index + 1, size - index);
+    System.arraycopy(uppers, index, uppers, index + 1, size - index);
+    lowers[index] = lower;
+    uppers[index] = upperHead(range);
+    ranges.add(index, range);
+
+    for (int i = index; i <= size; i++) {
+      maxUppers[i] = i == 0 ? uppers[0] : maxUpper(maxUppers[i - 1], uppers[i]);
+    }
     return this;
   }
 
+  /**
+   * Index of the first child whose lower bound is above the version. Unknown
+   * lower bounds sort first.
+   */
+  private int upperBound(Version version) {
+    int low = 0;
+    int high = ranges.size();
+    if (version == null) {
+      while (low < high && lowers[low] == null) {
+        low++;
+      }
+      return low;
+    }
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (lowers[mid] == null || lowers[mid].compareTo(version) <= 0) {
+        low = mid + 1;
+      }
+      else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
   /*
    * (non-Javadoc)
    * @see net.ossindex.version.impl.AbstractCommonRange#invert()
@@ -251,23 +377,59 @@ public class OrRange
   @Override
   public IVersionRange invert() {
     if (ranges.size() == 2) {
-      IVersionRange irange1 = ranges.first().invert();
-      IVersionRange irange2 = ranges.last().invert();
+      IVersionRange irange1 = first().invert();
+      IVersionRange irange2 = last().invert();
       return new AndRange(irange1, irange2);
     }
 
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  int[] toOrdinals(IVersion[] sorted, int size, int semanticSize) {
+    List<int[]> ordinals = new ArrayList<int[]>(ranges.size());
+    for (IVersionRange range : ranges) {
+      ordinals.add(Ordinals.of(range, sorted, size, semanticSize));
+    }
+    return Ordinals.union(ordinals);
+  }
+
+  @Override
+  long[] toKeys(RangeCompiler compiler) {
+    long[] keys = RangeCompiler.EMPTY;
+    for (IVersionRange range : ranges) {
+      long[] child = compiler.intervals(range);
+      if (child == null) {
+        return null;
+      }
+      keys = RangeCompiler.or(keys, child);
+    }
+    return keys;
+  }
+
+  @Override
+  Version getLowerHead() {
+    return ranges.isEmpty() ? null : lowers[0];
+  }
+
+  @Override
+  Version getUpperHead() {
+    return ranges.isEmpty() ? null : maxUppers[ranges.size() - 1];
+  }
+
+  List<IVersionRange> getRanges() {
+    return Collections.unmodifiableList(ranges);
+  }
+
   public int size() {
     return ranges.size();
   }
 
   public IVersionRange first() {
-    return ranges.first();
+    return ranges.get(0);
   }
 
   public IVersionRange last() {
-    return ranges.last();
+    return ranges.get(ranges.size() - 1);
   }
 }
@@ -0,0 +1,149 @@
+package net.ossindex.version.impl;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+
+/**
+ * A range compiled against a VersionCatalog. The range is held as a list of
+ * half open [start, end) ordinal intervals, so checking an ordinal is a binary
+ * search over a few ints (two comparisons for a simple range).
+ *
+ * If versions are added to the catalog the ordinals are brought up to date on
+ * next use. Only the new versions are checked against the source range.
+ */
+public class OrdinalRange
+{
+  private final VersionCatalog catalog;
+
+  private final IVersionRange source;
+
+  private int[] intervals;
+
+  private int length;
+
+  /**
+   * Number of catalog insertions already reflected in the intervals
+   */
+  private int applied;
+
+  OrdinalRange(VersionCatalog catalog, IVersionRange source, int[] intervals, int applied) {
+    this.catalog = catalog;
+    this.source = source;
+    this.intervals = intervals;
+    this.length = intervals.length;
+    this.applied = applied;
+  }
+
+  public VersionCatalog getCatalog() {
+    return catalog;
+  }
+
+  /**
+   * The range this was compiled from
+   */
+  public IVersionRange getSource() {
+    return source;
+  }
+
+  /**
+   * Returns true if the catalog version with the given ordinal is in the range.
+   */
+  public boolean contains(int ordinal) {
+    if (applied != catalog.getInsertionCount()) {
+      update();
+    }
+    return containsOrdinal(ordinal);
+  }
+
+  /**
+   * Check a version. Versions that are not in the catalog are checked against
+   * the source range.
+   */
+  public boolean contains(IVersion version) {
+    int ordinal = catalog.getOrdinal(version);
+    if (ordinal < 0) {
+      return source.contains(version);
+    }
+    return contains(ordinal);
+  }
+
+  /**
+   * No update check, callers need to have called update().
+   */
+  boolean containsOrdinal(int ordinal) {
+    if (length == 2) {
+      return ordinal >= intervals[0] && ordinal < intervals[1];
+    }
+    return Ordinals.contains(intervals, length, ordinal);
+  }
+
+  /**
+   * Number of catalog versions in the range
+   */
+  public int cardinality() {
+    update();
+    return Ordinals.cardinality(intervals, length);
+  }
+
+  /**
+   * Get a copy of the [start, end) ordinal pairs
+   */
+  public int[] getIntervals() {
+    update();
+    return Arrays.copyOf(intervals, length);
+  }
+
+  public BitSet toBitSet() {
+    update();
+    BitSet bits = new BitSet(catalog.size());
+    for (int i = 0; i < length; i += 2) {
+      bits.set(intervals[i], intervals[i + 1]);
+    }
+    return bits;
+  }
+
+  /**
+   * Replay any catalog insertions made since the range was last brought up to date.
+   */
+  public void update() {
+    int count = catalog.getInsertionCount();
+    while (applied < count) {
+      int position = catalog.getInsertion(applied);
+      insert(position, source.contains(catalog.getInserted(applied)));
+      applied++;
+    }
+  }
+
+  /**
+   * Shift the ordinals to make room for a new version, then set its membership.
+   */
+  private void insert(int position, boolean member) {
+    for (int i = 0; i < length; i += 2) {
+      if (intervals[i] >= position) {
+        intervals[i]++;
+      }
+      if (intervals[i + 1] > position) {
+        intervals[i + 1]++;
+      }
+    }
+    int[] point = {position, position + 1};
+    int[] current = Arrays.copyOf(intervals, length);
+    intervals = member ? Ordinals.or(current, point) : Ordinals.andNot(current, point);
+    length = intervals.length;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < length; i += 2) {
+      if (i > 0) {
+        sb.append(",");
+      }
+      sb.append("[").append(intervals[i]).append(",").append(intervals[i + 1]).append(")");
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,290 @@
+package net.ossindex.version.impl;
+
+import java.util.Arrays;
+import java.util.List;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+
+/**
+ * Helpers for working with ordinal interval lists.
+ *
+ * An interval list is an int array of even length holding half open [start, end)
+ * pairs. Lists are kept normalized: sorted, non-empty, non-overlapping and
+ * non-adjacent.
+ *
+ * The ordinals are indexes into a list of versions sorted by VersionComparator.
+ * The semantic versions occupy the first "semanticSize" entries of such a list.
+ */
+final class Ordinals
+{
+  static final int[] EMPTY = new int[0];
+
+  private Ordinals() {
+  }
+
+  /**
+   * Get the ordinal intervals matched by the range over the sorted versions.
+   */
+  static int[] of(IVersionRange range, IVersion[] sorted, int size, int semanticSize) {
+    if (range instanceof AbstractCommonRange) {
+      return ((AbstractCommonRange) range).toOrdinals(sorted, size, semanticSize);
+    }
+    return scan(range, sorted, 0, size);
+  }
+
+  /**
+   * Fallback for range shapes we know nothing about: try every version.
+   */
+  static int[] scan(IVersionRange range, IVersion[] sorted, int from, int to) {
+    int[] result = new int[8];
+    int count = 0;
+    int start = -1;
+    for (int i = from; i < to; i++) {
+      if (range.contains(sorted[i])) {
+        if (start < 0) {
+          start = i;
+        }
+      }
+      else if (start >= 0) {
+        result = append(result, count, start, i);
+        count += 2;
+        start = -1;
+      }
+    }
+    if (start >= 0) {
+      result = append(result, count, start, to);
+      count += 2;
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  /**
+   * Find the first index in [from, to) for which the range returns "expected",
+   * assuming the answers are monotonic over that span.
+   */
+  static int search(IVersionRange range, IVersion[] sorted, int from, int to, boolean expected) {
+    int low = from;
+    int high = to;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (range.contains(sorted[mid]) == expected) {
+        high = mid;
+      }
+      else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Find the first index in [from, to) whose version is not less than the given version.
+   */
+  static int lowerBound(IVersion[] sorted, int from, int to, IVersion version) {
+    int low = from;
+    int high = to;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (VersionComparator.INSTANCE.compare(sorted[mid], version) < 0) {
+        low = mid + 1;
+      }
+      else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * A single interval, or an empty list if the interval is empty.
+   */
+  static int[] interval(int start, int end) {
+    if (start >= end) {
+      return EMPTY;
+    }
+    return new int[]{start, end};
+  }
+
+  static int[] and(int[] a, int[] b) {
+    int[] result = new int[Math.min(a.length, b.length) * 2 + 2];
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      int start = Math.max(a[i], b[j]);
+      int end = Math.min(a[i + 1], b[j + 1]);
+      if (start < end) {
+        result = append(result, count, start, end);
+        count += 2;
+      }
+      if (a[i + 1] < b[j + 1]) {
+        i += 2;
+      }
+      else {
+        j += 2;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  static int[] or(int[] a, int[] b) {
+    if (a.length == 0) {
+      return b;
+    }
+    if (b.length == 0) {
+      return a;
+    }
+    int[] result = new int[a.length + b.length];
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.length || j < b.length) {
+      int start;
+      int end;
+      if (j >= b.length || (i < a.length && a[i] <= b[j])) {
+        start = a[i];
+        end = a[i + 1];
+        i += 2;
+      }
+      else {
+        start = b[j];
+        end = b[j + 1];
+        j += 2;
+      }
+      if (count > 0 && start <= result[count - 1]) {
+        result[count - 1] = Math.max(result[count - 1], end);
+      }
+      else {
+        result[count++] = start;
+        result[count++] = end;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  static int[] andNot(int[] a, int[] b) {
+    if (a.length == 0 || b.length == 0) {
+      return a;
+    }
+    int[] result = new int[a.length + b.length];
+    int count = 0;
+    int j = 0;
+    for (int i = 0; i < a.length; i += 2) {
+      int start = a[i];
+      int end = a[i + 1];
+      while (j < b.length && b[j + 1] <= start) {
+        j += 2;
+      }
+      int k = j;
+      while (start < end && k < b.length && b[k] < end) {
+        if (b[k] > start) {
+          result = append(result, count, start, b[k]);
+          count += 2;
+        }
+        start = Math.max(start, b[k + 1]);
+        k += 2;
+      }
+      if (start < end) {
+        result = append(result, count, start, end);
+        count += 2;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  /**
+   * Union of any number of interval lists.
+   */
+  static int[] union(List<int[]> lists) {
+    int total = 0;
+    for (int[] list : lists) {
+      total += list.length;
+    }
+    if (total == 0) {
+      return EMPTY;
+    }
+    long[] packed = new long[total / 2];
+    int n = 0;
+    for (int[] list : lists) {
+      for (int i = 0; i < list.length; i += 2) {
+        packed[n++] = ((long) list[i] << 32) | (list[i + 1] & 0xffffffffL);
+      }
+    }
+    Arrays.sort(packed);
+    int[] result = new int[total];
+    int count = 0;
+    for (long p : packed) {
+      int start = (int) (p >>> 32);
+      int end = (int) p;
+      if (count > 0 && start <= result[count - 1]) {
+        result[count - 1] = Math.max(result[count - 1], end);
+      }
+      else {
+        result[count++] = start;
+        result[count++] = end;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  /**
+   * Build intervals from a sorted list of (possibly repeated) indexes.
+   */
+  static int[] fromIndexes(int[] indexes, int n) {
+    int[] result = new int[8];
+    int count = 0;
+    int i = 0;
+    while (i < n) {
+      int start = indexes[i];
+      int end = start + 1;
+      i++;
+      while (i < n && indexes[i] <= end) {
+        end = Math.max(end, indexes[i] + 1);
+        i++;
+      }
+      result = append(result, count, start, end);
+      count += 2;
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  /**
+   * Binary search an interval list for the ordinal.
+   */
+  static boolean contains(int[] intervals, int length, int ordinal) {
+    int low = 0;
+    int high = (length >> 1) - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int index = mid << 1;
+      if (ordinal < intervals[index]) {
+        high = mid - 1;
+      }
+      else if (ordinal >= intervals[index + 1]) {
+        low = mid + 1;
+      }
+      else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static int cardinality(int[] intervals, int length) {
+    int total = 0;
+    for (int i = 0; i < length; i += 2) {
+      total += intervals[i + 1] - intervals[i];
+    }
+    return total;
+  }
+
+  private static int[] append(int[] array, int count, int start, int end) {
+    if (count + 2 > array.length) {
+      array = Arrays.copyOf(array, Math.max(array.length * 2, count + 2));
+    }
+    array[count] = start;
+    array[count + 1] = end;
+    return array;
+  }
+}
@@ -0,0 +1,12 @@
+package net.ossindex.version.impl;
+
+/**
+ * Thrown when parsing a string goes over its ParseBudget.
+ */
+public class ParseBudgetException
+    extends RuntimeException
+{
+  public ParseBudgetException(String msg) {
+    super(msg);
+  }
+}
@@ -0,0 +1,145 @@
+package net.ossindex.version.impl;
+
+import java.math.BigInteger;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+import net.ossindex.version.InvalidRangeException;
+import net.ossindex.version.impl.Pep440Version.Scope;
+
+/**
+ * Python package versions, and PEP 440 specifier sets such as
+ * ">= 1.0, != 1.3.*, < 2.0" or "~= 2.2.post3".
+ *
+ * Each specifier is compiled to bounds on the version order, so matching a
+ * version is a few key comparisons:
+ *
+ * - "~= V" is ">= V" and "== P.*", where P is V without its last release
+ *   number.
+ * - "== P.*" is ">= P.dev0" and "< Q.dev0", where Q is P with its last number
+ *   incremented. "!= P.*" is the inverse.
+ * - "< V" does not match pre-releases of the release of V unless V is a
+ *   pre-release, so "< 1.0.post1" does not match "1.0rc1". "> V" does not
+ *   match post-releases of the release of V unless V is a post-release, nor
+ *   local versions of the release of V, so "> 1.0a1" does not match
+ *   "1.0.post1" or "1.0+abc". The bound compares only the parts of a version
+ *   it should.
+ * - Local labels are ignored, except by "==", "!=" and "===" on a version
+ *   with a local label.
+ * - "=== V" matches versions whose normalized form is V, ignoring case.
+ */
+public class Pep440Dialect
+    extends AbstractDialect
+{
+  @Override
+  public String getName() {
+    return "pep440";
+  }
+
+  @Override
+  public IVersion getVersion(String version) throws InvalidRangeException {
+    return new Pep440Version(version);
+  }
+
+  @Override
+  IVersionRange getConstraint(String constraint) throws InvalidRangeException {
+    String s = constraint.trim();
+    int i = 0;
+    while (i < s.length() && "<>=!~".indexOf(s.charAt(i)) >= 0) {
+      i++;
+    }
+    if (i == 0) {
+      return super.getConstraint(constraint);
+    }
+    String operator = s.substring(0, i);
+    String version = s.substring(i).trim();
+    if (version.isEmpty()) {
+      throw new InvalidRangeException("Missing version in pep440 specifier: " + constraint);
+    }
+    switch (operator) {
+      case "==":
+        return version.endsWith(".*") ? getPrefix(version, constraint) : getEquals(version);
+      case "!=":
+        return version.endsWith(".*") ? getPrefix(version, constraint).invert() : getEquals(version).invert();
+      case "===":
+        return new DialectVersionRange("=", new Pep440Version(version).withScope(Scope.ARBITRARY));
+      case "~=":
+        return getCompatible(version, constraint);
+      case "<":
+      case "<=":
+      case ">=":
+      case ">":
+        return getComparison(operator, getPublicVersion(version, constraint));
+      default:
+        throw new InvalidRangeException("Unknown pep440 operator: " + operator);
+    }
+  }
+
+  private static IVersionRange getEquals(String version) throws InvalidRangeException {
+    Pep440Version v = new Pep440Version(version);
+    return new DialectVersionRange("=", v.withScope(v.getLocal() == null ? Scope.PUBLIC : Scope.FULL));
+  }
+
+  private static IVersionRange getComparison(String operator, Pep440Version v) {
+    Scope scope = Scope.PUBLIC;
+    if ("<".equals(operator)) {
+      scope = Scope.BELOW;
+    }
+    else if (">".equals(operator)) {
+      scope = Scope.ABOVE;
+    }
+    return new DialectVersionRange(operator, v.withScope(scope));
+  }
+
+  private static IVersionRange getCompatible(String version, String constraint) throws InvalidRangeException {
+    Pep440Version v = getPublicVersion(version, constraint);
+    String[] release = v.getRelease();
+    if (release.length < 2) {
+      throw new InvalidRangeException("Compatible release needs two release numbers: " + constraint);
+    }
+    return new AndRange(new DialectVersionRange(">=", v.withScope(Scope.PUBLIC)),
+        getPrefix(v.getEpoch(), release, release.length - 1), false);
+  }
+
+  private static IVersionRange getPrefix(String version, String constraint) throws InvalidRangeException {
+    Pep440Version v = new Pep440Version(version.substring(0, version.length() - 2));
+    if (!v.isFinal() || v.getLocal() != null) {
+      throw new InvalidRangeException("Prefix match needs a release only: " + constraint);
+    }
+    String[] release = v.getRelease();
+    return getPrefix(v.getEpoch(), release, release.length);
+  }
+
+  /**
+   * Versions whose release starts with the first length numbers of release
+   */
+  private static IVersionRange getPrefix(int epoch, String[] release, int length) throws InvalidRangeException {
+    StringBuilder lower = new StringBuilder();
+    StringBuilder upper = new StringBuilder();
+    lower.append(epoch).append('!');
+    upper.append(epoch).append('!');
+    for (int i = 0; i < length; i++) {
+      if (i > 0) {
+        lower.append('.');
+        upper.append('.');
+      }
+      lower.append(release[i]);
+      upper.append(i < length - 1 ? release[i] : new BigInteger(release[i]).add(BigInteger.ONE).toString());
+    }
+    lower.append(".dev0");
+    upper.append(".dev0");
+    return new AndRange(new DialectVersionRange(">=", new Pep440Version(lower.toString()).withScope(Scope.PUBLIC)),
+        new DialectVersionRange("<", new Pep440Version(upper.toString()).withScope(Scope.PUBLIC)), false);
+  }
+
+  /**
+   * Local labels are only allowed with "==", "!=" and "==="
+   */
+  private static Pep440Version getPublicVersion(String version, String constraint) throws InvalidRangeException {
+    Pep440Version v = new Pep440Version(version);
+    if (v.getLocal() != null) {
+      throw new InvalidRangeException("Local version not allowed in pep440 specifier: " + constraint);
+    }
+    return v;
+  }
+}
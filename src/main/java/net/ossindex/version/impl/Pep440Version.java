@@ -0,0 +1,468 @@
+package net.ossindex.version.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.InvalidRangeException;
+
+/**
+ * A Python package version, as defined by PEP 440, such as "1!2.0",
+ * "2.0rc1", "1.0.post1", "1.0.dev3" or "1.0+ubuntu.1". Versions are
+ * normalized as pip normalizes them, so "1.0-1", "1.0.POST1" and "1.0post1"
+ * are all "1.0.post1", and ordered the way pip orders them.
+ *
+ * The sort key is built once, when the version is parsed, as bytes whose
+ * unsigned order is the PEP 440 order:
+ *
+ * - The epoch, as four bytes.
+ * - Each release number, without trailing zero numbers, as 0x02 followed by
+ *   the number, then 0x01.
+ * - The pre-release: 0x00 for a development release with no pre or post
+ *   release, 0x01, 0x02 or 0x03 followed by the number for "a", "b" and "rc",
+ *   and 0x04 for none.
+ * - The post-release: 0x00 for none, or 0x01 followed by the number.
+ * - The development release: 0x01 followed by the number, or 0x02 for none.
+ * - The local label, if any: each part as 0x02 followed by its characters and
+ *   0x00 for letters, or 0x03 followed by the number for digits, then 0x01.
+ *
+ * A number is written as its count of digits, after dropping leading zeroes,
+ * followed by the digits.
+ */
+public class Pep440Version
+    implements IVersion, DialectVersionRange.Bound
+{
+  /**
+   * How much of a version a range bound compares, so that a bound can ignore
+   * the parts of versions that the PEP 440 operators ignore.
+   */
+  enum Scope
+  {
+    /**
+     * Everything but the local label, for "< V". Pre-releases of the release of
+     * V compare equal to V, unless V is a pre-release.
+     */
+    BELOW,
+
+    /**
+     * Everything but the local label, for "> V". Post-releases of the release
+     * of V compare equal to V, unless V is a post-release, and so do local
+     * versions of the release of V.
+     */
+    ABOVE,
+
+    /**
+     * Everything but the local label
+     */
+    PUBLIC,
+
+    /**
+     * The whole version
+     */
+    FULL,
+
+    /**
+     * The whole version, and then the normalized text of the version against
+     * the text of the bound, for "==="
+     */
+    ARBITRARY
+  }
+
+  private static final Pattern PATTERN = Pattern.compile(
+      "v?(?:([0-9]+)!)?([0-9]+(?:\\.[0-9]+)*)"
+          + "(?:[-_.]?(alpha|a|beta|b|preview|pre|c|rc)[-_.]?([0-9]+)?)?"
+          + "(?:-([0-9]+)|[-_.]?(post|rev|r)[-_.]?([0-9]+)?)?"
+          + "(?:[-_.]?(dev)[-_.]?([0-9]+)?)?"
+          + "(?:\\+([a-z0-9]+(?:[-_.][a-z0-9]+)*))?",
+      Pattern.CASE_INSENSITIVE);
+
+  private static final int END = 0x01;
+
+  private static final int PART = 0x02;
+
+  private static final int NUMERIC = 0x03;
+
+  private final String text;
+
+  private final String normalized;
+
+  private final int epoch;
+
+  private final String[] release;
+
+  /**
+   * "a", "b" or "rc", or null
+   */
+  private final String preLabel;
+
+  private final String pre;
+
+  private final String post;
+
+  private final String dev;
+
+  private final String local;
+
+  private final byte[] key;
+
+  private final int releaseEnd;
+
+  private final int publicEnd;
+
+  private final Scope scope;
+
+  private final int hash;
+
+  public Pep440Version(String version) throws InvalidRangeException {
+    text = version.trim();
+    Matcher m = PATTERN.matcher(text);
+    if (!m.matches()) {
+      throw new InvalidRangeException("Invalid PEP 440 version: " + version);
+    }
+    try {
+      epoch = m.group(1) == null ? 0 : Integer.parseInt(m.group(1));
+    }
+    catch (NumberFormatException e) {
+      throw new InvalidRangeException("Invalid epoch in PEP 440 version: " + version);
+    }
+    release = m.group(2).split("\\.");
+    for (int i = 0; i < release.length; i++) {
+      release[i] = stripZeroes(release[i]);
+    }
+    preLabel = m.group(3) == null ? null : preLabel(m.group(3).toLowerCase(Locale.ROOT));
+    pre = preLabel == null ? null : number(m.group(4));
+    if (m.group(5) != null) {
+      post = stripZeroes(m.group(5));
+    }
+    else {
+      post = m.group(6) == null ? null : number(m.group(7));
+    }
+    dev = m.group(8) == null ? null : number(m.group(9));
+    local = m.group(10) == null ? null : m.group(10).toLowerCase(Locale.ROOT).replace('-', '.').replace('_', '.');
+    normalized = normalize();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream(text.length() + 16);
+    out.write(epoch >>> 24);
+    out.write(epoch >>> 16);
+    out.write(epoch >>> 8);
+    out.write(epoch);
+    int length = release.length;
+    while (length > 0 && release[length - 1].equals("0")) {
+      length--;
+    }
+    boolean valid = true;
+    for (int i = 0; i < length; i++) {
+      out.write(PART);
+      valid &= encode(release[i], out);
+    }
+    out.write(END);
+    releaseEnd = out.size();
+    if (preLabel != null) {
+      out.write("a".equals(preLabel) ? 0x01 : "b".equals(preLabel) ? 0x02 : 0x03);
+      valid &= encode(pre, out);
+    }
+    else {
+      out.write(post == null && dev != null ? 0x00 : 0x04);
+    }
+    if (post != null) {
+      out.write(0x01);
+      valid &= encode(post, out);
+    }
+    else {
+      out.write(0x00);
+    }
+    if (dev != null) {
+      out.write(0x01);
+      valid &= encode(dev, out);
+    }
+    else {
+      out.write(0x02);
+    }
+    publicEnd = out.size();
+    if (local != null) {
+      for (String part : local.split("\\.")) {
+        if (isNumber(part)) {
+          out.write(NUMERIC);
+          valid &= encode(stripZeroes(part), out);
+        }
+        else {
+          out.write(PART);
+          for (int i = 0; i < part.length(); i++) {
+            out.write(part.charAt(i));
+          }
+          out.write(0x00);
+        }
+      }
+      out.write(END);
+    }
+    if (!valid) {
+      throw new InvalidRangeException("Number too long in PEP 440 version: " + version);
+    }
+    key = out.toByteArray();
+    scope = Scope.FULL;
+    hash = Arrays.hashCode(key);
+  }
+
+  private Pep440Version(Pep440Version version, Scope scope) {
+    this.text = version.text;
+    this.normalized = version.normalized;
+    this.epoch = version.epoch;
+    this.release = version.release;
+    this.preLabel = version.preLabel;
+    this.pre = version.pre;
+    this.post = version.post;
+    this.dev = version.dev;
+    this.local = version.local;
+    this.key = version.key;
+    this.releaseEnd = version.releaseEnd;
+    this.publicEnd = version.publicEnd;
+    this.hash = version.hash;
+    this.scope = scope;
+  }
+
+  /**
+   * This version as a range bound that compares only the given scope.
+   */
+  Pep440Version withScope(Scope scope) {
+    return scope == this.scope ? this : new Pep440Version(this, scope);
+  }
+
+  private static String preLabel(String label) {
+    switch (label) {
+      case "a":
+      case "alpha":
+        return "a";
+      case "b":
+      case "beta":
+        return "b";
+      default:
+        return "rc";
+    }
+  }
+
+  /**
+   * An implicit number is zero
+   */
+  private static String number(String digits) {
+    return digits == null ? "0" : stripZeroes(digits);
+  }
+
+  private static String stripZeroes(String digits) {
+    int i = 0;
+    while (i < digits.length() - 1 && digits.charAt(i) == '0') {
+      i++;
+    }
+    return digits.substring(i);
+  }
+
+  private static boolean isNumber(String s) {
+    for (int i = 0; i < s.length(); i++) {
+      if (s.charAt(i) < '0' || s.charAt(i) > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Write a number without leading zeroes, returning false if it is too long.
+   */
+  private static boolean encode(String digits, ByteArrayOutputStream out) {
+    if (digits.equals("0")) {
+      out.write(0);
+      return true;
+    }
+    if (digits.length() > 255) {
+      return false;
+    }
+    out.write(digits.length());
+    for (int i = 0; i < digits.length(); i++) {
+      out.write(digits.charAt(i));
+    }
+    return true;
+  }
+
+  private String normalize() {
+    StringBuilder sb = new StringBuilder();
+    if (epoch != 0) {
+      sb.append(epoch).append('!');
+    }
+    for (int i = 0; i < release.length; i++) {
+      if (i > 0) {
+        sb.append('.');
+      }
+      sb.append(release[i]);
+    }
+    if (preLabel != null) {
+      sb.append(preLabel).append(pre);
+    }
+    if (post != null) {
+      sb.append(".post").append(post);
+    }
+    if (dev != null) {
+      sb.append(".dev").append(dev);
+    }
+    if (local != null) {
+      sb.append('+').append(local);
+    }
+    return sb.toString();
+  }
+
+  public int getEpoch() {
+    return epoch;
+  }
+
+  /**
+   * The release numbers, without leading zeroes
+   */
+  public String[] getRelease() {
+    return release.clone();
+  }
+
+  /**
+   * The pre-release, such as "rc1", or null
+   */
+  public String getPreRelease() {
+    return preLabel == null ? null : preLabel + pre;
+  }
+
+  /**
+   * The post-release number, or null
+   */
+  public String getPostRelease() {
+    return post;
+  }
+
+  /**
+   * The development release number, or null
+   */
+  public String getDevRelease() {
+    return dev;
+  }
+
+  /**
+   * The normalized local label, or null
+   */
+  public String getLocal() {
+    return local;
+  }
+
+  boolean isFinal() {
+    return preLabel == null && post == null && dev == null;
+  }
+
+  /**
+   * A pre-release or a development release
+   */
+  boolean isPreRelease() {
+    return preLabel != null || dev != null;
+  }
+
+  @Override
+  public int compareTo(IVersion other) {
+    if (other instanceof Pep440Version) {
+      return DebianVersion.compareKeys(key, ((Pep440Version) other).key);
+    }
+    return toString().compareTo(other.toString());
+  }
+
+  @Override
+  public int compareToBound(IVersion other) {
+    if (!(other instanceof Pep440Version)) {
+      return other.compareTo(this);
+    }
+    Pep440Version v = (Pep440Version) other;
+    switch (scope) {
+      case BELOW:
+        int before = DebianVersion.compareKeys(v.key, v.publicEnd, key, publicEnd);
+        if (before < 0 && v.isPreRelease() && !isPreRelease()
+            && DebianVersion.compareKeys(v.key, v.releaseEnd, key, releaseEnd) == 0) {
+          return 0;
+        }
+        return before;
+      case ABOVE:
+        int after = DebianVersion.compareKeys(v.key, v.publicEnd, key, publicEnd);
+        if (after > 0 && (v.local != null || (v.post != null && post == null))
+            && DebianVersion.compareKeys(v.key, v.releaseEnd, key, releaseEnd) == 0) {
+          return 0;
+        }
+        return after;
+      case PUBLIC:
+        return DebianVersion.compareKeys(v.key, v.publicEnd, key, publicEnd);
+      case ARBITRARY:
+        int cmp = DebianVersion.compareKeys(v.key, key);
+        return cmp != 0 ? cmp : v.normalized.compareToIgnoreCase(text);
+      default:
+        return DebianVersion.compareKeys(v.key, key);
+    }
+  }
+
+  /**
+   * Versions with the same normalized form, or that differ only by trailing
+   * zero release numbers, are equal.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof Pep440Version)) {
+      return false;
+    }
+    Pep440Version v = (Pep440Version) o;
+    return scope == v.scope && Arrays.equals(key, v.key) && (scope != Scope.ARBITRARY || text.equalsIgnoreCase(v.text));
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  /**
+   * The normalized version, or the version as written for "===" bounds
+   */
+  @Override
+  public String toString() {
+    return scope == Scope.ARBITRARY ? text : normalized;
+  }
+
+  @Override
+  public int getMajor() {
+    return number(0);
+  }
+
+  @Override
+  public int getMinor() {
+    return number(1);
+  }
+
+  @Override
+  public int getPatch() {
+    return number(2);
+  }
+
+  @Override
+  public int getBuild() {
+    return number(3);
+  }
+
+  private int number(int index) {
+    if (index >= release.length) {
+      return 0;
+    }
+    try {
+      return Integer.parseInt(release[index]);
+    }
+    catch (NumberFormatException e) {
+      return Integer.MAX_VALUE;
+    }
+  }
+
+  /**
+   * Pre-releases and development releases are not stable
+   */
+  @Override
+  public boolean isStable() {
+    return preLabel == null && dev == null;
+  }
+}
@@ -0,0 +1,557 @@
+package net.ossindex.version.impl;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A compressed, immutable set of catalog ordinals, laid out like a Roaring bitmap.
+ *
+ * Ordinals are split on their high 16 bits into chunks, and each chunk is stored in
+ * whichever container is smallest: a sorted array of values, a 65536 bit bitmap or a
+ * list of runs. Version ranges usually cover a handful of contiguous stretches of a
+ * catalog, so most chunks end up as a few runs.
+ *
+ * Use this for set algebra over many ranges of one package, for example "versions
+ * affected by any of these advisories" (or) or "versions clean of all of them" (andNot).
+ */
+public final class RangeBitmap
+{
+  private static final RangeBitmap EMPTY = new RangeBitmap(new char[0], new Container[0]);
+
+  private final char[] keys;
+
+  private final Container[] containers;
+
+  private RangeBitmap(char[] keys, Container[] containers) {
+    this.keys = keys;
+    this.containers = containers;
+  }
+
+  /**
+   * Build a bitmap from a compiled range.
+   */
+  public static RangeBitmap of(OrdinalRange range) {
+    return fromIntervals(range.getIntervals());
+  }
+
+  /**
+   * A bitmap holding every ordinal in [start, end). Use with andNot to find
+   * the versions not covered by some other bitmap.
+   */
+  public static RangeBitmap range(int start, int end) {
+    return fromIntervals(Ordinals.interval(start, end));
+  }
+
+  public static RangeBitmap empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Build from a normalized [start, end) interval list. Each interval is cut into
+   * per chunk runs.
+   */
+  static RangeBitmap fromIntervals(int[] intervals) {
+    if (intervals.length == 0) {
+      return EMPTY;
+    }
+    char[] keys = new char[8];
+    Container[] containers = new Container[8];
+    int count = 0;
+    int i = 0;
+    while (i < intervals.length) {
+      int key = intervals[i] >>> 16;
+      int[] runs = new int[8];
+      int n = 0;
+      while (i < intervals.length && (intervals[i] >>> 16) == key) {
+        int start = intervals[i] & 0xffff;
+        int end = intervals[i + 1] - (key << 16);
+        if (end > 0x10000) {
+          // Interval continues into the next chunk
+          runs = appendRun(runs, n, start, 0x10000);
+          n += 2;
+          intervals = Arrays.copyOf(intervals, intervals.length);
+          intervals[i] = (key + 1) << 16;
+          break;
+        }
+        runs = appendRun(runs, n, start, end);
+        n += 2;
+        i += 2;
+      }
+      if (count == keys.length) {
+        keys = Arrays.copyOf(keys, count * 2);
+        containers = Arrays.copyOf(containers, count * 2);
+      }
+      keys[count] = (char) key;
+      containers[count] = Container.fromRuns(Arrays.copyOf(runs, n));
+      count++;
+    }
+    return new RangeBitmap(Arrays.copyOf(keys, count), Arrays.copyOf(containers, count));
+  }
+
+  private static int[] appendRun(int[] runs, int n, int start, int end) {
+    if (n + 2 > runs.length) {
+      runs = Arrays.copyOf(runs, runs.length * 2);
+    }
+    runs[n] = start;
+    runs[n + 1] = end;
+    return runs;
+  }
+
+  public boolean contains(int ordinal) {
+    int index = Arrays.binarySearch(keys, (char) (ordinal >>> 16));
+    if (index < 0 || ordinal < 0) {
+      return false;
+    }
+    return containers[index].contains((char) ordinal);
+  }
+
+  public int cardinality() {
+    int total = 0;
+    for (Container container : containers) {
+      total += container.cardinality();
+    }
+    return total;
+  }
+
+  public boolean isEmpty() {
+    return containers.length == 0;
+  }
+
+  public RangeBitmap and(RangeBitmap other) {
+    char[] rkeys = new char[Math.min(keys.length, other.keys.length)];
+    Container[] rcontainers = new Container[rkeys.length];
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < keys.length && j < other.keys.length) {
+      if (keys[i] < other.keys[j]) {
+        i++;
+      }
+      else if (keys[i] > other.keys[j]) {
+        j++;
+      }
+      else {
+        Container c = Container.and(containers[i], other.containers[j]);
+        if (c != null) {
+          rkeys[count] = keys[i];
+          rcontainers[count++] = c;
+        }
+        i++;
+        j++;
+      }
+    }
+    return create(rkeys, rcontainers, count);
+  }
+
+  public RangeBitmap or(RangeBitmap other) {
+    char[] rkeys = new char[keys.length + other.keys.length];
+    Container[] rcontainers = new Container[rkeys.length];
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < keys.length || j < other.keys.length) {
+      if (j >= other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+        rkeys[count] = keys[i];
+        rcontainers[count++] = containers[i++];
+      }
+      else if (i >= keys.length || keys[i] > other.keys[j]) {
+        rkeys[count] = other.keys[j];
+        rcontainers[count++] = other.containers[j++];
+      }
+      else {
+        rkeys[count] = keys[i];
+        rcontainers[count++] = Container.or(containers[i++], other.containers[j++]);
+      }
+    }
+    return create(rkeys, rcontainers, count);
+  }
+
+  public RangeBitmap andNot(RangeBitmap other) {
+    char[] rkeys = new char[keys.length];
+    Container[] rcontainers = new Container[rkeys.length];
+    int count = 0;
+    int j = 0;
+    for (int i = 0; i < keys.length; i++) {
+      while (j < other.keys.length && other.keys[j] < keys[i]) {
+        j++;
+      }
+      Container c = containers[i];
+      if (j < other.keys.length && other.keys[j] == keys[i]) {
+        c = Container.andNot(c, other.containers[j]);
+      }
+      if (c != null) {
+        rkeys[count] = keys[i];
+        rcontainers[count++] = c;
+      }
+    }
+    return create(rkeys, rcontainers, count);
+  }
+
+  private static RangeBitmap create(char[] keys, Container[] containers, int count) {
+    if (count == 0) {
+      return EMPTY;
+    }
+    return new RangeBitmap(Arrays.copyOf(keys, count), Arrays.copyOf(containers, count));
+  }
+
+  /**
+   * Get the ordinals in ascending order
+   */
+  public int[] toArray() {
+    int[] result = new int[cardinality()];
+    int n = 0;
+    for (int i = 0; i < keys.length; i++) {
+      n = containers[i].copyTo(result, n, keys[i] << 16);
+    }
+    return result;
+  }
+
+  public BitSet toBitSet() {
+    BitSet bits = new BitSet();
+    for (int ordinal : toArray()) {
+      bits.set(ordinal);
+    }
+    return bits;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof RangeBitmap)) {
+      return false;
+    }
+    return Arrays.equals(toArray(), ((RangeBitmap) o).toArray());
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(toArray());
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+
+  /**
+   * The low 16 bits of the ordinals within a single chunk.
+   */
+  private abstract static class Container
+  {
+    private static final int MAX_ARRAY = 4096;
+
+    abstract boolean contains(char value);
+
+    abstract int cardinality();
+
+    abstract int copyTo(int[] dest, int offset, int high);
+
+    abstract long[] toWords();
+
+    abstract int[] toRuns();
+
+    static Container and(Container a, Container b) {
+      if (a instanceof RunContainer && b instanceof RunContainer) {
+        return fromRuns(Ordinals.and(a.toRuns(), b.toRuns()));
+      }
+      if (a instanceof ArrayContainer || b instanceof ArrayContainer) {
+        // Probe the smaller side against the other
+        Container small = a instanceof ArrayContainer ? a : b;
+        Container large = small == a ? b : a;
+        ArrayContainer array = (ArrayContainer) small;
+        char[] values = new char[array.values.length];
+        int n = 0;
+        for (char value : array.values) {
+          if (large.contains(value)) {
+            values[n++] = value;
+          }
+        }
+        return n == 0 ? null : new ArrayContainer(Arrays.copyOf(values, n));
+      }
+      long[] words = a.toWords();
+      long[] other = b.toWords();
+      for (int i = 0; i < words.length; i++) {
+        words[i] &= other[i];
+      }
+      return fromWords(words);
+    }
+
+    static Container or(Container a, Container b) {
+      if (a instanceof RunContainer && b instanceof RunContainer) {
+        return fromRuns(Ordinals.or(a.toRuns(), b.toRuns()));
+      }
+      long[] words = a.toWords();
+      long[] other = b.toWords();
+      for (int i = 0; i < words.length; i++) {
+        words[i] |= other[i];
+      }
+      return fromWords(words);
+    }
+
+    static Container andNot(Container a, Container b) {
+      if (a instanceof RunContainer && b instanceof RunContainer) {
+        return fromRuns(Ordinals.andNot(a.toRuns(), b.toRuns()));
+      }
+      if (a instanceof ArrayContainer) {
+        char[] values = ((ArrayContainer) a).values;
+        char[] kept = new char[values.length];
+        int n = 0;
+        for (char value : values) {
+          if (!b.contains(value)) {
+            kept[n++] = value;
+          }
+        }
+        return n == 0 ? null : new ArrayContainer(Arrays.copyOf(kept, n));
+      }
+      long[] words = a.toWords();
+      long[] other = b.toWords();
+      for (int i = 0; i < words.length; i++) {
+        words[i] &= ~other[i];
+      }
+      return fromWords(words);
+    }
+
+    /**
+     * Pick the smallest container for a [start, end) run list.
+     */
+    static Container fromRuns(int[] runs) {
+      if (runs.length == 0) {
+        return null;
+      }
+      int cardinality = Ordinals.cardinality(runs, runs.length);
+      int runBytes = runs.length * 2;
+      if (runBytes <= Math.min(cardinality * 2, 8192)) {
+        return new RunContainer(runs);
+      }
+      if (cardinality <= MAX_ARRAY) {
+        char[] values = new char[cardinality];
+        int n = 0;
+        for (int i = 0; i < runs.length; i += 2) {
+          for (int v = runs[i]; v < runs[i + 1]; v++) {
+            values[n++] = (char) v;
+          }
+        }
+        return new ArrayContainer(values);
+      }
+      return new BitmapContainer(RunContainer.words(runs), cardinality);
+    }
+
+    /**
+     * Pick the smallest container for a 65536 bit bitmap.
+     */
+    static Container fromWords(long[] words) {
+      int cardinality = 0;
+      int runs = 0;
+      long previous = 0;
+      for (long word : words) {
+        cardinality += Long.bitCount(word);
+        // A run starts where a set bit follows a clear one
+        runs += Long.bitCount(word & ~((word << 1) | (previous >>> 63)));
+        previous = word;
+      }
+      if (cardinality == 0) {
+        return null;
+      }
+      if (runs * 4 <= Math.min(cardinality * 2, 8192)) {
+        return new RunContainer(BitmapContainer.runs(words, runs));
+      }
+      if (cardinality <= MAX_ARRAY) {
+        char[] values = new char[cardinality];
+        BitmapContainer.copy(words, values);
+        return new ArrayContainer(values);
+      }
+      return new BitmapContainer(words, cardinality);
+    }
+  }
+
+  private static final class ArrayContainer
+      extends Container
+  {
+    private final char[] values;
+
+    ArrayContainer(char[] values) {
+      this.values = values;
+    }
+
+    @Override
+    boolean contains(char value) {
+      return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    @Override
+    int cardinality() {
+      return values.length;
+    }
+
+    @Override
+    int copyTo(int[] dest, int offset, int high) {
+      for (char value : values) {
+        dest[offset++] = high | value;
+      }
+      return offset;
+    }
+
+    @Override
+    long[] toWords() {
+      long[] words = new long[1024];
+      for (char value : values) {
+        words[value >>> 6] |= 1L << value;
+      }
+      return words;
+    }
+
+    @Override
+    int[] toRuns() {
+      int[] indexes = new int[values.length];
+      for (int i = 0; i < values.length; i++) {
+        indexes[i] = values[i];
+      }
+      return Ordinals.fromIndexes(indexes, indexes.length);
+    }
+  }
+
+  private static final class BitmapContainer
+      extends Container
+  {
+    private final long[] words;
+
+    private final int cardinality;
+
+    BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    boolean contains(char value) {
+      return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    int copyTo(int[] dest, int offset, int high) {
+      for (int i = 0; i < words.length; i++) {
+        long word = words[i];
+        while (word != 0) {
+          dest[offset++] = high | (i << 6) | Long.numberOfTrailingZeros(word);
+          word &= word - 1;
+        }
+      }
+      return offset;
+    }
+
+    @Override
+    long[] toWords() {
+      return Arrays.copyOf(words, words.length);
+    }
+
+    @Override
+    int[] toRuns() {
+      int runs = 0;
+      long previous = 0;
+      for (long word : words) {
+        runs += Long.bitCount(word & ~((word << 1) | (previous >>> 63)));
+        previous = word;
+      }
+      return runs(words, runs);
+    }
+
+    static void copy(long[] words, char[] values) {
+      int n = 0;
+      for (int i = 0; i < words.length; i++) {
+        long word = words[i];
+        while (word != 0) {
+          values[n++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+    }
+
+    static int[] runs(long[] words, int count) {
+      int[] runs = new int[count * 2];
+      int n = 0;
+      int start = -1;
+      for (int i = 0; i < words.length; i++) {
+        long word = words[i];
+        if (word == 0 && start < 0) {
+          continue;
+        }
+        if (word == -1L && start >= 0) {
+          continue;
+        }
+        for (int b = 0; b < 64; b++) {
+          boolean set = (word & (1L << b)) != 0;
+          if (set && start < 0) {
+            start = (i << 6) | b;
+          }
+          else if (!set && start >= 0) {
+            runs[n++] = start;
+            runs[n++] = (i << 6) | b;
+            start = -1;
+          }
+        }
+      }
+      if (start >= 0) {
+        runs[n++] = start;
+        runs[n++] = 0x10000;
+      }
+      return runs;
+    }
+  }
+
+  private static final class RunContainer
+      extends Container
+  {
+    /**
+     * [start, end) pairs within the chunk
+     */
+    private final int[] runs;
+
+    RunContainer(int[] runs) {
+      this.runs = runs;
+    }
+
+    @Override
+    boolean contains(char value) {
+      return Ordinals.contains(runs, runs.length, value);
+    }
+
+    @Override
+    int cardinality() {
+      return Ordinals.cardinality(runs, runs.length);
+    }
+
+    @Override
+    int copyTo(int[] dest, int offset, int high) {
+      for (int i = 0; i < runs.length; i += 2) {
+        for (int v = runs[i]; v < runs[i + 1]; v++) {
+          dest[offset++] = high | v;
+        }
+      }
+      return offset;
+    }
+
+    @Override
+    long[] toWords() {
+      return words(runs);
+    }
+
+    @Override
+    int[] toRuns() {
+      return runs;
+    }
+
+    static long[] words(int[] runs) {
+      long[] words = new long[1024];
+      for (int i = 0; i < runs.length; i += 2) {
+        for (int v = runs[i]; v < runs[i + 1]; v++) {
+          words[v >>> 6] |= 1L << v;
+        }
+      }
+      return words;
+    }
+  }
+}
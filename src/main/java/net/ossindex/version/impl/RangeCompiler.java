@@ -0,0 +1,187 @@
+package net.ossindex.version.impl;
+
+import java.util.Arrays;
+
+import com.github.zafarkhaja.semver.Version;
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+
+/**
+ * Compiles a range tree into a CompiledRange.
+ *
+ * Each plain semantic version is packed into a long key that sorts the same way
+ * as the versions do, so a whole tree of VersionRange, AndRange, OrRange and
+ * VersionSet nodes collapses into one sorted list of half open [start, end) key
+ * intervals. The compiled range then answers contains with a few primitive
+ * comparisons and no virtual calls, whatever shape the original tree had.
+ *
+ * Ranges that cannot be expressed exactly, for example because they use extended
+ * versions or contain named versions, still compile, but every check is handed to
+ * the original range.
+ */
+public final class RangeCompiler
+{
+  static final long[] EMPTY = new long[0];
+
+  private static final int MAJOR_BITS = 20;
+
+  private static final int MINOR_BITS = 20;
+
+  private static final int PATCH_BITS = 21;
+
+  /**
+   * Set when any bound of the range has a pre-release, since pre-release versions
+   * with the same major, minor and patch share a key.
+   */
+  private boolean prerelease;
+
+  private RangeCompiler() {
+  }
+
+  /**
+   * Compile the range. The result always gives the same answers as the range.
+   */
+  public static CompiledRange compile(IVersionRange range) {
+    RangeCompiler compiler = new RangeCompiler();
+    long[] intervals = compiler.intervals(range);
+    return new CompiledRange(range, intervals, compiler.prerelease);
+  }
+
+  /**
+   * Get the key intervals of a (sub) range, or null if it cannot be compiled.
+   */
+  long[] intervals(IVersionRange range) {
+    if (range instanceof AbstractCommonRange) {
+      return ((AbstractCommonRange) range).toKeys(this);
+    }
+    return null;
+  }
+
+  /**
+   * Get the key of a version used as a bound, or -1 if it cannot be compiled.
+   */
+  long boundKey(IVersion version) {
+    if (version == null || version.getClass() != SemanticVersion.class) {
+      return -1;
+    }
+    SemanticVersion sv = (SemanticVersion) version;
+    if (!sv.getVersionImpl().getPreReleaseVersion().isEmpty()) {
+      prerelease = true;
+    }
+    return key(sv);
+  }
+
+  /**
+   * Pack the major, minor and patch numbers followed by a bit which is clear for
+   * pre-release versions, so they sort just below the release. Build metadata is
+   * ignored, the same as when comparing the versions. Returns -1 for versions that
+   * do not fit.
+   */
+  static long key(SemanticVersion version) {
+    Version head = version.getVersionImpl();
+    long major = head.getMajorVersion();
+    long minor = head.getMinorVersion();
+    long patch = head.getPatchVersion();
+    if (major >>> MAJOR_BITS != 0 || minor >>> MINOR_BITS != 0 || patch >>> PATCH_BITS != 0) {
+      return -1;
+    }
+    long key = (((major << MINOR_BITS) | minor) << PATCH_BITS) | patch;
+    return (key << 1) | (head.getPreReleaseVersion().isEmpty() ? 1 : 0);
+  }
+
+  /**
+   * Intervals for a single comparison against a bound key.
+   */
+  static long[] compare(String operator, long key) {
+    if (operator == null) {
+      return null;
+    }
+    switch (operator) {
+      case "<":
+        return key == 0 ? EMPTY : new long[]{0, key};
+      case "<=":
+        return new long[]{0, key + 1};
+      case ">":
+        return new long[]{key + 1, Long.MAX_VALUE};
+      case ">=":
+        return new long[]{key, Long.MAX_VALUE};
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Single key intervals for a sorted array of keys.
+   */
+  static long[] points(long[] keys, int count) {
+    long[] result = new long[count * 2];
+    int size = 0;
+    for (int i = 0; i < count; i++) {
+      if (size > 0 && result[size - 1] == keys[i]) {
+        result[size - 1] = keys[i] + 1;
+      }
+      else if (size == 0 || result[size - 1] < keys[i]) {
+        result[size++] = keys[i];
+        result[size++] = keys[i] + 1;
+      }
+    }
+    return Arrays.copyOf(result, size);
+  }
+
+  static long[] and(long[] a, long[] b) {
+    long[] result = new long[a.length + b.length];
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      long start = Math.max(a[i], b[j]);
+      long end = Math.min(a[i + 1], b[j + 1]);
+      if (start < end) {
+        result[count++] = start;
+        result[count++] = end;
+      }
+      if (a[i + 1] < b[j + 1]) {
+        i += 2;
+      }
+      else {
+        j += 2;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  static long[] or(long[] a, long[] b) {
+    if (a.length == 0) {
+      return b;
+    }
+    if (b.length == 0) {
+      return a;
+    }
+    long[] result = new long[a.length + b.length];
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.length || j < b.length) {
+      long start;
+      long end;
+      if (j >= b.length || (i < a.length && a[i] <= b[j])) {
+        start = a[i];
+        end = a[i + 1];
+        i += 2;
+      }
+      else {
+        start = b[j];
+        end = b[j + 1];
+        j += 2;
+      }
+      if (count > 0 && start <= result[count - 1]) {
+        result[count - 1] = Math.max(result[count - 1], end);
+      }
+      else {
+        result[count++] = start;
+        result[count++] = end;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+}
@@ -0,0 +1,136 @@
+package net.ossindex.version.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.ossindex.version.IVersionRange;
+
+/**
+ * A hash-consing table for ranges. Interning a range returns an immutable range
+ * equal to it in which every subtree is the single shared instance for its
+ * structure, so identical subtrees from many advisories are stored once and can
+ * be compared or memoized by identity.
+ *
+ * Ranges are only interned once they are complete, since the parser still sets
+ * types and adds children while it builds them. Ranges with a different type or
+ * error flag are kept apart, even when their structure is equal.
+ *
+ * The table is safe to use from several threads. It holds on to every range
+ * interned until it is cleared. Once it holds the maximum number of ranges,
+ * new ranges are still copied but no longer shared.
+ */
+public class RangeInterner
+{
+  /**
+   * Default maximum number of ranges and subtrees held
+   */
+  private static final int MAX_SIZE = 10000;
+
+  private final int maxSize;
+
+  private final ConcurrentMap<Key, IVersionRange> table = new ConcurrentHashMap<Key, IVersionRange>();
+
+  public RangeInterner() {
+    this(MAX_SIZE);
+  }
+
+  public RangeInterner(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Get the shared immutable instance equal to the range.
+   */
+  public IVersionRange intern(IVersionRange range) {
+    if (range == null) {
+      return null;
+    }
+    IVersionRange shared = table.get(new Key(range));
+    if (shared != null) {
+      return shared;
+    }
+
+    String type = range.getType();
+    boolean hasErrors = range.hasErrors();
+    IVersionRange copy;
+    if (range instanceof VersionRange) {
+      VersionRange vrange = (VersionRange) range;
+      copy = new ImmutableVersionRange(vrange.getOperator(), vrange.getVersion(), type, hasErrors);
+    }
+    else if (range instanceof AndRange) {
+      AndRange arange = (AndRange) range;
+      copy = new ImmutableAndRange(intern(arange.first()), intern(arange.last()), type, hasErrors, false);
+    }
+    else if (range instanceof OrRange) {
+      List<IVersionRange> children = new ArrayList<IVersionRange>();
+      for (IVersionRange child : ((OrRange) range).getRanges()) {
+        children.add(intern(child));
+      }
+      copy = new ImmutableOrRange(children, type, hasErrors);
+    }
+    else if (range instanceof VersionSet) {
+      copy = ImmutableVersionSet.of(((VersionSet) range).getVersions(), type, hasErrors);
+    }
+    else if (range instanceof DialectVersionRange) {
+      DialectVersionRange drange = (DialectVersionRange) range;
+      copy = new ImmutableDialectVersionRange(drange.getOperator(), drange.getVersion(), type, hasErrors);
+    }
+    else if (range instanceof NpmRange) {
+      copy = new ImmutableNpmRange((NpmRange) range, type, hasErrors);
+    }
+    else {
+      // No immutable variant, so it cannot be safely shared
+      return range;
+    }
+
+    if (table.size() >= maxSize) {
+      return copy;
+    }
+    shared = table.putIfAbsent(new Key(copy), copy);
+    return shared != null ? shared : copy;
+  }
+
+  public int size() {
+    return table.size();
+  }
+
+  public void clear() {
+    table.clear();
+  }
+
+  /**
+   * Structure plus the type and error flag.
+   */
+  private static final class Key
+  {
+    private final IVersionRange range;
+
+    private final String type;
+
+    private final boolean hasErrors;
+
+    Key(IVersionRange range) {
+      this.range = range;
+      this.type = range.getType();
+      this.hasErrors = range.hasErrors();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return hasErrors == key.hasErrors
+          && (type == null ? key.type == null : type.equals(key.type))
+          && range.equals(key.range);
+    }
+
+    @Override
+    public int hashCode() {
+      return range.hashCode();
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package net.ossindex.version.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import net.ossindex.version.IVersionRange;
+
+/**
+ * Joins the fragments of a range that was split up, for example across many
+ * database rows, back into one normalized union.
+ *
+ * Fragments may come in any order and any shape. Simple ranges are the loose
+ * ends of intervals: each lower end (> and >=) is joined to the next upper end
+ * (< and <=) above it, with overlapping pairs nested inside each other. A lower
+ * end with nothing above it runs to infinity, and an upper end with no open
+ * lower end below it runs down from zero. Unions are
+ * broken into their children, and bounded ranges, version sets and anything
+ * else are complete already. Everything is then combined by a UnionBuilder.
+ *
+ * The loose ends are sorted once, so n fragments are merged in O(n log n).
+ */
+public final class RangeMerger
+{
+  /**
+   * Loose ends in sorted order. At the same version a range that stops just
+   * below it comes first, then one that starts at it, one that stops at it, and
+   * one that starts just above it.
+   */
+  private static final Comparator<VersionRange> BY_POSITION = new Comparator<VersionRange>()
+  {
+    @Override
+    public int compare(VersionRange r1, VersionRange r2) {
+      int cmp = VersionRange.compareEndpoints(r1, r2);
+      if (cmp != 0) {
+        return cmp;
+      }
+      return rank(r1) - rank(r2);
+    }
+
+    private int rank(VersionRange range) {
+      if (range.isUnbounded()) {
+        return range.isInclusive() ? 1 : 3;
+      }
+      return range.isInclusive() ? 2 : 0;
+    }
+  };
+
+  private final List<VersionRange> ends = new ArrayList<VersionRange>();
+
+  private final UnionBuilder union = new UnionBuilder();
+
+  private int count;
+
+  /**
+   * Add a fragment.
+   */
+  public RangeMerger add(IVersionRange range) {
+    if (range == null) {
+      return this;
+    }
+    count++;
+    addFragment(range);
+    return this;
+  }
+
+  private void addFragment(IVersionRange range) {
+    if (range instanceof OrRange) {
+      for (IVersionRange child : ((OrRange) range).getRanges()) {
+        addFragment(child);
+      }
+    }
+    else if (range instanceof VersionRange) {
+      ends.add((VersionRange) range);
+    }
+    else {
+      union.add(range);
+    }
+  }
+
+  /**
+   * Get the merged range, or null if nothing was added. Call this once all
+   * fragments are added.
+   *
+   * @throws net.ossindex.version.InvalidRangeRuntimeException if a lower end is
+   *         joined to an upper end it does not reach
+   */
+  public IVersionRange build() {
+    if (count == 0) {
+      return null;
+    }
+    Collections.sort(ends, BY_POSITION);
+    // Lower ends that overlap are nested, the outermost pair is the interval
+    VersionRange open = null;
+    int depth = 0;
+    for (VersionRange end : ends) {
+      if (end.isUnbounded()) {
+        if (depth++ == 0) {
+          open = end;
+        }
+      }
+      else if (depth == 0) {
+        union.add(end);
+      }
+      else if (--depth == 0) {
+        union.add(new AndRange(open, end));
+      }
+    }
+    if (depth > 0) {
+      union.add(open);
+    }
+    return union.build();
+  }
+}
@@ -0,0 +1,82 @@
+package net.ossindex.version.impl;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+
+/**
+ * Rewrites a range into an equivalent one that is cheaper to evaluate.
+ *
+ * Nested unions are flattened and nested intersections of simple ranges are
+ * collapsed into a single interval, which drops any bound that another bound
+ * makes redundant. Overlapping and adjacent intervals are merged, and versions
+ * listed explicitly that fall inside an interval are dropped. An intersection
+ * with a version set becomes the members of the set that the other side
+ * contains. Version sets themselves are left as they are, since listed versions
+ * only equal an interval if nothing can be released between them, which is
+ * never known.
+ */
+public final class RangeSimplifier
+{
+  private RangeSimplifier() {
+  }
+
+  public static IVersionRange simplify(IVersionRange range) {
+    if (range == null) {
+      return null;
+    }
+    UnionBuilder builder = new UnionBuilder();
+    builder.add(reduce(range));
+    IVersionRange result = builder.build(true);
+
+    if (!ImmutableRanges.isImmutable(result)) {
+      String type = range.getType();
+      if (type != null && !type.equals(result.getType())) {
+        result.setType(type);
+      }
+      if (range.hasErrors() && !result.hasErrors()) {
+        result.setHasErrors(true);
+      }
+    }
+    return ImmutableRanges.isImmutable(range) ? ImmutableRanges.copyOf(result) : result;
+  }
+
+  /**
+   * Simplify the intersections in the tree. Unions are flattened by the
+   * UnionBuilder afterwards.
+   */
+  private static IVersionRange reduce(IVersionRange range) {
+    if (range instanceof OrRange) {
+      UnionBuilder builder = new UnionBuilder();
+      for (IVersionRange child : ((OrRange) range).getRanges()) {
+        builder.add(reduce(child));
+      }
+      return builder.build();
+    }
+    if (range instanceof AndRange) {
+      IVersionRange range1 = reduce(((AndRange) range).first());
+      IVersionRange range2 = reduce(((AndRange) range).last());
+      if (range1 instanceof VersionSet) {
+        return filter((VersionSet) range1, range2);
+      }
+      if (range2 instanceof VersionSet) {
+        return filter((VersionSet) range2, range1);
+      }
+      // The children still intersect, since they contain the same versions as before
+      return new AndRange(range1, range2, false);
+    }
+    return range;
+  }
+
+  /**
+   * The members of the set that the range contains
+   */
+  private static VersionSet filter(VersionSet set, IVersionRange range) {
+    VersionSet results = new VersionSet();
+    for (IVersion version : set) {
+      if (range.contains(version)) {
+        results.add(version);
+      }
+    }
+    return results;
+  }
+}
@@ -0,0 +1,23 @@
+package net.ossindex.version.impl;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.InvalidRangeException;
+
+/**
+ * RPM package versions, and ranges written as rpm dependency constraints such
+ * as ">= 1:2.3-1, < 1:3.0". A bound without a release matches every release of
+ * its version.
+ */
+public class RpmDialect
+    extends AbstractDialect
+{
+  @Override
+  public String getName() {
+    return "rpm";
+  }
+
+  @Override
+  public IVersion getVersion(String version) throws InvalidRangeException {
+    return new RpmVersion(version);
+  }
+}
@@ -0,0 +1,267 @@
+package net.ossindex.version.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.InvalidRangeException;
+
+/**
+ * An RPM version, "[epoch:]version[-release]", ordered the way rpmvercmp
+ * orders them: the epoch first, then the version and release, each split into
+ * runs of digits and runs of letters. Other characters only separate runs. A
+ * numeric run is newer than a letter run, "~" sorts before anything, even the
+ * end of the string, and "^" sorts after the end of the string but before
+ * anything else.
+ *
+ * The runs are packed once, when the version is built, into a byte key whose
+ * unsigned byte order is the rpmvercmp order, so comparisons do not allocate
+ * or walk the strings again. Each run is written as a kind byte, "~" as 0x01,
+ * the end of the version or release as 0x02, "^" as 0x03, a letter run as 0x04
+ * followed by the letters and 0x00, and a numeric run as 0x05 followed by the
+ * number of digits without leading zeroes and the digits.
+ *
+ * As a range bound, a version without a release matches every release of the
+ * version, as rpm does for dependencies.
+ */
+public class RpmVersion
+    implements IVersion, DialectVersionRange.Bound
+{
+  private static final int TILDE = 0x01;
+
+  private static final int END = 0x02;
+
+  private static final int CARET = 0x03;
+
+  private static final int ALPHA = 0x04;
+
+  private static final int NUMERIC = 0x05;
+
+  private final String evr;
+
+  private final int epoch;
+
+  private final String version;
+
+  private final String release;
+
+  private final byte[] key;
+
+  /**
+   * Length of the key up to and including the end of the version
+   */
+  private final int versionLength;
+
+  private final int hash;
+
+  public RpmVersion(String evr) throws InvalidRangeException {
+    String s = evr.trim();
+    int colon = s.indexOf(':');
+    int epoch = 0;
+    if (colon >= 0) {
+      try {
+        epoch = Integer.parseInt(s.substring(0, colon));
+      }
+      catch (NumberFormatException e) {
+        throw new InvalidRangeException("Invalid epoch in RPM version: " + evr);
+      }
+      if (epoch < 0) {
+        throw new InvalidRangeException("Invalid epoch in RPM version: " + evr);
+      }
+    }
+    int dash = s.lastIndexOf('-');
+    if (dash <= colon) {
+      dash = -1;
+    }
+    this.evr = s;
+    this.epoch = epoch;
+    this.version = dash >= 0 ? s.substring(colon + 1, dash) : s.substring(colon + 1);
+    this.release = dash >= 0 ? s.substring(dash + 1) : null;
+    if (version.isEmpty() || (release != null && release.isEmpty())) {
+      throw new InvalidRangeException("Invalid RPM version: " + evr);
+    }
+    for (int i = 0; i < s.length(); i++) {
+      if (s.charAt(i) <= ' ') {
+        throw new InvalidRangeException("Invalid RPM version: " + evr);
+      }
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream(s.length() + 16);
+    out.write(epoch >>> 24);
+    out.write(epoch >>> 16);
+    out.write(epoch >>> 8);
+    out.write(epoch);
+    if (!encode(version, out)) {
+      throw new InvalidRangeException("Number too long in RPM version: " + evr);
+    }
+    this.versionLength = out.size();
+    if (release != null && !encode(release, out)) {
+      throw new InvalidRangeException("Number too long in RPM version: " + evr);
+    }
+    this.key = out.toByteArray();
+    this.hash = Arrays.hashCode(key);
+  }
+
+  /**
+   * Write the runs of the string, returning false if a number is too long to
+   * be written.
+   */
+  private static boolean encode(String s, ByteArrayOutputStream out) {
+    int length = s.length();
+    int i = 0;
+    while (i < length) {
+      char c = s.charAt(i);
+      if (c == '~') {
+        out.write(TILDE);
+        i++;
+      }
+      else if (c == '^') {
+        out.write(CARET);
+        i++;
+      }
+      else if (isDigit(c)) {
+        while (i < length && s.charAt(i) == '0') {
+          i++;
+        }
+        int start = i;
+        while (i < length && isDigit(s.charAt(i))) {
+          i++;
+        }
+        if (i - start > 255) {
+          return false;
+        }
+        out.write(NUMERIC);
+        out.write(i - start);
+        for (int j = start; j < i; j++) {
+          out.write(s.charAt(j));
+        }
+      }
+      else if (isAlpha(c)) {
+        out.write(ALPHA);
+        while (i < length && isAlpha(s.charAt(i))) {
+          out.write(s.charAt(i));
+          i++;
+        }
+        out.write(0);
+      }
+      else {
+        // Separators only split runs
+        i++;
+      }
+    }
+    out.write(END);
+    return true;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isAlpha(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  public int getEpoch() {
+    return epoch;
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  /**
+   * The release, or null if there is none
+   */
+  public String getRelease() {
+    return release;
+  }
+
+  @Override
+  public int compareTo(IVersion other) {
+    if (other instanceof RpmVersion) {
+      return DebianVersion.compareKeys(key, ((RpmVersion) other).key);
+    }
+    return toString().compareTo(other.toString());
+  }
+
+  /**
+   * Without a release only the epoch and version are compared.
+   */
+  @Override
+  public int compareToBound(IVersion other) {
+    if (release != null || !(other instanceof RpmVersion)) {
+      return other.compareTo(this);
+    }
+    RpmVersion v = (RpmVersion) other;
+    return DebianVersion.compareKeys(v.key, v.versionLength, key, versionLength);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof RpmVersion && Arrays.equals(key, ((RpmVersion) o).key);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return evr;
+  }
+
+  @Override
+  public int getMajor() {
+    return number(0);
+  }
+
+  @Override
+  public int getMinor() {
+    return number(1);
+  }
+
+  @Override
+  public int getPatch() {
+    return number(2);
+  }
+
+  @Override
+  public int getBuild() {
+    return number(3);
+  }
+
+  /**
+   * The index'th run of digits in the version, or 0 if there is none
+   */
+  private int number(int index) {
+    int i = 0;
+    int length = version.length();
+    for (int n = 0; i < length; n++) {
+      while (i < length && !isDigit(version.charAt(i))) {
+        i++;
+      }
+      int start = i;
+      while (i < length && isDigit(version.charAt(i))) {
+        i++;
+      }
+      if (n == index) {
+        try {
+          return start < i ? Integer.parseInt(version.substring(start, i)) : 0;
+        }
+        catch (NumberFormatException e) {
+          return Integer.MAX_VALUE;
+        }
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Pre-releases are marked with "~", such as "1.0~rc1"
+   */
+  @Override
+  public boolean isStable() {
+    return version.indexOf('~') < 0 && (release == null || release.indexOf('~') < 0);
+  }
+}
@@ -0,0 +1,22 @@
+package net.ossindex.version.impl;
+
+import net.ossindex.version.IVersion;
+
+/**
+ * An immutable set holding exactly one version, such as the range "1.2.3".
+ */
+class SingletonVersionSet
+    extends ImmutableVersionSet
+{
+  private final IVersion version;
+
+  SingletonVersionSet(IVersion version, String type, boolean hasErrors) {
+    super(new IVersion[] {version}, type, hasErrors, false);
+    this.version = version;
+  }
+
+  @Override
+  public boolean contains(IVersion version) {
+    return version.compareTo(this.version) == 0;
+  }
+}
@@ -0,0 +1,19 @@
+package net.ossindex.version.impl;
+
+import net.ossindex.version.IVersion;
+
+/**
+ * An immutable set of a few versions, which are scanned rather than searched.
+ */
+class SmallVersionSet
+    extends ImmutableVersionSet
+{
+  SmallVersionSet(IVersion[] versions, String type, boolean hasErrors) {
+    super(versions, type, hasErrors, false);
+  }
+
+  @Override
+  public boolean contains(IVersion version) {
+    return scan(version);
+  }
+}
@@ -0,0 +1,311 @@
+package net.ossindex.version.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+
+/**
+ * Builds a single flat union out of any number of ranges.
+ *
+ * Nested unions are flattened into their children. Simple ranges and bounded
+ * ranges over plain semantic versions are sorted by their lower end and
+ * overlapping or touching intervals are merged, and all discrete versions are
+ * collected into one VersionSet. The result is at most one level of OrRange,
+ * however many ranges were added. Anything else is kept as it is.
+ */
+public final class UnionBuilder
+{
+  private final List<Interval> intervals = new ArrayList<Interval>();
+
+  private final List<IVersion> versions = new ArrayList<IVersion>();
+
+  private final List<IVersionRange> others = new ArrayList<IVersionRange>();
+
+  private IVersionRange single;
+
+  private int count;
+
+  private String type;
+
+  private boolean hasErrors;
+
+  /**
+   * Add a range to the union.
+   */
+  public UnionBuilder add(IVersionRange range) {
+    if (range == null) {
+      return this;
+    }
+    if (count++ == 0) {
+      single = range;
+    }
+    if (type == null) {
+      type = range.getType();
+    }
+    if (range.hasErrors()) {
+      hasErrors = true;
+    }
+    addChild(range);
+    return this;
+  }
+
+  private void addChild(IVersionRange range) {
+    if (range instanceof OrRange) {
+      for (IVersionRange child : ((OrRange) range).getRanges()) {
+        addChild(child);
+      }
+      return;
+    }
+    if (range instanceof VersionSet) {
+      for (IVersion version : ((VersionSet) range).getVersions()) {
+        if (isPlain(version)) {
+          intervals.add(new Interval((SemanticVersion) version, true, (SemanticVersion) version, true));
+        }
+        else {
+          versions.add(version);
+        }
+      }
+      return;
+    }
+    Interval interval = Interval.of(range);
+    if (interval != null) {
+      // An interval that ends before it starts contains nothing
+      if (!interval.isEmpty()) {
+        intervals.add(interval);
+      }
+    }
+    else {
+      others.add(range);
+    }
+  }
+
+  /**
+   * Get the union of everything added, or null if nothing was.
+   */
+  public IVersionRange build() {
+    return build(false);
+  }
+
+  /**
+   * Get the union of everything added. If normalize is set a single range that
+   * was added is rebuilt as well, rather than returned as it is.
+   */
+  IVersionRange build(boolean normalize) {
+    if (count == 0) {
+      return null;
+    }
+    if (count == 1 && !normalize && !(single instanceof OrRange)) {
+      return single;
+    }
+
+    List<IVersionRange> results = new ArrayList<IVersionRange>();
+    VersionSet set = new VersionSet();
+    for (Interval interval : merge()) {
+      if (interval.isPoint()) {
+        set.add(interval.lower);
+      }
+      else {
+        results.add(interval.toRange());
+      }
+    }
+    for (IVersion version : versions) {
+      set.add(version);
+    }
+    if (!set.getVersions().isEmpty()) {
+      results.add(set);
+    }
+    results.addAll(others);
+    if (results.isEmpty()) {
+      // Nothing can match
+      results.add(set);
+    }
+
+    IVersionRange range = results.size() == 1 ? results.get(0) : new OrRange(results);
+    if (ImmutableRanges.isImmutable(range)) {
+      // A shared range that was added as it is
+      return range;
+    }
+    if (type != null && !type.equals(range.getType())) {
+      range.setType(type);
+    }
+    if (hasErrors && !range.hasErrors()) {
+      range.setHasErrors(true);
+    }
+    return range;
+  }
+
+  /**
+   * Sort the intervals by their lower end, then sweep through them merging each
+   * into the previous one when they overlap or touch.
+   */
+  private List<Interval> merge() {
+    Collections.sort(intervals, Interval.BY_LOWER);
+    List<Interval> results = new ArrayList<Interval>();
+    Interval current = null;
+    for (Interval next : intervals) {
+      if (current != null && current.touches(next) && !current.spansEverything(next)) {
+        current = current.extend(next);
+      }
+      else {
+        if (current != null) {
+          results.add(current);
+        }
+        current = next;
+      }
+    }
+    if (current != null) {
+      results.add(current);
+    }
+    return results;
+  }
+
+  /**
+   * Only plain semantic versions are merged, since their ordering exactly matches
+   * the range checks.
+   */
+  private static boolean isPlain(IVersion version) {
+    return version != null && version.getClass() == SemanticVersion.class;
+  }
+
+  /**
+   * A possibly unbounded interval. A null end is unbounded.
+   */
+  private static final class Interval
+  {
+    static final Comparator<Interval> BY_LOWER = new Comparator<Interval>()
+    {
+      @Override
+      public int compare(Interval i1, Interval i2) {
+        if (i1.lower == null || i2.lower == null) {
+          return i1.lower == null ? (i2.lower == null ? 0 : -1) : 1;
+        }
+        int cmp = i1.lower.compareTo(i2.lower);
+        if (cmp != 0) {
+          return cmp;
+        }
+        return i1.lowerInclusive == i2.lowerInclusive ? 0 : (i1.lowerInclusive ? -1 : 1);
+      }
+    };
+
+    final SemanticVersion lower;
+
+    final boolean lowerInclusive;
+
+    final SemanticVersion upper;
+
+    final boolean upperInclusive;
+
+    Interval(SemanticVersion lower, boolean lowerInclusive, SemanticVersion upper, boolean upperInclusive) {
+      this.lower = lower;
+      this.lowerInclusive = lowerInclusive;
+      this.upper = upper;
+      this.upperInclusive = upperInclusive;
+    }
+
+    /**
+     * Get the interval of a simple range, or of two simple ranges anded together.
+     */
+    static Interval of(IVersionRange range) {
+      if (range instanceof VersionRange) {
+        VersionRange vrange = (VersionRange) range;
+        if (!isPlain(vrange.getVersion()) || vrange.getOperator() == null) {
+          return null;
+        }
+        switch (vrange.getOperator()) {
+          case ">":
+            return new Interval(vrange.getVersion(), false, null, false);
+          case ">=":
+            return new Interval(vrange.getVersion(), true, null, false);
+          case "<":
+            return new Interval(null, false, vrange.getVersion(), false);
+          case "<=":
+            return new Interval(null, false, vrange.getVersion(), true);
+          default:
+            return null;
+        }
+      }
+      if (range instanceof AndRange) {
+        Interval i1 = of(((AndRange) range).first());
+        Interval i2 = of(((AndRange) range).last());
+        if (i1 != null && i2 != null) {
+          return i1.intersect(i2);
+        }
+      }
+      return null;
+    }
+
+    boolean isEmpty() {
+      if (lower == null || upper == null) {
+        return false;
+      }
+      int cmp = lower.compareTo(upper);
+      return cmp > 0 || (cmp == 0 && !(lowerInclusive && upperInclusive));
+    }
+
+    boolean isPoint() {
+      return lower != null && upper != null && lowerInclusive && upperInclusive && lower.compareTo(upper) == 0;
+    }
+
+    /**
+     * True if the next interval, which does not start before this one, overlaps
+     * or touches it with no gap.
+     */
+    boolean touches(Interval next) {
+      if (upper == null || next.lower == null) {
+        return true;
+      }
+      int cmp = next.lower.compareTo(upper);
+      return cmp < 0 || (cmp == 0 && (next.lowerInclusive || upperInclusive));
+    }
+
+    /**
+     * Unbounded at both ends cannot be written as a range, so such intervals are
+     * not merged.
+     */
+    boolean spansEverything(Interval next) {
+      return lower == null && (upper == null || next.upper == null);
+    }
+
+    Interval extend(Interval next) {
+      if (upper == null || next.upper == null) {
+        return new Interval(lower, lowerInclusive, null, false);
+      }
+      int cmp = next.upper.compareTo(upper);
+      if (cmp > 0 || (cmp == 0 && next.upperInclusive)) {
+        return new Interval(lower, lowerInclusive, next.upper, next.upperInclusive);
+      }
+      return this;
+    }
+
+    Interval intersect(Interval other) {
+      Interval low = BY_LOWER.compare(this, other) >= 0 ? this : other;
+      Interval high = this;
+      if (upper == null) {
+        high = other;
+      }
+      else if (other.upper != null) {
+        int cmp = other.upper.compareTo(upper);
+        if (cmp < 0 || (cmp == 0 && !other.upperInclusive)) {
+          high = other;
+        }
+      }
+      return new Interval(low.lower, low.lowerInclusive, high.upper, high.upperInclusive);
+    }
+
+    IVersionRange toRange() {
+      VersionRange from = lower == null ? null : new VersionRange(lowerInclusive ? ">=" : ">", lower);
+      VersionRange to = upper == null ? null : new VersionRange(upperInclusive ? "<=" : "<", upper);
+      if (from == null) {
+        return to;
+      }
+      if (to == null) {
+        return from;
+      }
+      return new AndRange(from, to);
+    }
+  }
+}
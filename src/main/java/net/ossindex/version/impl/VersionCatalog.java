@@ -0,0 +1,193 @@
+package net.ossindex.version.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+
+/**
+ * The known versions of a single package, sorted by VersionComparator. Each version
+ * gets an ordinal (its rank in the sorted list), and ranges can be compiled into
+ * intervals of ordinals. Once compiled, checking whether a catalog version is in a
+ * range costs a couple of integer comparisons.
+ *
+ * Versions may be added after ranges have been compiled. Compiled ranges notice the
+ * change and bring themselves up to date the next time they are used; versions added
+ * at the end of the catalog (the usual case for new releases) are cheapest.
+ *
+ * This class is not thread safe.
+ */
+public class VersionCatalog
+{
+  private IVersion[] versions;
+
+  private int size;
+
+  /**
+   * Number of semantic versions, which are sorted to the front of the list.
+   */
+  private int semanticSize;
+
+  /**
+   * Positions at which versions were inserted, in the order they were inserted. Compiled
+   * ranges replay this log to keep their ordinals current.
+   */
+  private int[] insertions = new int[16];
+
+  private IVersion[] inserted = new IVersion[16];
+
+  private int insertionCount;
+
+  public VersionCatalog() {
+    versions = new IVersion[16];
+  }
+
+  public VersionCatalog(Collection<? extends IVersion> initial) {
+    IVersion[] sorted = initial.toArray(new IVersion[initial.size()]);
+    Arrays.sort(sorted, VersionComparator.INSTANCE);
+    versions = new IVersion[Math.max(16, sorted.length)];
+    for (IVersion version : sorted) {
+      if (size == 0 || VersionComparator.INSTANCE.compare(versions[size - 1], version) != 0) {
+        versions[size++] = version;
+        if (VersionComparator.isSemantic(version)) {
+          semanticSize++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Add a version to the catalog.
+   *
+   * @return The ordinal of the version
+   */
+  public int add(IVersion version) {
+    int index = Ordinals.lowerBound(versions, 0, size, version);
+    if (index < size && VersionComparator.INSTANCE.compare(versions[index], version) == 0) {
+      return index;
+    }
+    if (size == versions.length) {
+      versions = Arrays.copyOf(versions, size * 2);
+    }
+    System.arraycopy(versions, index, versions, index + 1, size - index);
+    versions[index] = version;
+    size++;
+    if (VersionComparator.isSemantic(version)) {
+      semanticSize++;
+    }
+    if (insertionCount == insertions.length) {
+      insertions = Arrays.copyOf(insertions, insertionCount * 2);
+      inserted = Arrays.copyOf(inserted, insertionCount * 2);
+    }
+    insertions[insertionCount] = index;
+    inserted[insertionCount] = version;
+    insertionCount++;
+    return index;
+  }
+
+  /**
+   * Get the ordinal of a version.
+   *
+   * @return The ordinal, or -1 if the version is not in the catalog
+   */
+  public int getOrdinal(IVersion version) {
+    int index = Ordinals.lowerBound(versions, 0, size, version);
+    if (index < size && VersionComparator.INSTANCE.compare(versions[index], version) == 0) {
+      return index;
+    }
+    return -1;
+  }
+
+  /**
+   * Get the ordinals for a number of versions. Versions that are not in the catalog
+   * get -1.
+   */
+  public int[] getOrdinals(List<? extends IVersion> list) {
+    int[] ordinals = new int[list.size()];
+    for (int i = 0; i < ordinals.length; i++) {
+      ordinals[i] = getOrdinal(list.get(i));
+    }
+    return ordinals;
+  }
+
+  public IVersion get(int ordinal) {
+    if (ordinal < 0 || ordinal >= size) {
+      throw new IndexOutOfBoundsException("No version with ordinal " + ordinal);
+    }
+    return versions[ordinal];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public List<IVersion> getVersions() {
+    return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(versions, size)));
+  }
+
+  /**
+   * Compile the range into ordinal intervals over this catalog.
+   */
+  public OrdinalRange compile(IVersionRange range) {
+    return new OrdinalRange(this, range, Ordinals.of(range, versions, size, semanticSize), insertionCount);
+  }
+
+  /**
+   * Compile a number of ranges.
+   */
+  public List<OrdinalRange> compile(Collection<? extends IVersionRange> ranges) {
+    List<OrdinalRange> results = new ArrayList<OrdinalRange>(ranges.size());
+    for (IVersionRange range : ranges) {
+      results.add(compile(range));
+    }
+    return results;
+  }
+
+  /**
+   * Get the catalog versions in the range as a compressed bitmap. Bitmaps of ranges
+   * over the same catalog can be combined with and/or/andNot.
+   */
+  public RangeBitmap toBitmap(IVersionRange range) {
+    return RangeBitmap.fromIntervals(Ordinals.of(range, versions, size, semanticSize));
+  }
+
+  /**
+   * Evaluate every range against every ordinal. The result has one BitSet per range, in
+   * which bit i is set if the range contains ordinals[i]. Negative ordinals never match.
+   */
+  public BitSet[] matchMatrix(List<OrdinalRange> ranges, int[] ordinals) {
+    BitSet[] results = new BitSet[ranges.size()];
+    for (int r = 0; r < results.length; r++) {
+      OrdinalRange range = ranges.get(r);
+      if (range.getCatalog() != this) {
+        throw new IllegalArgumentException("Range was compiled against a different catalog");
+      }
+      range.update();
+      BitSet matches = new BitSet(ordinals.length);
+      for (int i = 0; i < ordinals.length; i++) {
+        if (range.containsOrdinal(ordinals[i])) {
+          matches.set(i);
+        }
+      }
+      results[r] = matches;
+    }
+    return results;
+  }
+
+  int getInsertionCount() {
+    return insertionCount;
+  }
+
+  int getInsertion(int index) {
+    return insertions[index];
+  }
+
+  IVersion getInserted(int index) {
+    return inserted[index];
+  }
+}
@@ -0,0 +1,75 @@
+package net.ossindex.version.impl;
+
+import java.util.Comparator;
+
+import net.ossindex.version.IVersion;
+
+/**
+ * A total order over mixed version types, suitable for sorting and binary searching.
+ *
+ * The natural ordering of the version classes is not always consistent between types
+ * (a SemanticVersion and an ExtendedSemanticVersion with the same head do not agree on
+ * which is larger), which can upset sorting code. This comparator fixes a single order:
+ *
+ *   - Semantic versions come first, ordered by their semantic head
+ *   - For equal heads a plain semantic version precedes an extended one, and extended
+ *     versions are ordered by build number
+ *   - All other versions follow, ordered by their string representation
+ *
+ * Within the semantic versions this order agrees with the way VersionRange evaluates
+ * its bounds, so the result of VersionRange.contains is monotonic over a sorted list.
+ */
+public final class VersionComparator
+    implements Comparator<IVersion>
+{
+  public static final VersionComparator INSTANCE = new VersionComparator();
+
+  private VersionComparator() {
+  }
+
+  @Override
+  public int compare(IVersion v1, IVersion v2) {
+    boolean s1 = v1 instanceof SemanticVersion;
+    boolean s2 = v2 instanceof SemanticVersion;
+    if (s1 && s2) {
+      return compareSemantic((SemanticVersion) v1, (SemanticVersion) v2);
+    }
+    if (s1) {
+      return -1;
+    }
+    if (s2) {
+      return 1;
+    }
+    return v1.toString().compareTo(v2.toString());
+  }
+
+  private static int compareSemantic(SemanticVersion v1, SemanticVersion v2) {
+    int cmp = v1.getVersionImpl().compareTo(v2.getVersionImpl());
+    if (cmp != 0) {
+      return cmp;
+    }
+    boolean e1 = v1 instanceof ExtendedSemanticVersion;
+    boolean e2 = v2 instanceof ExtendedSemanticVersion;
+    if (e1 && e2) {
+      cmp = Integer.compare(v1.getBuild(), v2.getBuild());
+      if (cmp != 0) {
+        return cmp;
+      }
+      return v1.toString().compareTo(v2.toString());
+    }
+    if (e1) {
+      return 1;
+    }
+    if (e2) {
+      return -1;
+    }
+    return 0;
+  }
+
+  /**
+   * Returns true if the version sorts into the semantic portion of a sorted list.
+   */
+  public static boolean isSemantic(IVersion version) {
+    return version instanceof SemanticVersion;
+  }
+}
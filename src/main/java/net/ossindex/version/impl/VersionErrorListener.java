@@ -9,6 +9,19 @@ public class VersionErrorListener
 {
   public int errors = 0;
 
+  /**
+   * Count errors without printing them
+   */
+  private final boolean quiet;
+
+  public VersionErrorListener() {
+    this(false);
+  }
+
+  public VersionErrorListener(boolean quiet) {
+    this.quiet = quiet;
+  }
+
   public void syntaxError(Recognizer<?, ?> recognizer,
                           Object offendingSymbol,
                           int line,
@@ -16,7 +29,9 @@ public class VersionErrorListener
                           String msg,
                           RecognitionException e)
   {
-    super.syntaxError(recognizer, offendingSymbol, line, charPositionInLine, msg, e);
+    if (!quiet) {
+      super.syntaxError(recognizer, offendingSymbol, line, charPositionInLine, msg, e);
+    }
     errors++;
   }
 
@@ -26,6 +26,7 @@
  */
 package net.ossindex.version.impl;
 
+import java.util.List;
 import java.util.Stack;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -34,6 +35,7 @@ import net.ossindex.version.IVersion;
 import net.ossindex.version.IVersionRange;
 import net.ossindex.version.InvalidRangeException;
 import net.ossindex.version.InvalidRangeRuntimeException;
+import net.ossindex.version.RangeStyle;
 import net.ossindex.version.parser.VersionBaseListener;
 import net.ossindex.version.parser.VersionParser;
 
@@ -41,7 +43,8 @@ import net.ossindex.version.parser.VersionParser;
  * Listener for the version parser.
  *
  * This converts all the various versions and ranges we can find to
- * semantic versions and ranges.
+ * semantic versions and ranges. In Maven mode, used by MavenDialect, Maven
+ * ranges are given MavenVersion bounds instead.
  *
  * @author Ken Duck
  */
@@ -58,12 +61,33 @@ public class VersionListener
 
   private IVersionRange range;
 
+  /**
+   * Check that anded ranges intersect while building them
+   */
+  private final boolean validate;
+
+  /**
+   * Give Maven ranges MavenVersion bounds, ordered the way Maven orders them,
+   * rather than semantic versions
+   */
+  private final boolean maven;
+
   public VersionListener() {
-    this.strict = false;
+    this(false);
   }
 
   public VersionListener(final boolean strict) {
+    this(strict, true);
+  }
+
+  public VersionListener(final boolean strict, final boolean validate) {
+    this(strict, validate, false);
+  }
+
+  public VersionListener(final boolean strict, final boolean validate, final boolean maven) {
     this.strict = strict;
+    this.validate = validate;
+    this.maven = maven;
   }
 
   public IVersionRange getRange()
@@ -286,7 +310,7 @@ public class VersionListener
           SemanticVersion sv = (SemanticVersion) o;
           VersionRange from = new VersionRange(">=", sv);
           VersionRange to = new VersionRange("<", sv.getNextCaretVersion());
-          range = new AndRange(from, to);
+          range = new AndRange(from, to, validate);
           break;
       }
       stack.push(range);
@@ -317,7 +341,7 @@ public class VersionListener
           SemanticVersion sv = (SemanticVersion) o;
           VersionRange from = new VersionRange(">=", sv);
           VersionRange to = new VersionRange("<", sv.getNextParentVersion());
-          range = new AndRange(from, to);
+          range = new AndRange(from, to, validate);
           break;
         default:
           range = new VersionRange(operator, (SemanticVersion) o);
@@ -367,7 +391,7 @@ public class VersionListener
     if (ctx.getChildCount() == 2) {
       Object o1 = stack.pop();
       Object o2 = stack.pop();
-      stack.push(new AndRange((IVersionRange) o2, (IVersionRange) o1));
+      stack.push(new AndRange((IVersionRange) o2, (IVersionRange) o1, validate));
     }
     // Three tokens may be and OR or OR a bracketed version
     else if (ctx.getChildCount() == 3) {
@@ -384,7 +408,7 @@ public class VersionListener
         switch (operator) {
           case "&":
           case ",":
-            stack.push(new AndRange((IVersionRange) o2, (IVersionRange) o1));
+            stack.push(new AndRange((IVersionRange) o2, (IVersionRange) o1, validate));
             break;
         }
       }
@@ -417,14 +441,27 @@ public class VersionListener
       r2 = (IVersionRange) o2;
     }
 
+    // Members get the type they would have on their own
+    setMemberType(r1, ctx.getChild(2).getText());
+    setMemberType(r2, ctx.getChild(0).getText());
+
+    OrRange union;
     if (r1 instanceof OrRange) {
-      stack.push(((OrRange) r1).add(r2));
+      union = ((OrRange) r1).add(r2);
     }
     else if (r2 instanceof OrRange) {
-      stack.push(((OrRange) r2).add(r1));
+      union = ((OrRange) r2).add(r1);
     }
     else {
-      stack.push(new OrRange(r2, r1));
+      union = new OrRange(r2, r1);
+    }
+    union.setType(RangeStyle.UNION.getType());
+    stack.push(union);
+  }
+
+  private static void setMemberType(IVersionRange range, String text) {
+    if (!(range instanceof OrRange) && range.getType() == null) {
+      range.setType(RangeStyle.classify(text).getType());
     }
   }
 
@@ -437,7 +474,9 @@ public class VersionListener
     if (ctx.getChildCount() == 3) {
       IVersionRange r1 = (IVersionRange) stack.pop();
       IVersionRange r2 = (IVersionRange) stack.pop();
-      stack.push(new OrRange(r2, r1));
+      OrRange union = new OrRange(r2, r1);
+      union.setType(RangeStyle.MAVEN.getType());
+      stack.push(union);
     }
     else {
       if (strict) {
@@ -452,6 +491,10 @@ public class VersionListener
    */
   @Override
   public void exitMaven_range(VersionParser.Maven_rangeContext ctx) {
+    if (maven) {
+      stack.push(getMavenRange(ctx));
+      return;
+    }
 
     // This could be a version set
     if (ctx.getChildCount() == 3) {
@@ -460,6 +503,7 @@ public class VersionListener
         SemanticVersion v1 = (SemanticVersion) stack.pop();
         set.add(v1);
       }
+      set.setType(RangeStyle.MAVEN.getType());
       stack.push(set);
       return;
     }
@@ -467,6 +511,7 @@ public class VersionListener
     // Possibly an empty set
     if (ctx.getChildCount() == 2) {
       VersionSet set = new VersionSet();
+      set.setType(RangeStyle.MAVEN.getType());
       stack.push(set);
       return;
     }
@@ -529,7 +574,7 @@ public class VersionListener
     // Now assemble the range
     if (r1 != null) {
       if (r2 != null) {
-        IVersionRange andRange = new AndRange(r1, r2);
+        IVersionRange andRange = new AndRange(r1, r2, validate);
         andRange.setType("maven");
         stack.push(andRange);
       }
@@ -544,6 +589,50 @@ public class VersionListener
     }
   }
 
+  /**
+   * A Maven range whose bounds are MavenVersions. The semantic versions that
+   * the bounds were parsed to are dropped, and the bounds are built from the
+   * text of the versions instead.
+   */
+  private IVersionRange getMavenRange(VersionParser.Maven_rangeContext ctx) {
+    List<VersionParser.VersionContext> versions = ctx.version();
+    for (int i = 0; i < versions.size(); i++) {
+      stack.pop();
+    }
+    IVersionRange range;
+    int count = ctx.getChildCount();
+    if (versions.isEmpty()) {
+      range = new VersionSet();
+    }
+    else if (count == 3) {
+      range = new DialectVersionRange("=", getMavenVersion(versions.get(0)));
+    }
+    else {
+      IVersionRange r1 = null;
+      IVersionRange r2 = null;
+      if (!",".equals(ctx.getChild(1).getText())) {
+        String operator = "[".equals(ctx.getChild(0).getText()) ? ">=" : ">";
+        r1 = new DialectVersionRange(operator, getMavenVersion(versions.get(0)));
+      }
+      if (!",".equals(ctx.getChild(count - 2).getText())) {
+        String operator = "]".equals(ctx.getChild(count - 1).getText()) ? "<=" : "<";
+        r2 = new DialectVersionRange(operator, getMavenVersion(versions.get(versions.size() - 1)));
+      }
+      range = r1 == null ? r2 : r2 == null ? r1 : new AndRange(r1, r2, validate);
+    }
+    range.setType(RangeStyle.MAVEN.getType());
+    return range;
+  }
+
+  private static MavenVersion getMavenVersion(VersionParser.VersionContext ctx) {
+    try {
+      return new MavenVersion(ctx.getText());
+    }
+    catch (InvalidRangeException e) {
+      throw new InvalidRangeRuntimeException(e.getMessage(), e);
+    }
+  }
+
   /**
    * In strict mode we will want to disallow broken ranges
    */
@@ -26,8 +26,10 @@
  */
 package net.ossindex.version.impl;
 
+import java.util.BitSet;
 import java.util.Collection;
 
+import com.github.zafarkhaja.semver.Version;
 import net.ossindex.version.IVersion;
 import net.ossindex.version.IVersionRange;
 
@@ -44,12 +46,43 @@ public class VersionRange
   /**
    *
    */
-  private String operator;
+  private final String operator;
 
-  private SemanticVersion version;
+  private final SemanticVersion version;
+
+  /**
+   * The range is modelled as a single endpoint. A lower endpoint (> and >=) runs
+   * up to infinity, an upper endpoint (< and <=) runs down from zero.
+   */
+  private final boolean lower;
+
+  private final boolean inclusive;
+
+  /**
+   * Comparison data for the endpoint, taken from the version once so endpoints
+   * can be compared without going through the version classes.
+   */
+  private final Version head;
+
+  private final int build;
+
+  /**
+   * Lowest version of all upper ranges
+   */
+  private static final SemanticVersion ZERO = new SemanticVersion(0);
+
+  /**
+   * Computed on first use, see getMaximum
+   */
+  private volatile SemanticVersion maximum;
 
   private boolean hasErrors = false;
 
+  /**
+   * Cached hash code, the structure never changes.
+   */
+  private int hash;
+
   /**
    *
    * @param operator
@@ -59,6 +92,10 @@ public class VersionRange
   {
     this.version = version;
     this.operator = operator;
+    this.lower = ">".equals(operator) || ">=".equals(operator);
+    this.inclusive = ">=".equals(operator) || "<=".equals(operator);
+    this.head = version == null ? null : version.getVersionImpl();
+    this.build = version instanceof ExtendedSemanticVersion ? version.getBuild() : 0;
   }
 
   /*
@@ -139,7 +176,7 @@ public class VersionRange
     switch (operator) {
       case "<":
       case "<=":
-        return new SemanticVersion(0);
+        return ZERO;
       case ">":
         // FIXME: Not quite correct. We need to increment the version.
         return version;
@@ -159,11 +196,17 @@ public class VersionRange
   {
     switch (operator) {
       case "<":
-        return version.getPrevVersion();
+      case ">":
+        // Neighbouring versions are only an approximation, so they are not used
+        // for comparisons here. Build them once for callers that want them.
+        SemanticVersion max = maximum;
+        if (max == null) {
+          max = "<".equals(operator) ? version.getPrevVersion() : version.getNextVersion();
+          maximum = max;
+        }
+        return max;
       case "<=":
         return version;
-      case ">":
-        return version.getNextVersion();
       case ">=":
         return null;
       default:
@@ -171,6 +214,34 @@ public class VersionRange
     }
   }
 
+  /**
+   * Ranges are equal when they have the same operator and version. The type and
+   * error flag are not part of the structure.
+   */
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof VersionRange)) {
+      return false;
+    }
+    VersionRange range = (VersionRange) o;
+    return operator.equals(range.operator) && sameVersion(version, range.version);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    int h = hash;
+    if (h == 0) {
+      h = 31 * operator.hashCode() + versionHash(version);
+      hash = h;
+    }
+    return h;
+  }
+
   /*
    * (non-Javadoc)
    * @see java.lang.Object#toString()
@@ -225,43 +296,7 @@ public class VersionRange
     // If the other range is a simple range, then we can just check the extremities
     // to see if they overlap
     else if (yourRange instanceof VersionRange) {
-      IVersion useMyVersion = null;
-      switch (operator) {
-        case ">":
-          useMyVersion = version.getNextVersion();
-          break;
-        case "<":
-          useMyVersion = version.getPrevVersion();
-          break;
-        default:
-          useMyVersion = version;
-          break;
-      }
-      if (yourRange.contains(useMyVersion)) {
-        return true;
-      }
-
-      IVersion useYourVersion = null;
-      switch (((VersionRange) yourRange).operator) {
-        case ">":
-          useYourVersion = ((VersionRange) yourRange).version.getNextVersion();
-          break;
-        case "<":
-          useYourVersion = ((VersionRange) yourRange).version.getPrevVersion();
-          break;
-        default:
-          useYourVersion = ((VersionRange) yourRange).version;
-          break;
-      }
-      if (this.contains(useYourVersion)) {
-        return true;
-      }
-
-      // Special case: Versions right next to each other >1.2.6 & <1.2.7
-      // There may be micro-versions or snapshot versions between them
-      if (this.version.equals(useYourVersion) && ((VersionRange) yourRange).version.equals(useMyVersion)) {
-        return true;
-      }
+      return endpointsIntersect(this, (VersionRange) yourRange);
     }
     // Logical ranges need to be broken down
     else if (yourRange instanceof AndRange) {
@@ -273,7 +308,6 @@ public class VersionRange
     else {
       throw new UnsupportedOperationException();
     }
-    return false;
   }
 
   @Override
@@ -291,36 +325,17 @@ public class VersionRange
       return true;
     }
 
-    // If the other range is a simple range, then we can just check the extremities
-    // to see if they are contained
+    // If the other range is a simple range, it has to run off in the same
+    // direction and start within ours
     else if (yourRange instanceof VersionRange) {
-      IVersion minimum = yourRange.getMinimum();
-
-      if (!this.contains(minimum)) {
-        return false;
-      }
-
-      IVersion maximum = yourRange.getMaximum();
-      if (maximum != null) {
-        if (!this.contains(maximum)) {
-          return false;
-        }
-      }
-      else {
-        IVersion myMaximum = getMaximum();
-        if (myMaximum != null) {
-          return false;
-        }
-      }
-      return true;
+      return containsEndpoint((VersionRange) yourRange);
     }
 
-    // We should contain both end points of an AndRange
+    // A bounded range is contained if the end on our side is
     else if (yourRange instanceof AndRange) {
       if (yourRange.isSimple()) {
-        IVersion min = yourRange.getMinimum();
-        IVersion max = yourRange.getMaximum();
-        return contains(min) && contains(max);
+        AndRange arange = (AndRange) yourRange;
+        return containsEndpoint((VersionRange) (lower ? arange.first() : arange.last()));
       }
     }
 
@@ -353,17 +368,107 @@ public class VersionRange
     return hasErrors;
   }
 
+  @Override
+  Version getLowerHead() {
+    return isUnbounded() ? version.getVersionImpl() : null;
+  }
+
+  @Override
+  Version getUpperHead() {
+    return isUnbounded() ? null : version.getVersionImpl();
+  }
+
+  public String getOperator() {
+    return operator;
+  }
+
+  SemanticVersion getVersion() {
+    return version;
+  }
+
+  /**
+   * Check whether two simple ranges overlap by comparing their endpoints. Versions
+   * are treated as dense, so there is room between >1.2.6 and <1.2.7 for micro or
+   * snapshot versions, while >1.2.6 and <=1.2.6 do not meet.
+   */
+  private static boolean endpointsIntersect(VersionRange range1, VersionRange range2) {
+    if (range1.lower == range2.lower) {
+      // Both go to the same infinity
+      return true;
+    }
+    VersionRange from = range1.lower ? range1 : range2;
+    VersionRange to = range1.lower ? range2 : range1;
+    int cmp = compareEndpoints(from, to);
+    return cmp < 0 || (cmp == 0 && from.inclusive && to.inclusive);
+  }
+
+  /**
+   * Check whether a simple range running the same way as ours lies within it.
+   */
+  private boolean containsEndpoint(VersionRange range) {
+    if (range.lower != lower) {
+      return false;
+    }
+    int cmp = compareEndpoints(this, range);
+    if (cmp == 0) {
+      return inclusive || !range.inclusive;
+    }
+    return lower ? cmp < 0 : cmp > 0;
+  }
+
+  /**
+   * Order endpoints by version. A plain semantic version sorts like an extended
+   * version with a zero build number.
+   */
+  static int compareEndpoints(VersionRange range1, VersionRange range2) {
+    int cmp = range1.head.compareTo(range2.head);
+    if (cmp != 0) {
+      return cmp;
+    }
+    return range1.build < range2.build ? -1 : (range1.build == range2.build ? 0 : 1);
+  }
+
+  boolean isInclusive() {
+    return inclusive;
+  }
+
   /**
    * An unbounded range goes to infinity
    */
   public boolean isUnbounded() {
-    switch (operator) {
-      case ">":
-      case ">=":
-        return true;
-      default:
-        return false;
+    return lower;
+  }
+
+  /**
+   * Only semantic versions can match, and over those the result of contains is monotonic,
+   * so a binary search finds the boundary.
+   */
+  @Override
+  int[] toOrdinals(IVersion[] sorted, int size, int semanticSize) {
+    if (isUnbounded()) {
+      return Ordinals.interval(Ordinals.search(this, sorted, 0, semanticSize, true), semanticSize);
+    }
+    return Ordinals.interval(0, Ordinals.search(this, sorted, 0, semanticSize, false));
+  }
+
+  @Override
+  long[] toKeys(RangeCompiler compiler) {
+    long key = compiler.boundKey(version);
+    return key < 0 ? null : RangeCompiler.compare(operator, key);
+  }
+
+  /**
+   * A single comparison per version is cheaper than sorting them first.
+   */
+  @Override
+  BitSet containsAllUnsorted(IVersion[] versions) {
+    BitSet results = new BitSet(versions.length);
+    for (int i = 0; i < versions.length; i++) {
+      if (contains(versions[i])) {
+        results.set(i);
+      }
     }
+    return results;
   }
 
   /*
@@ -26,11 +26,15 @@
  */
 package net.ossindex.version.impl;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import com.github.zafarkhaja.semver.Version;
 import net.ossindex.version.IVersion;
 import net.ossindex.version.IVersionRange;
 
@@ -49,19 +53,32 @@ public class VersionSet
   private boolean hasErrors = false;
 
   /**
-   * Used for both atomic and simple versions
+   * Used for both atomic and simple versions. Null for subclasses that keep
+   * their versions themselves.
    */
-  private SortedSet<IVersion> set = new TreeSet<IVersion>();
+  private final SortedSet<IVersion> set;
 
   public VersionSet()
   {
+    this.set = new TreeSet<IVersion>();
   }
 
   public VersionSet(IVersion version)
   {
+    this();
     set.add(version);
   }
 
+  /**
+   * For subclasses that keep their versions themselves, and override every
+   * method that uses the set: contains, getMinimum, getMaximum, add, iterator,
+   * getVersions, size and toSortedArray.
+   */
+  VersionSet(SortedSet<IVersion> set)
+  {
+    this.set = set;
+  }
+
   /*
    * (non-Javadoc)
    * @see net.ossindex.version.IVersionRange#contains(net.ossindex.version.IVersion)
@@ -117,6 +134,45 @@ public class VersionSet
     return set.last();
   }
 
+  /**
+   * Sets are equal when they hold the same versions.
+   */
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof VersionSet)) {
+      return false;
+    }
+    VersionSet range = (VersionSet) o;
+    if (size() != range.size()) {
+      return false;
+    }
+    IVersion[] versions1 = toSortedArray();
+    IVersion[] versions2 = range.toSortedArray();
+    for (int i = 0; i < versions1.length; i++) {
+      if (!sameVersion(versions1[i], versions2[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Independent of the order the versions are kept in
+   */
+  @Override
+  public int hashCode()
+  {
+    int h = 0;
+    for (IVersion version : this) {
+      h += versionHash(version);
+    }
+    return h;
+  }
+
   /*
    * (non-Javadoc)
    * @see java.lang.Object#toString()
@@ -125,7 +181,7 @@ public class VersionSet
   public String toString()
   {
     StringBuffer sb = new StringBuffer();
-    for (Iterator<IVersion> it = set.iterator(); it.hasNext(); ) {
+    for (Iterator<IVersion> it = iterator(); it.hasNext(); ) {
       IVersion version = it.next();
       sb.append(version);
       if (it.hasNext()) {
@@ -139,7 +195,7 @@ public class VersionSet
   public String toMavenString()
   {
     StringBuffer sb = new StringBuffer();
-    for (Iterator<IVersion> it = set.iterator(); it.hasNext(); ) {
+    for (Iterator<IVersion> it = iterator(); it.hasNext(); ) {
       IVersion version = it.next();
       sb.append("[" + version + "]");
       if (it.hasNext()) {
@@ -166,7 +222,7 @@ public class VersionSet
   public boolean intersects(IVersionRange yourRange)
   {
     // The set has explicit versions, so just check these against the supplied range
-    for (IVersion version : set) {
+    for (IVersion version : this) {
       if (yourRange.contains(version)) {
         return true;
       }
@@ -184,40 +240,15 @@ public class VersionSet
     return set.iterator();
   }
 
-  /** Get the max range, the min range, and then return a range based on those
-   * values. *UNLESS* there are only a limited number of ranges here, in which case
-   * return them all.
+  /**
+   * A set is already as simple as it gets. Replacing its versions with the range
+   * between the lowest and highest would also match versions that are not listed.
    *
    * @see net.ossindex.version.IVersionRange#getSimplifiedRange()
    */
   @Override
   public IVersionRange getSimplifiedRange() {
-    if (set.size() < 5) {
-      return this;
-    }
-    IVersion max = null;
-    IVersion min = null;
-
-    for (IVersion v : set) {
-      if (max == null) {
-        max = v;
-      }
-      else {
-        if (v.compareTo(max) > 0) {
-          max = v;
-        }
-      }
-      if (min == null) {
-        min = v;
-      }
-      else {
-        if (v.compareTo(min) < 0) {
-          min = v;
-        }
-      }
-    }
-
-    return new BoundedVersionRange(min, max);
+    return this;
   }
 
   public String getType() {
@@ -236,7 +267,126 @@ public class VersionSet
     return hasErrors;
   }
 
+  /**
+   * Look up each member of the set with a binary search, then ask contains about
+   * every version with the same head. The set matches by natural order, in which a
+   * plain version can equal an extended version of its head, so VersionComparator
+   * equality alone would miss some matches and add others.
+   *
+   * Versions of other kinds compare by type specific keys or by string, which
+   * VersionComparator does not follow, so they are checked one by one.
+   */
+  @Override
+  int[] toOrdinals(IVersion[] sorted, int size, int semanticSize) {
+    if (size() == 0) {
+      return Ordinals.EMPTY;
+    }
+    int[] nonSemantic = Ordinals.scan(this, sorted, semanticSize, size);
+    int[] indexes = new int[8];
+    int count = 0;
+    for (IVersion version : this) {
+      if (!VersionComparator.isSemantic(version)) {
+        // Matches semantic versions by string, anywhere in the semantic order
+        return Ordinals.or(Ordinals.scan(this, sorted, 0, semanticSize), nonSemantic);
+      }
+      Version head = ((SemanticVersion) version).getVersionImpl();
+      int index = Ordinals.lowerBound(sorted, 0, semanticSize, version);
+      while (index > 0 && sameHead(sorted[index - 1], head)) {
+        index--;
+      }
+      for (; index < semanticSize && sameHead(sorted[index], head); index++) {
+        if (contains(sorted[index])) {
+          if (count == indexes.length) {
+            indexes = Arrays.copyOf(indexes, count * 2);
+          }
+          indexes[count++] = index;
+        }
+      }
+    }
+    Arrays.sort(indexes, 0, count);
+    return Ordinals.or(Ordinals.fromIndexes(indexes, count), nonSemantic);
+  }
+
+  private static boolean sameHead(IVersion version, Version head) {
+    return ((SemanticVersion) version).getVersionImpl().compareTo(head) == 0;
+  }
+
+  @Override
+  long[] toKeys(RangeCompiler compiler) {
+    long[] keys = new long[size()];
+    int count = 0;
+    for (IVersion version : this) {
+      long key = compiler.boundKey(version);
+      if (key < 0) {
+        return null;
+      }
+      keys[count++] = key;
+    }
+    Arrays.sort(keys);
+    return RangeCompiler.points(keys, count);
+  }
+
+  @Override
+  Version getLowerHead() {
+    Version lower = null;
+    for (IVersion version : this) {
+      Version head = version instanceof SemanticVersion ? ((SemanticVersion) version).getVersionImpl() : null;
+      if (head == null) {
+        return null;
+      }
+      if (lower == null || head.compareTo(lower) < 0) {
+        lower = head;
+      }
+    }
+    return lower;
+  }
+
+  @Override
+  Version getUpperHead() {
+    Version upper = null;
+    for (IVersion version : this) {
+      Version head = version instanceof SemanticVersion ? ((SemanticVersion) version).getVersionImpl() : null;
+      if (head == null) {
+        return null;
+      }
+      if (upper == null || head.compareTo(upper) > 0) {
+        upper = head;
+      }
+    }
+    return upper;
+  }
+
+  /**
+   * Look each version up directly, which is cheaper than sorting them.
+   */
+  @Override
+  BitSet containsAllUnsorted(IVersion[] versions) {
+    BitSet results = new BitSet(versions.length);
+    for (int i = 0; i < versions.length; i++) {
+      if (contains(versions[i])) {
+        results.set(i);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * A read only view of the versions.
+   */
   public Collection<IVersion> getVersions() {
-    return set;
+    return Collections.unmodifiableCollection(set);
+  }
+
+  public int size() {
+    return set.size();
+  }
+
+  /**
+   * The versions in VersionComparator order
+   */
+  IVersion[] toSortedArray() {
+    IVersion[] versions = set.toArray(new IVersion[set.size()]);
+    Arrays.sort(versions, VersionComparator.INSTANCE);
+    return versions;
   }
 }
@@ -0,0 +1,53 @@
+package net.ossindex.version;
+
+import net.ossindex.version.impl.AdaptiveAndRange;
+import net.ossindex.version.impl.AdaptiveOrRange;
+import net.ossindex.version.impl.AdaptiveRanges;
+import net.ossindex.version.impl.SemanticVersion;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test ranges that reorder their children based on how often they match
+ */
+public class AdaptiveRangeTests
+{
+  @Test
+  public void testSameResults() throws InvalidRangeException {
+    IVersionRange range = VersionFactory.getVersionFactory().getRange("1.0.0 | >=2.0.0 <3.0.0 | >=5.0.0 <6.0.0 | >8.0.0");
+    IVersionRange adaptive = AdaptiveRanges.copyOf(range);
+    assertEquals(range, adaptive);
+    for (int i = 0; i < 20000; i++) {
+      IVersion version = new SemanticVersion(i % 10, (i / 10) % 3, 0);
+      assertEquals(version.toString(), range.contains(version), adaptive.contains(version));
+    }
+  }
+
+  @Test
+  public void testOrReordered() throws InvalidRangeException {
+    IVersionRange range = VersionFactory.getVersionFactory().getRange("1.0.0 | >=2.0.0 <3.0.0 | >=5.0.0 <6.0.0");
+    AdaptiveOrRange adaptive = (AdaptiveOrRange) AdaptiveRanges.copyOf(range);
+    IVersion version = new SemanticVersion(5, 5, 0);
+    for (int i = 0; i < 100000; i++) {
+      assertTrue(adaptive.contains(version));
+    }
+    assertTrue(adaptive.getSamples() > 0);
+    assertEquals(">=5.0.0 <6.0.0", adaptive.getEvaluationOrder().get(0).toString());
+  }
+
+  @Test
+  public void testAndReordered() throws InvalidRangeException {
+    IVersionRange range = VersionFactory.getVersionFactory().getRange(">=1.0.0 <2.0.0");
+    AdaptiveAndRange adaptive = (AdaptiveAndRange) AdaptiveRanges.copyOf(range);
+    assertFalse(adaptive.isSwapped());
+    IVersion version = new SemanticVersion(3, 0, 0);
+    for (int i = 0; i < 100000; i++) {
+      assertFalse(adaptive.contains(version));
+    }
+    assertTrue(adaptive.isSwapped());
+    assertEquals(0, adaptive.getRejects()[0]);
+  }
+}
@@ -0,0 +1,60 @@
+package net.ossindex.version;
+
+import net.ossindex.version.impl.AndRange;
+import net.ossindex.version.impl.SemanticVersion;
+import net.ossindex.version.impl.VersionRange;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test checking that anded ranges intersect, and skipping the check for trusted data
+ */
+public class AndRangeValidationTests
+{
+  @Test
+  public void testEndpoints() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getVersionFactory();
+    String[] valid = {">1.2.6 <1.2.7", ">=1.0.0 <=1.0.0", ">=1.0.0 <1.0.1", ">1.0.0 <=1.0.1", "[1.0,2.0)", "~>1.2.3",
+        "^0.0.3", ">1.2.3 <1.2.3.1", ">=1.0.0 >2.0.0"};
+    for (String r : valid) {
+      assertNotNull(r, factory.getRange(r));
+    }
+    String[] invalid = {">1.0.0 <1.0.0", ">=1.0.0 <1.0.0", ">1.0.0 <=1.0.0", ">=2.0.0 <=1.0.0"};
+    for (String r : invalid) {
+      try {
+        factory.getRange(r);
+        fail(r);
+      }
+      catch (InvalidRangeException e) {
+        // Expected
+      }
+    }
+  }
+
+  @Test
+  public void testTrusted() throws InvalidRangeException {
+    IVersionRange range = VersionFactory.getTrustedVersionFactory().getRange(">2.0.0 <1.0.0 | >=3.0.0 <4.0.0");
+    assertFalse(range.contains(new SemanticVersion(1, 5, 0)));
+    assertTrue(range.contains(new SemanticVersion(3, 5, 0)));
+    try {
+      AndRange.validate(range);
+      fail();
+    }
+    catch (InvalidRangeRuntimeException e) {
+      // Expected
+    }
+    AndRange.validate(VersionFactory.getTrustedVersionFactory().getRange(">=3.0.0 <4.0.0"));
+  }
+
+  @Test
+  public void testUnchecked() {
+    VersionRange from = new VersionRange(">", new SemanticVersion(2, 0, 0));
+    VersionRange to = new VersionRange("<", new SemanticVersion(1, 0, 0));
+    AndRange range = new AndRange(from, to, false);
+    assertFalse(range.contains(new SemanticVersion(1, 5, 0)));
+  }
+}
@@ -0,0 +1,107 @@
+package net.ossindex.version;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import net.ossindex.version.impl.BatchMatcher;
+import net.ossindex.version.impl.SemanticVersion;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Test bulk matching of versions against ranges
+ */
+public class BatchMatcherTests
+{
+  @Test
+  public void testSinglePackage() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getVersionFactory();
+    List<IVersion> versions = new ArrayList<IVersion>();
+    for (String v : new String[]{"1.2.3", "1.0.0", "2.0.0", "1.2.3", "foo"}) {
+      versions.add(factory.getVersion(v));
+    }
+    List<IVersionRange> ranges = new ArrayList<IVersionRange>();
+    for (String r : new String[]{"<1.5.0", ">=2.0.0", "foo", "3.0.0"}) {
+      ranges.add(factory.getRange(r));
+    }
+
+    Set<String> matches = new HashSet<String>();
+    for (BatchMatcher.Match match : BatchMatcher.match(versions, ranges)) {
+      matches.add(match.getVersionIndex() + ":" + match.getRangeIndex());
+    }
+    assertEquals(naive(versions, ranges), matches);
+    assertEquals(5, matches.size());
+  }
+
+  @Test
+  public void testManyPackages() throws InvalidRangeException {
+    Random random = new Random(7);
+    Map<String, List<IVersion>> versions = new HashMap<String, List<IVersion>>();
+    Map<String, List<IVersionRange>> ranges = new HashMap<String, List<IVersionRange>>();
+    for (int p = 0; p < 30; p++) {
+      List<IVersion> vlist = new ArrayList<IVersion>();
+      for (int i = 0; i < 40; i++) {
+        vlist.add(new SemanticVersion(random.nextInt(3), random.nextInt(10), random.nextInt(10)));
+      }
+      List<IVersionRange> rlist = new ArrayList<IVersionRange>();
+      for (int i = 0; i < 10; i++) {
+        int major = random.nextInt(3);
+        int minor = random.nextInt(10);
+        rlist.add(VersionFactory.getVersionFactory().getRange(
+            ">" + major + "." + minor + ".2 <=" + (major + 1) + ".0.0 | " + major + ".0.1"));
+      }
+      versions.put("p" + p, vlist);
+      ranges.put("p" + p, rlist);
+    }
+    // A package with no advisories
+    versions.put("clean", versions.get("p0"));
+
+    Map<String, List<BatchMatcher.Match>> results;
+    try (BatchMatcher matcher = new BatchMatcher()) {
+      results = matcher.match(versions, ranges);
+    }
+    assertFalse(results.containsKey("clean"));
+    for (String pkg : ranges.keySet()) {
+      Set<String> matches = new HashSet<String>();
+      if (results.containsKey(pkg)) {
+        for (BatchMatcher.Match match : results.get(pkg)) {
+          matches.add(match.getVersionIndex() + ":" + match.getRangeIndex());
+        }
+      }
+      assertEquals(naive(versions.get(pkg), ranges.get(pkg)), matches);
+    }
+  }
+
+  @Test
+  public void testExtendedCorpus() throws InvalidRangeException {
+    List<IVersion> versions = ExtendedCorpus.versions(new Random(10), 100);
+    List<IVersionRange> ranges = new ArrayList<IVersionRange>();
+    for (String r : ExtendedCorpus.ranges(new Random(11), 50)) {
+      ranges.add(VersionFactory.getVersionFactory().getRange(r));
+    }
+    Set<String> matches = new HashSet<String>();
+    for (BatchMatcher.Match match : BatchMatcher.match(versions, ranges)) {
+      matches.add(match.getVersionIndex() + ":" + match.getRangeIndex());
+    }
+    assertEquals(naive(versions, ranges), matches);
+  }
+
+  private Set<String> naive(List<IVersion> versions, List<IVersionRange> ranges) {
+    Set<String> matches = new HashSet<String>();
+    for (int r = 0; r < ranges.size(); r++) {
+      for (int v = 0; v < versions.size(); v++) {
+        if (ranges.get(r).contains(versions.get(v))) {
+          matches.add(v + ":" + r);
+        }
+      }
+    }
+    return matches;
+  }
+}
@@ -0,0 +1,123 @@
+package net.ossindex.version;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import net.ossindex.version.impl.RangeBitmap;
+import net.ossindex.version.impl.SemanticVersion;
+import net.ossindex.version.impl.VersionCatalog;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test compressed bitmaps of catalog ordinals
+ */
+public class BitmapTests
+{
+  private VersionCatalog createCatalog() {
+    List<IVersion> versions = new ArrayList<IVersion>();
+    for (int major = 0; major < 3; major++) {
+      for (int minor = 0; minor < 10; minor++) {
+        for (int patch = 0; patch < 10; patch++) {
+          versions.add(new SemanticVersion(major, minor, patch));
+        }
+      }
+    }
+    return new VersionCatalog(versions);
+  }
+
+  private RangeBitmap bitmap(VersionCatalog catalog, String range) throws InvalidRangeException {
+    return catalog.toBitmap(VersionFactory.getVersionFactory().getRange(range));
+  }
+
+  @Test
+  public void testBitmapMatchesRange() throws InvalidRangeException {
+    VersionCatalog catalog = createCatalog();
+    IVersionRange range = VersionFactory.getVersionFactory().getRange(">=1.2.0 <1.5.3 | 2.0.1,2.0.5 | >2.9.7");
+    RangeBitmap bitmap = catalog.toBitmap(range);
+    int count = 0;
+    for (int i = 0; i < catalog.size(); i++) {
+      assertEquals(range.contains(catalog.get(i)), bitmap.contains(i));
+      if (range.contains(catalog.get(i))) {
+        count++;
+      }
+    }
+    assertEquals(count, bitmap.cardinality());
+  }
+
+  @Test
+  public void testSetOperations() throws InvalidRangeException {
+    VersionCatalog catalog = createCatalog();
+    RangeBitmap a = bitmap(catalog, ">=1.0.0 <2.0.0");
+    RangeBitmap b = bitmap(catalog, ">=1.5.0 <2.5.0");
+
+    assertEquals(50, a.and(b).cardinality());
+    assertEquals(150, a.or(b).cardinality());
+    assertEquals(50, a.andNot(b).cardinality());
+
+    RangeBitmap clean = RangeBitmap.range(0, catalog.size()).andNot(a.or(b));
+    assertEquals(150, clean.cardinality());
+    assertTrue(clean.contains(catalog.getOrdinal(new SemanticVersion(0, 9, 9))));
+    assertFalse(clean.contains(catalog.getOrdinal(new SemanticVersion(1, 9, 9))));
+    assertTrue(a.and(bitmap(catalog, "<0.5.0")).isEmpty());
+  }
+
+  /**
+   * Compare against BitSet for random sets that push the containers through every
+   * representation, including chunks beyond the first 65536 ordinals.
+   */
+  @Test
+  public void testAgainstBitSet() {
+    Random random = new Random(42);
+    for (int round = 0; round < 20; round++) {
+      BitSet s1 = randomSet(random);
+      BitSet s2 = randomSet(random);
+      RangeBitmap b1 = fromBitSet(s1);
+      RangeBitmap b2 = fromBitSet(s2);
+      assertEquals(s1, b1.toBitSet());
+
+      BitSet expected = (BitSet) s1.clone();
+      expected.and(s2);
+      assertEquals(expected, b1.and(b2).toBitSet());
+
+      expected = (BitSet) s1.clone();
+      expected.or(s2);
+      assertEquals(expected, b1.or(b2).toBitSet());
+      assertEquals(expected.cardinality(), b1.or(b2).cardinality());
+
+      expected = (BitSet) s1.clone();
+      expected.andNot(s2);
+      assertEquals(expected, b1.andNot(b2).toBitSet());
+    }
+  }
+
+  private BitSet randomSet(Random random) {
+    BitSet bits = new BitSet();
+    int runs = random.nextInt(200);
+    for (int i = 0; i < runs; i++) {
+      int start = random.nextInt(150000);
+      int length = random.nextBoolean() ? 1 : random.nextInt(5000);
+      bits.set(start, start + length);
+    }
+    for (int i = 0; i < random.nextInt(6000); i++) {
+      bits.set(random.nextInt(150000));
+    }
+    return bits;
+  }
+
+  private RangeBitmap fromBitSet(BitSet bits) {
+    RangeBitmap result = RangeBitmap.empty();
+    int start = bits.nextSetBit(0);
+    while (start >= 0) {
+      int end = bits.nextClearBit(start);
+      result = result.or(RangeBitmap.range(start, end));
+      start = bits.nextSetBit(end);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,144 @@
+package net.ossindex.version;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import net.ossindex.version.impl.OrdinalRange;
+import net.ossindex.version.impl.RangeBitmap;
+import net.ossindex.version.impl.VersionCatalog;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test ordinal ranks of versions and ranges
+ */
+public class CatalogTests
+{
+  private static final String[] VERSIONS = {
+      "2.0.0", "1.0.0", "1.2.5", "1.2.6", "1.2.7", "0.9.0", "1.5.0-beta", "1.5.0", "3.1.4", "1.2.6.1", "foo"
+  };
+
+  private static final String[] RANGES = {
+      "<1.2.5", "<=1.2.6", ">1.2.6", ">=1.5.0", ">1.0.0 <2.0.0", "[1.2.5,1.5.0)", "1.2.6,3.1.4,foo",
+      "<1.0.0 | >2.0.0", "^1.2.5", "~> 1.2.5", "1.2.6,1.2.7 | >=3.0.0"
+  };
+
+  private List<IVersion> parse(String... versions) throws InvalidRangeException {
+    List<IVersion> results = new ArrayList<IVersion>();
+    for (String version : versions) {
+      results.add(VersionFactory.getVersionFactory().getVersion(version));
+    }
+    return results;
+  }
+
+  private List<IVersionRange> parseRanges() throws InvalidRangeException {
+    List<IVersionRange> results = new ArrayList<IVersionRange>();
+    for (String range : RANGES) {
+      results.add(VersionFactory.getVersionFactory().getRange(range));
+    }
+    return results;
+  }
+
+  @Test
+  public void testOrdinalsAreSorted() throws InvalidRangeException {
+    VersionCatalog catalog = new VersionCatalog(parse(VERSIONS));
+    assertEquals(VERSIONS.length, catalog.size());
+    assertEquals("0.9.0", catalog.get(0).toString());
+    assertEquals("foo", catalog.get(catalog.size() - 1).toString());
+    for (int i = 0; i < catalog.size(); i++) {
+      assertEquals(i, catalog.getOrdinal(catalog.get(i)));
+    }
+    assertEquals(-1, catalog.getOrdinal(VersionFactory.getVersionFactory().getVersion("7.7.7")));
+  }
+
+  @Test
+  public void testCompiledRangesMatchContains() throws InvalidRangeException {
+    List<IVersion> versions = parse(VERSIONS);
+    VersionCatalog catalog = new VersionCatalog(versions);
+    for (IVersionRange range : parseRanges()) {
+      OrdinalRange ordinals = catalog.compile(range);
+      for (int i = 0; i < catalog.size(); i++) {
+        assertEquals(range + " on " + catalog.get(i), range.contains(catalog.get(i)), ordinals.contains(i));
+      }
+    }
+  }
+
+  /**
+   * Plain and extended versions with the same head, where the natural order
+   * used by contains and the catalog order disagree about equality.
+   */
+  @Test
+  public void testExtendedCorpus() throws InvalidRangeException {
+    VersionCatalog catalog = new VersionCatalog(ExtendedCorpus.versions(new Random(8), 200));
+    for (String r : ExtendedCorpus.ranges(new Random(9), 100)) {
+      IVersionRange range = VersionFactory.getVersionFactory().getRange(r);
+      OrdinalRange ordinals = catalog.compile(range);
+      RangeBitmap bitmap = catalog.toBitmap(range);
+      for (int i = 0; i < catalog.size(); i++) {
+        assertEquals(range + " on " + catalog.get(i), range.contains(catalog.get(i)), ordinals.contains(i));
+        assertEquals(range + " on " + catalog.get(i), range.contains(catalog.get(i)), bitmap.contains(i));
+      }
+    }
+  }
+
+  @Test
+  public void testSimpleRangeIsOneInterval() throws InvalidRangeException {
+    VersionCatalog catalog = new VersionCatalog(parse(VERSIONS));
+    OrdinalRange range = catalog.compile(VersionFactory.getVersionFactory().getRange(">1.0.0 <2.0.0"));
+    assertEquals(2, range.getIntervals().length);
+    assertEquals(6, range.cardinality());
+  }
+
+  @Test
+  public void testMatchMatrix() throws InvalidRangeException {
+    List<IVersion> versions = parse(VERSIONS);
+    VersionCatalog catalog = new VersionCatalog(versions);
+    List<IVersionRange> ranges = parseRanges();
+    List<OrdinalRange> compiled = catalog.compile(ranges);
+    int[] ordinals = catalog.getOrdinals(versions);
+
+    BitSet[] matrix = catalog.matchMatrix(compiled, ordinals);
+    assertEquals(ranges.size(), matrix.length);
+    for (int r = 0; r < ranges.size(); r++) {
+      for (int v = 0; v < versions.size(); v++) {
+        assertEquals(ranges.get(r) + " on " + versions.get(v), ranges.get(r).contains(versions.get(v)), matrix[r].get(v));
+      }
+    }
+  }
+
+  @Test
+  public void testIncrementalUpdates() throws InvalidRangeException {
+    VersionCatalog catalog = new VersionCatalog(parse(VERSIONS));
+    List<IVersionRange> ranges = parseRanges();
+    List<OrdinalRange> compiled = catalog.compile(ranges);
+
+    // A new release at the top, and a few in the middle
+    for (IVersion version : parse("4.0.0", "1.2.8", "0.1.0", "1.9.9", "bar")) {
+      catalog.add(version);
+    }
+    assertEquals(VERSIONS.length + 5, catalog.size());
+
+    VersionCatalog fresh = new VersionCatalog(catalog.getVersions());
+    for (int r = 0; r < ranges.size(); r++) {
+      OrdinalRange updated = compiled.get(r);
+      for (int i = 0; i < catalog.size(); i++) {
+        assertEquals(ranges.get(r) + " on " + catalog.get(i), ranges.get(r).contains(catalog.get(i)), updated.contains(i));
+      }
+      assertArrayEquals(fresh.compile(ranges.get(r)).getIntervals(), updated.getIntervals());
+    }
+  }
+
+  @Test
+  public void testVersionsOutsideCatalog() throws InvalidRangeException {
+    VersionCatalog catalog = new VersionCatalog(parse(VERSIONS));
+    OrdinalRange range = catalog.compile(VersionFactory.getVersionFactory().getRange("<1.2.5"));
+    assertTrue(range.contains(VersionFactory.getVersionFactory().getVersion("0.0.1")));
+    assertFalse(range.contains(VersionFactory.getVersionFactory().getVersion("9.0.0")));
+  }
+}
@@ -0,0 +1,76 @@
+package net.ossindex.version;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.ossindex.version.impl.CompiledRange;
+import net.ossindex.version.impl.RangeCompiler;
+import net.ossindex.version.impl.SemanticVersion;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test compiling ranges into key intervals
+ */
+public class CompilerTests
+{
+  private static final String[] RANGES = {
+      "<1.2.5", "<=1.2.6", ">1.2.6", ">=1.5.0", ">1.0.0 <2.0.0", "[1.2.5,1.5.0)", "1.2.6,3.1.4",
+      "<1.0.0 | >2.0.0", "^1.2.5", "~> 1.2.5", "1.2.6,1.2.7 | >=3.0.0", ">=1.5.0-beta <1.5.0",
+      "1.2.6,3.1.4,foo", "<1.2.6.1", "[1.2,1.3)", "0.0.0"
+  };
+
+  private List<IVersion> versions() throws InvalidRangeException {
+    List<IVersion> results = new ArrayList<IVersion>();
+    for (String v : new String[]{"0.0.0", "2.0.0", "1.0.0", "1.2.5", "1.2.6", "1.2.7", "0.9.0", "1.5.0-beta",
+        "1.5.0-alpha", "1.5.0-rc.1", "1.5.0", "3.1.4", "1.2.6.1", "1.2.6.0", "foo", "1.2.6+build", "1.2.6-pre"}) {
+      results.add(VersionFactory.getVersionFactory().getVersion(v));
+    }
+    Random random = new Random(11);
+    for (int i = 0; i < 200; i++) {
+      results.add(new SemanticVersion(random.nextInt(4), random.nextInt(8), random.nextInt(8)));
+    }
+    return results;
+  }
+
+  @Test
+  public void testMatchesInterpreted() throws InvalidRangeException {
+    List<IVersion> versions = versions();
+    for (String r : RANGES) {
+      IVersionRange range = VersionFactory.getVersionFactory().getRange(r);
+      CompiledRange compiled = RangeCompiler.compile(range);
+      for (IVersion version : versions) {
+        assertEquals(r + " on " + version, range.contains(version), compiled.contains(version));
+      }
+    }
+  }
+
+  @Test
+  public void testLongUnion() throws InvalidRangeException {
+    List<String> ranges = new ArrayList<String>();
+    for (int i = 0; i < 20; i++) {
+      ranges.add(">=" + i + ".1.0 <" + i + ".2.0");
+    }
+    IVersionRange range = VersionFactory.getVersionFactory().getRange(ranges.toArray(new String[ranges.size()]));
+    CompiledRange compiled = RangeCompiler.compile(range);
+    assertTrue(compiled.isCompiled());
+    for (int major = 0; major < 22; major++) {
+      for (int minor = 0; minor < 3; minor++) {
+        IVersion version = new SemanticVersion(major, minor, 5);
+        assertEquals(version.toString(), range.contains(version), compiled.contains(version));
+      }
+    }
+  }
+
+  @Test
+  public void testFallback() throws InvalidRangeException {
+    assertTrue(RangeCompiler.compile(VersionFactory.getVersionFactory().getRange(">1.0.0 <2.0.0")).isCompiled());
+    CompiledRange compiled = RangeCompiler.compile(VersionFactory.getVersionFactory().getRange("1.2.6,foo"));
+    assertFalse(compiled.isCompiled());
+    assertTrue(compiled.contains(VersionFactory.getVersionFactory().getVersion("foo")));
+  }
+}
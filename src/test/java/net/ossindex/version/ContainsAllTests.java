@@ -0,0 +1,97 @@
+package net.ossindex.version;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import net.ossindex.version.impl.ImmutableRanges;
+import net.ossindex.version.impl.SemanticVersion;
+import net.ossindex.version.impl.VersionComparator;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test checking many versions against a range at once
+ */
+public class ContainsAllTests
+{
+  private static final String[] RANGES = {
+      "<1.2.5", ">=1.5.0", ">1.0.0 <2.0.0", "[1.2.5,1.5.0)", "1.2.6,3.1.4,foo", "<1.0.0 | >2.0.0",
+      "^1.2.5", "1.2.6,1.2.7 | >=3.0.0", "foo"
+  };
+
+  private List<IVersion> versions() throws InvalidRangeException {
+    List<IVersion> results = new ArrayList<IVersion>();
+    for (String v : new String[]{"2.0.0", "1.0.0", "1.2.5", "1.2.6", "1.2.7", "0.9.0", "1.5.0-beta", "1.5.0",
+        "3.1.4", "1.2.6.1", "foo", "1.2.6", "bar"}) {
+      results.add(VersionFactory.getVersionFactory().getVersion(v));
+    }
+    Random random = new Random(3);
+    for (int i = 0; i < 50; i++) {
+      results.add(new SemanticVersion(random.nextInt(4), random.nextInt(8), random.nextInt(8)));
+    }
+    return results;
+  }
+
+  private void check(IVersionRange range, List<IVersion> versions) {
+    BitSet expected = new BitSet();
+    for (int i = 0; i < versions.size(); i++) {
+      if (range.contains(versions.get(i))) {
+        expected.set(i);
+      }
+    }
+    assertEquals(range.toString(), expected, range.containsAll(versions));
+    assertEquals(range.toString(), expected, range.containsAll(versions.toArray(new IVersion[versions.size()])));
+  }
+
+  @Test
+  public void testUnsorted() throws InvalidRangeException {
+    List<IVersion> versions = versions();
+    for (String range : RANGES) {
+      check(VersionFactory.getVersionFactory().getRange(range), versions);
+    }
+  }
+
+  @Test
+  public void testSorted() throws InvalidRangeException {
+    List<IVersion> versions = versions();
+    Collections.sort(versions, new Comparator<IVersion>()
+    {
+      @Override
+      public int compare(IVersion v1, IVersion v2) {
+        return VersionComparator.INSTANCE.compare(v1, v2);
+      }
+    });
+    for (String range : RANGES) {
+      check(VersionFactory.getVersionFactory().getRange(range), versions);
+    }
+  }
+
+  /**
+   * Plain and extended versions with the same head, such as "1.0.0", "1.0.0.0"
+   * and "1.0.0.2", in both the versions and the ranges.
+   */
+  @Test
+  public void testExtended() throws InvalidRangeException {
+    List<IVersion> versions = ExtendedCorpus.versions(new Random(5), 300);
+    List<IVersion> sorted = new ArrayList<IVersion>(versions);
+    Collections.sort(sorted, VersionComparator.INSTANCE);
+    for (String r : ExtendedCorpus.ranges(new Random(6), 100)) {
+      IVersionRange range = VersionFactory.getVersionFactory().getRange(r);
+      check(range, versions);
+      check(range, sorted);
+      check(ImmutableRanges.copyOf(range), versions);
+      check(ImmutableRanges.copyOf(range), sorted);
+    }
+  }
+
+  @Test
+  public void testEmpty() throws InvalidRangeException {
+    IVersionRange range = VersionFactory.getVersionFactory().getRange(">1.0.0");
+    assertEquals(new BitSet(), range.containsAll(new IVersion[0]));
+  }
+}
@@ -0,0 +1,95 @@
+package net.ossindex.version;
+
+import net.ossindex.version.impl.DebianVersion;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test Debian versions order the way dpkg orders them
+ */
+public class DebianVersionTests
+{
+  /**
+   * Each version is lower than the next
+   */
+  private static final String[] ORDERED = {
+      "0.9", "1.0~~", "1.0~~a", "1.0~", "1.0~rc1", "1.0", "1.0-1", "1.0-1ubuntu1", "1.0-2", "1.0a", "1.0+",
+      "1.0+b1", "1.0.1", "1.2", "1.10", "9", "10", "1:0.1", "1:0.2-1", "2:0.0"
+  };
+
+  @Test
+  public void testOrder() throws InvalidRangeException {
+    for (int i = 0; i < ORDERED.length; i++) {
+      for (int j = 0; j < ORDERED.length; j++) {
+        int cmp = new DebianVersion(ORDERED[i]).compareTo(new DebianVersion(ORDERED[j]));
+        assertEquals(ORDERED[i] + " " + ORDERED[j], Integer.signum(i - j), Integer.signum(cmp));
+      }
+    }
+  }
+
+  @Test
+  public void testEqual() throws InvalidRangeException {
+    assertEquals(new DebianVersion("1.0"), new DebianVersion("1.00"));
+    assertEquals(new DebianVersion("1.0"), new DebianVersion("1.0-0"));
+    assertEquals(new DebianVersion("1.0"), new DebianVersion("0:1.0"));
+    assertEquals(new DebianVersion("1.0").hashCode(), new DebianVersion("0:1.0").hashCode());
+  }
+
+  @Test
+  public void testParts() throws InvalidRangeException {
+    DebianVersion v = new DebianVersion("1:0.2.4.23-1-deb7u1");
+    assertEquals(1, v.getEpoch());
+    assertEquals("0.2.4.23-1", v.getUpstream());
+    assertEquals("deb7u1", v.getRevision());
+    assertEquals(0, v.getMajor());
+    assertEquals(2, v.getMinor());
+    assertEquals(4, v.getPatch());
+    assertEquals(23, v.getBuild());
+    assertTrue(v.isStable());
+    assertFalse(new DebianVersion("1.0~rc1").isStable());
+    for (String invalid : new String[]{"a:1.0", "1:", "-1", "1.0 2", "5-", "1:2.0-"}) {
+      try {
+        new DebianVersion(invalid);
+        fail(invalid);
+      }
+      catch (InvalidRangeException e) {
+        // Expected
+      }
+    }
+  }
+
+  @Test
+  public void testRanges() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getStrictVersionFactory();
+    IVersionRange range = factory.getRange("deb", "(>= 1.0~rc1), (<< 1:2.0)");
+    assertEquals("deb", range.getType());
+    assertTrue(range.contains(factory.getVersion("debian", "1.0~rc1")));
+    assertTrue(range.contains(factory.getVersion("debian", "1.5-3")));
+    assertTrue(range.contains(factory.getVersion("debian", "1:1.9")));
+    assertFalse(range.contains(factory.getVersion("debian", "1.0~beta")));
+    assertFalse(range.contains(factory.getVersion("debian", "1:2.0")));
+
+    range = factory.getRange("dpkg", "<< 1.0 | >> 2.0");
+    assertTrue(range.contains(factory.getVersion("deb", "0.9")));
+    assertFalse(range.contains(factory.getVersion("deb", "1.5")));
+    assertTrue(range.contains(factory.getVersion("deb", "2.0-1")));
+
+    assertTrue(factory.getRange("deb", "1.0-1").contains(factory.getVersion("deb", "1.0-1")));
+    assertTrue(factory.getRange("deb", "(>= 1.0), (<= 1.0)").contains(factory.getVersion("deb", "1.0")));
+    assertTrue(factory.getRange("deb", "(= 1.0), (>= 1.0)").contains(factory.getVersion("deb", "1.0")));
+    for (String disjoint : new String[]{">> 2.0, << 1.0", "(>> 1.0), (<= 1.0)", "(>= 1.0), (<< 1.0)", "(= 1.0), (>> 1.0)",
+        "(<< 1.0), (= 1.0)", "(= 1.0), (= 2.0)"}) {
+      try {
+        factory.getRange("deb", disjoint);
+        fail(disjoint);
+      }
+      catch (InvalidRangeException e) {
+        // Expected
+      }
+    }
+  }
+}
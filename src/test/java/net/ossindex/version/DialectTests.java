@@ -0,0 +1,134 @@
+package net.ossindex.version;
+
+import java.util.Comparator;
+
+import net.ossindex.version.impl.ImmutableRanges;
+import net.ossindex.version.impl.NamedVersion;
+import net.ossindex.version.impl.VersionComparator;
+import net.ossindex.version.impl.VersionSet;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test routing hinted versions and ranges to registered dialects
+ */
+public class DialectTests
+{
+  /**
+   * Takes every string as a named version, unless it starts with "!"
+   */
+  private static class NamedDialect
+      implements VersionDialect
+  {
+    @Override
+    public String getName() {
+      return "test-named";
+    }
+
+    @Override
+    public IVersion getVersion(String version) throws InvalidRangeException {
+      if (version.startsWith("!")) {
+        throw new InvalidRangeException("Invalid: " + version);
+      }
+      return new NamedVersion(version);
+    }
+
+    @Override
+    public IVersionRange getRange(String range) throws InvalidRangeException {
+      return new VersionSet(getVersion(range));
+    }
+
+    @Override
+    public Comparator<IVersion> getComparator() {
+      return VersionComparator.INSTANCE;
+    }
+  }
+
+  private final VersionDialect dialect = new NamedDialect();
+
+  /**
+   * Dialects are registered for all factories, so do not leave the test one behind
+   */
+  @After
+  public void unregister() {
+    VersionFactory.unregisterDialect(dialect);
+    assertNull(VersionFactory.getDialect("test-named"));
+  }
+
+  @Test
+  public void testRouting() throws InvalidRangeException {
+    VersionFactory.registerDialect(dialect, "Test-Alias");
+    assertSame(dialect, VersionFactory.getDialect("TEST-NAMED"));
+    assertSame(dialect, VersionFactory.getDialect(" test-alias "));
+    assertNull(VersionFactory.getDialect("no-such-dialect"));
+
+    VersionFactory factory = VersionFactory.getVersionFactory();
+    assertTrue(factory.getVersion("test-named", "1.2.3") instanceof NamedVersion);
+    assertTrue(factory.getRange("test-alias", "1.2.3").contains(new NamedVersion("1.2.3")));
+
+    // Unknown hints, and strings the dialect rejects, use the general parser
+    assertEquals(factory.getVersion("1.2.3"), factory.getVersion("no-such-dialect", "1.2.3"));
+    assertEquals(factory.getVersion("1.2.3"), factory.getVersion(null, "1.2.3"));
+    assertEquals(factory.getVersion("!1.2.3"), factory.getVersion("test-named", "!1.2.3"));
+  }
+
+  @Test
+  public void testStrict() throws InvalidRangeException {
+    VersionFactory.registerDialect(dialect);
+    try {
+      VersionFactory.getStrictVersionFactory().getVersion("test-named", "!1.2.3");
+      fail();
+    }
+    catch (InvalidRangeException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testShared() throws InvalidRangeException {
+    VersionFactory.registerDialect(dialect);
+    VersionFactory factory = VersionFactory.getSharedVersionFactory();
+    assertSame(factory.getRange("test-named", "foo"), factory.getRange("test-named", "foo"));
+  }
+
+  /**
+   * Ranges from the built in dialects are immutable in shared mode, down to
+   * their bounds.
+   */
+  @Test
+  public void testSharedImmutable() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getSharedVersionFactory();
+    String[][] ranges = {{"npm", "^1.2.3 || 3.x"}, {"debian", ">= 1.0-1"}, {"rhel", "= 1.0"}, {"pypi", ">=1.0,<2.0"}};
+    for (String[] range : ranges) {
+      IVersionRange result = factory.getRange(range[0], range[1]);
+      assertTrue(range[1], ImmutableRanges.isImmutable(result));
+      try {
+        result.setType("other");
+        fail(range[1]);
+      }
+      catch (UnsupportedOperationException e) {
+        // Expected
+      }
+    }
+    assertFalse(ImmutableRanges.isImmutable(VersionFactory.getVersionFactory().getRange("npm", "^1.2.3")));
+  }
+
+  @Test
+  public void testUnregister() {
+    VersionDialect other = new NamedDialect();
+    VersionFactory.registerDialect(dialect, "test-alias");
+    VersionFactory.registerDialect(other);
+    assertTrue(VersionFactory.unregisterDialect(dialect));
+    assertNull(VersionFactory.getDialect("test-alias"));
+    assertSame(other, VersionFactory.getDialect("test-named"));
+    assertFalse(VersionFactory.unregisterDialect(dialect));
+    assertTrue(VersionFactory.unregisterDialect(other));
+  }
+}
@@ -0,0 +1,59 @@
+package net.ossindex.version;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random versions and ranges that mix plain semantic versions with extended
+ * ones of the same head, which compare equal to each other in some directions
+ * and not in others.
+ */
+public class ExtendedCorpus
+{
+  private static final String[] OPERATORS = {"<", "<=", ">", ">="};
+
+  public static String version(Random random) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(random.nextInt(2)).append('.').append(random.nextInt(3)).append('.').append(random.nextInt(3));
+    if (random.nextBoolean()) {
+      sb.append('.').append(random.nextInt(3));
+    }
+    return sb.toString();
+  }
+
+  public static List<IVersion> versions(Random random, int count) throws InvalidRangeException {
+    List<IVersion> versions = new ArrayList<IVersion>();
+    for (int i = 0; i < count; i++) {
+      versions.add(VersionFactory.getVersionFactory().getVersion(version(random)));
+    }
+    return versions;
+  }
+
+  /**
+   * Version sets, simple ranges, and unions of them
+   */
+  public static List<String> ranges(Random random, int count) {
+    List<String> ranges = new ArrayList<String>();
+    for (int i = 0; i < count; i++) {
+      StringBuilder sb = new StringBuilder();
+      switch (random.nextInt(3)) {
+        case 0:
+          sb.append(version(random));
+          for (int j = random.nextInt(4); j > 0; j--) {
+            sb.append(',').append(version(random));
+          }
+          break;
+        case 1:
+          sb.append(OPERATORS[random.nextInt(OPERATORS.length)]).append(version(random));
+          break;
+        default:
+          sb.append(OPERATORS[random.nextInt(2)]).append(version(random));
+          sb.append(" | ").append(version(random)).append(',').append(version(random));
+          break;
+      }
+      ranges.add(sb.toString());
+    }
+    return ranges;
+  }
+}
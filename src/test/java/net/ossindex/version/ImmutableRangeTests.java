@@ -0,0 +1,121 @@
+package net.ossindex.version;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.ossindex.version.impl.ImmutableRanges;
+import net.ossindex.version.impl.OrRange;
+import net.ossindex.version.impl.SemanticVersion;
+import net.ossindex.version.impl.VersionSet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test the immutable ranges handed out by the shared version factory
+ */
+public class ImmutableRangeTests
+{
+  private static final String[] RANGES = {
+      ">1.0.0", ">=1.0.0 <2.0.0", "1.2.3,1.2.4", "<1.0.0 | >2.0.0", "[1.0,2.0)", "^1.2.3", "foo", ">=1.2.3.4"
+  };
+
+  @Test
+  public void testSameAnswers() throws InvalidRangeException {
+    List<IVersion> versions = new ArrayList<IVersion>();
+    for (String v : new String[]{"0.5.0", "1.0.0", "1.2.3", "1.2.4", "1.5.0", "2.0.0", "3.0.0", "foo", "1.2.3.5"}) {
+      versions.add(VersionFactory.getVersionFactory().getVersion(v));
+    }
+    for (String r : RANGES) {
+      IVersionRange range = VersionFactory.getVersionFactory().getRange(r);
+      IVersionRange shared = VersionFactory.getSharedVersionFactory().getRange(r);
+      assertTrue(r, ImmutableRanges.isImmutable(shared));
+      assertEquals(range.toString(), shared.toString());
+      assertEquals(range.getType(), shared.getType());
+      assertEquals(range.hasErrors(), shared.hasErrors());
+      for (IVersion version : versions) {
+        assertEquals(r + " on " + version, range.contains(version), shared.contains(version));
+      }
+    }
+  }
+
+  @Test
+  public void testSharedResults() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getSharedVersionFactory();
+    assertSame(factory.getRange(">=1.0.0 <2.0.0"), factory.getRange(">=1.0.0 <2.0.0"));
+  }
+
+  @Test
+  public void testCannotChange() throws InvalidRangeException {
+    IVersionRange range = VersionFactory.getSharedVersionFactory().getRange("<1.0.0 | >2.0.0");
+    try {
+      range.setType("maven");
+      fail();
+    }
+    catch (UnsupportedOperationException e) {
+      // Expected
+    }
+    try {
+      ((OrRange) range).add(VersionFactory.getVersionFactory().getRange("1.5.0"));
+      fail();
+    }
+    catch (UnsupportedOperationException e) {
+      // Expected
+    }
+
+    VersionSet set = (VersionSet) VersionFactory.getSharedVersionFactory().getRange("1.2.3,1.2.4");
+    try {
+      set.add(new SemanticVersion(1, 2, 5));
+      fail();
+    }
+    catch (UnsupportedOperationException e) {
+      // Expected
+    }
+    try {
+      set.getVersions().clear();
+      fail();
+    }
+    catch (UnsupportedOperationException e) {
+      // Expected
+    }
+    assertEquals(2, set.getVersions().size());
+  }
+
+  @Test
+  public void testConcurrentUse() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+      for (int t = 0; t < 8; t++) {
+        results.add(executor.submit(new Callable<Integer>()
+        {
+          @Override
+          public Integer call() throws Exception {
+            int count = 0;
+            for (int i = 0; i < 200; i++) {
+              for (String r : RANGES) {
+                if (VersionFactory.getSharedVersionFactory().getRange(r).contains(new SemanticVersion(1, 2, 3))) {
+                  count++;
+                }
+              }
+            }
+            return count;
+          }
+        }));
+      }
+      for (Future<Integer> result : results) {
+        assertEquals(results.get(0).get(), result.get());
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package net.ossindex.version;
+
+import net.ossindex.version.impl.AndRange;
+import net.ossindex.version.impl.OrRange;
+import net.ossindex.version.impl.RangeInterner;
+import net.ossindex.version.impl.SemanticVersion;
+import net.ossindex.version.impl.VersionRange;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test structural equality of ranges and interning of equal subtrees
+ */
+public class InternTests
+{
+  private IVersionRange parse(String range) throws InvalidRangeException {
+    return VersionFactory.getVersionFactory().getRange(range);
+  }
+
+  @Test
+  public void testEquals() throws InvalidRangeException {
+    String[] ranges = {">1.0.0", ">=1.0.0 <2.0.0", "1.2.3,1.2.4", "<1.0.0 | >2.0.0", "foo", ">=1.2.3.4", "[1.0,2.0)"};
+    for (String r : ranges) {
+      assertEquals(r, parse(r), parse(r));
+      assertEquals(r, parse(r).hashCode(), parse(r).hashCode());
+    }
+    assertNotEquals(parse(">1.0.0"), parse(">=1.0.0"));
+    assertNotEquals(parse("1.2.3,1.2.4"), parse("1.2.3"));
+    assertNotEquals(parse(">=1.0.0 <2.0.0"), parse(">=1.0.0 <3.0.0"));
+    assertNotEquals(parse("1.0.0"), parse("1.0.0.0"));
+  }
+
+  @Test
+  public void testUnionOrder() throws InvalidRangeException {
+    IVersionRange r1 = new OrRange(parse("<1.0.0"), parse("<=0.5.0"));
+    IVersionRange r2 = new OrRange(parse("<=0.5.0"), parse("<1.0.0"));
+    assertEquals(r1, r2);
+    assertEquals(r1.hashCode(), r2.hashCode());
+  }
+
+  /**
+   * The constructor only orders semantic bounds, so dialect bounds keep the
+   * order they were written in.
+   */
+  @Test
+  public void testIntersectionOrder() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getStrictVersionFactory();
+    IVersionRange r1 = factory.getRange("deb", "(>= 1.0), (<< 2.0)");
+    IVersionRange r2 = factory.getRange("deb", "(<< 2.0), (>= 1.0)");
+    assertEquals(r1, r2);
+    assertEquals(r1.hashCode(), r2.hashCode());
+    RangeInterner interner = new RangeInterner();
+    assertSame(interner.intern(r1), interner.intern(r2));
+    assertNotEquals(r1, factory.getRange("deb", "(>= 1.0), (<< 3.0)"));
+  }
+
+  @Test
+  public void testSharedSubtrees() throws InvalidRangeException {
+    RangeInterner interner = new RangeInterner();
+    IVersionRange r1 = interner.intern(parse(">=1.0.0 <2.0.0 | >3.0.0"));
+    IVersionRange r2 = interner.intern(parse(">=1.0.0 <2.0.0 | 5.0.0"));
+    IVersionRange a1 = ((OrRange) r1).first();
+    IVersionRange a2 = ((OrRange) r2).first();
+    assertEquals(">=1.0.0 <2.0.0", a1.toString());
+    assertSame(a1, a2);
+    assertSame(((AndRange) a1).first(), interner.intern(new VersionRange(">=", new SemanticVersion(1, 0, 0))));
+    assertSame(r1, interner.intern(parse(">=1.0.0 <2.0.0 | >3.0.0")));
+  }
+
+  @Test
+  public void testMetadataKeptApart() throws InvalidRangeException {
+    RangeInterner interner = new RangeInterner();
+    IVersionRange r1 = parse("1.2.3");
+    IVersionRange r2 = parse("1.2.3");
+    r2.setHasErrors(true);
+    assertNotSame(interner.intern(r1), interner.intern(r2));
+    assertEquals(true, interner.intern(r2).hasErrors());
+  }
+
+  @Test
+  public void testSharedFactory() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getSharedVersionFactory();
+    IVersionRange r1 = factory.getRange("<0.9.0 | >=1.0.0 <2.0.0");
+    IVersionRange r2 = factory.getRange(">=1.0.0 <2.0.0");
+    assertSame(r2, ((OrRange) r1).last());
+  }
+
+  @Test
+  public void testBounded() throws InvalidRangeException {
+    RangeInterner interner = new RangeInterner(2);
+    IVersionRange r1 = interner.intern(parse(">1.0.0"));
+    interner.intern(parse(">2.0.0"));
+    IVersionRange r3 = interner.intern(parse(">3.0.0"));
+    assertEquals(2, interner.size());
+    assertSame(r1, interner.intern(parse(">1.0.0")));
+    assertEquals(r3, interner.intern(parse(">3.0.0")));
+    assertNotSame(r3, interner.intern(parse(">3.0.0")));
+  }
+}
@@ -2,6 +2,7 @@ package net.ossindex.version;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -66,4 +67,28 @@ public class IntersectionTests
     assertTrue(range1.intersects(range2));
   }
 
+  @Test
+  public void testAdjacentBoundaries() throws InvalidRangeException
+  {
+    VersionFactory factory = VersionFactory.getVersionFactory();
+    assertTrue(factory.getRange(">1.2.6").intersects(factory.getRange("<1.2.7")));
+    assertTrue(factory.getRange(">=1.2.6").intersects(factory.getRange("<=1.2.6")));
+    assertFalse(factory.getRange(">1.2.6").intersects(factory.getRange("<=1.2.6")));
+    assertFalse(factory.getRange(">=1.2.6").intersects(factory.getRange("<1.2.6")));
+    assertFalse(factory.getRange(">=1.0.0").intersects(factory.getRange("<1.0.0")));
+    assertTrue(factory.getRange("<1.2.3.1").intersects(factory.getRange(">1.2.3")));
+    assertFalse(factory.getRange("<1.2.3").intersects(factory.getRange(">=1.2.3.1")));
+  }
+
+  @Test
+  public void testRangeContainsRange() throws InvalidRangeException
+  {
+    VersionFactory factory = VersionFactory.getVersionFactory();
+    assertTrue(factory.getRange(">=1.0.0").contains(factory.getRange(">1.0.0")));
+    assertFalse(factory.getRange(">1.0.0").contains(factory.getRange(">=1.0.0")));
+    assertTrue(factory.getRange("<2.0.0").contains(factory.getRange("<=1.9.9")));
+    assertFalse(factory.getRange("<5.0.0").contains(factory.getRange(">2.0.0")));
+    assertTrue(factory.getRange("<2.0.0").contains(factory.getRange(">1.0.0 <2.0.0")));
+    assertFalse(factory.getRange("<2.0.0").contains(factory.getRange(">1.0.0 <=2.0.0")));
+  }
 }
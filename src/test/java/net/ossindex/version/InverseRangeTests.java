@@ -1,10 +1,15 @@
 package net.ossindex.version;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Ignore;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test inverting ranges.
@@ -102,6 +107,32 @@ public class InverseRangeTests
     assertEquals(">1.0.0 <2.0.0 | >3.0.0 <4.0.0 | >5.0.0 <6.0.0", arange.toString());
   }
 
+  @Test
+  public void mergeFragments() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getVersionFactory();
+    List<IVersionRange> fragments = new ArrayList<IVersionRange>();
+    fragments.add(factory.getRange("<4.0.0 | >5.0.0"));
+    fragments.add(factory.getRange("<6.0.0"));
+    fragments.add(factory.getRange(">1.0.0"));
+    fragments.add(factory.getRange("<2.0.0 | >3.0.0"));
+    IVersionRange range = factory.mergeFragments(fragments);
+    assertEquals(">1.0.0 <2.0.0 | >3.0.0 <4.0.0 | >5.0.0 <6.0.0", range.toString());
+
+    // Loose ends at either side, and complete pieces mixed in
+    fragments.clear();
+    fragments.add(factory.getRange(">=7.0.0"));
+    fragments.add(factory.getRange(">=3.0.0 <4.0.0"));
+    fragments.add(factory.getRange("<2.0.0 | >=5.0.0"));
+    fragments.add(factory.getRange("<=5.0.0"));
+    range = factory.mergeFragments(fragments);
+    for (String v : new String[]{"1.0.0", "3.5.0", "5.0.0", "8.0.0"}) {
+      assertTrue(v, range.contains(factory.getVersion(v)));
+    }
+    for (String v : new String[]{"2.5.0", "4.5.0", "6.0.0"}) {
+      assertFalse(v, range.contains(factory.getVersion(v)));
+    }
+  }
+
   @Test
   public void complexInversion() throws InvalidRangeException {
     IVersionRange range1 = VersionFactory.getVersionFactory().getRange("~> 1.9.3.484");
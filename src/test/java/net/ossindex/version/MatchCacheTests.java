@@ -0,0 +1,121 @@
+package net.ossindex.version;
+
+import net.ossindex.version.impl.MatchCache;
+import net.ossindex.version.impl.SemanticVersion;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test memoized range checks
+ */
+public class MatchCacheTests
+{
+  @Test
+  public void testHits() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getSharedVersionFactory();
+    MatchCache cache = new MatchCache();
+    IVersionRange source = factory.getRange(">=1.0.0 <2.0.0 | 3.0.0");
+    IVersionRange range = cache.wrap(source);
+    String[] versions = {"0.9.0", "1.0.0", "1.5.0", "2.0.0", "3.0.0"};
+    boolean[] expected = {false, true, true, false, true};
+    for (int scan = 0; scan < 3; scan++) {
+      for (int i = 0; i < versions.length; i++) {
+        assertEquals(versions[i], expected[i], range.contains(factory.getVersion(versions[i])));
+      }
+    }
+    assertEquals(5, cache.getMisses());
+    assertEquals(10, cache.getHits());
+    assertEquals(5, cache.size());
+    assertEquals(2.0 / 3, cache.getHitRate(), 0.0001);
+    assertEquals(range, cache.wrap(source));
+    assertEquals(range, new MatchCache().wrap(source));
+    assertFalse(range.equals(source));
+    assertFalse(source.equals(range));
+    assertEquals(source.toString(), range.toString());
+  }
+
+  @Test
+  public void testVersionClasses() throws InvalidRangeException {
+    MatchCache cache = new MatchCache();
+    IVersionRange range = VersionFactory.getVersionFactory().getRange("1.2.3");
+    assertTrue(cache.contains(range, new SemanticVersion(1, 2, 3)));
+    assertFalse(cache.contains(range, VersionFactory.getVersionFactory().getVersion("1.2.3.4")));
+    assertTrue(cache.contains(range, new SemanticVersion(1, 2, 3)));
+    assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  public void testInvalidate() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getVersionFactory();
+    MatchCache cache = new MatchCache();
+    IVersionRange oldRange = factory.getRange("<1.0.0");
+    IVersionRange wrapped = cache.wrap(oldRange);
+    IVersion version = new SemanticVersion(1, 5, 0);
+    assertFalse(wrapped.contains(version));
+    assertEquals(1, cache.size());
+
+    IVersionRange newRange = cache.replace(oldRange, factory.getRange("<2.0.0"));
+    assertEquals(0, cache.size());
+    assertTrue(newRange.contains(version));
+    assertFalse(wrapped.contains(version));
+    assertEquals(0, cache.getHits());
+    assertTrue(newRange.contains(version));
+    assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  public void testBounded() throws InvalidRangeException {
+    MatchCache cache = new MatchCache(2);
+    IVersionRange range = cache.wrap(VersionFactory.getVersionFactory().getRange(">1.0.0"));
+    for (int i = 0; i < 5; i++) {
+      assertTrue(range.contains(new SemanticVersion(2, i, 0)));
+    }
+    assertEquals(2, cache.size());
+
+    // No more ranges are remembered either
+    for (int i = 0; i < 5; i++) {
+      IVersionRange other = VersionFactory.getVersionFactory().getRange(">" + i + ".0.0");
+      assertTrue(cache.contains(other, new SemanticVersion(9, 0, 0)));
+      assertTrue(cache.contains(other, new SemanticVersion(9, 0, 0)));
+    }
+    assertEquals(2, cache.size());
+    assertEquals(0, cache.getHits());
+  }
+
+  /**
+   * Invalidating ranges while they are being filled must not leave results
+   * counted that are no longer there.
+   */
+  @Test
+  public void testInvalidateWhileFilling() throws Exception {
+    final MatchCache cache = new MatchCache();
+    final IVersionRange range = VersionFactory.getVersionFactory().getRange(">=1.0.0 <2.0.0");
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final int seed = t;
+      threads[t] = new Thread(new Runnable()
+      {
+        @Override
+        public void run() {
+          for (int i = 0; i < 20000; i++) {
+            if (seed == 0 && i % 10 == 0) {
+              cache.invalidate(range);
+            }
+            else {
+              cache.contains(range, new SemanticVersion(1, i % 500, seed));
+            }
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+}
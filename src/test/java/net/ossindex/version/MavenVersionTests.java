@@ -0,0 +1,198 @@
+package net.ossindex.version;
+
+import java.util.Random;
+
+import net.ossindex.version.impl.MavenVersion;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Maven versions order the way Maven's ComparableVersion orders them
+ */
+public class MavenVersionTests
+{
+  /**
+   * Qualifiers, from the ComparableVersion test suite. Each version is lower
+   * than the next.
+   */
+  private static final String[] QUALIFIERS = {
+      "1-alpha2snapshot", "1-alpha2", "1-alpha-123", "1-beta-2", "1-beta123", "1-m2", "1-m11", "1-rc", "1-cr2",
+      "1-rc123", "1-SNAPSHOT", "1", "1-sp", "1-sp2", "1-sp123", "1-abc", "1-def", "1-pom-1", "1-1-snapshot", "1-1",
+      "1-2", "1-123"
+  };
+
+  /**
+   * Numbers, from the ComparableVersion test suite
+   */
+  private static final String[] NUMBERS = {
+      "2.0", "2-1", "2.0.a", "2.0.0.a", "2.0.2", "2.0.123", "2.1.0", "2.1-a", "2.1b", "2.1-c", "2.1-1", "2.1.0.1",
+      "2.2", "2.123", "11.a2", "11.a11", "11.b2", "11.b11", "11.m2", "11.m11", "11", "11.a", "11b", "11c", "11m"
+  };
+
+  @Test
+  public void testQualifierOrder() throws InvalidRangeException {
+    assertOrder(QUALIFIERS);
+  }
+
+  @Test
+  public void testNumberOrder() throws InvalidRangeException {
+    assertOrder(NUMBERS);
+  }
+
+  @Test
+  public void testEqual() throws InvalidRangeException {
+    assertEqual("1", "1.0");
+    assertEqual("1", "1.0.0");
+    assertEqual("1", "1-0");
+    assertEqual("1", "1.0-0");
+    assertEqual("1a", "1-a");
+    assertEqual("1a", "1.0.0-a");
+    assertEqual("1.0x", "1-x");
+    assertEqual("1", "1-ga");
+    assertEqual("1", "1-final");
+    assertEqual("1", "1.RELEASE");
+    assertEqual("1cr", "1rc");
+    assertEqual("1a1", "1-alpha-1");
+    assertEqual("1b2", "1-beta-2");
+    assertEqual("1m3", "1-milestone-3");
+    assertEqual("1X", "1x");
+    assertEqual("1-SNAPSHOT", "1-snapshot");
+    assertEqual("1.0.0-007", "1-7");
+  }
+
+  @Test
+  public void testNotEqual() throws InvalidRangeException {
+    assertOrder("1-1", "1.1");
+    assertOrder("1.a", "1-a");
+    assertOrder("1.a1", "1.a");
+    assertOrder("6.1.0rc3", "6.1.0", "6.1H.5-beta");
+  }
+
+  /**
+   * Numbers too long for an int or a long
+   */
+  @Test
+  public void testLongNumbers() throws InvalidRangeException {
+    assertOrder("1", "2147483648", "9223372036854775807", "9223372036854775808", "123456789012345678901234567890");
+    assertEqual("0002147483648", "2147483648.0");
+  }
+
+  /**
+   * Maven compares a sub-list with a missing item by its first item only
+   */
+  @Test
+  public void testMissingItems() throws InvalidRangeException {
+    assertOrder("1", "1.0.1");
+    assertOrder("1.ga.alpha", "1");
+    assertOrder("1", "1.ga.1");
+    assertOrder("1-alpha.1", "1");
+    assertEquivalent("1-0.1", "1");
+    assertEquivalent("1-ga.1", "1");
+    assertOrder("1-0-alpha", "1");
+  }
+
+  /**
+   * Random versions made of the pieces Maven treats specially
+   */
+  @Test
+  public void testRandom() throws InvalidRangeException {
+    Random random = new Random(7);
+    String[] versions = randomVersions(random, 2000);
+    for (int i = 0; i + 1 < versions.length; i++) {
+      for (int j = i + 1; j < i + 20 && j < versions.length; j++) {
+        String v1 = versions[i];
+        String v2 = versions[j];
+        int expected = Integer.signum(new ComparableVersion(v1).compareTo(new ComparableVersion(v2)));
+        assertEquals(v1 + " " + v2, expected, Integer.signum(new MavenVersion(v1).compareTo(new MavenVersion(v2))));
+        assertEquals(v1 + " " + v2, new ComparableVersion(v1).equals(new ComparableVersion(v2)),
+            new MavenVersion(v1).equals(new MavenVersion(v2)));
+      }
+    }
+  }
+
+  public static String[] randomVersions(Random random, int count) {
+    String[] pieces = {
+        "0", "1", "2", "10", "007", "a", "b", "m", "alpha", "beta", "milestone", "rc", "cr", "snapshot", "SNAPSHOT", "ga",
+        "final", "release", "sp", "abc", "x", ""
+    };
+    String[] separators = {".", "-", ""};
+    String[] versions = new String[count];
+    for (int i = 0; i < count; i++) {
+      StringBuilder sb = new StringBuilder();
+      sb.append(random.nextInt(3));
+      int length = random.nextInt(6);
+      for (int j = 0; j < length; j++) {
+        sb.append(separators[random.nextInt(separators.length)]);
+        sb.append(pieces[random.nextInt(pieces.length)]);
+      }
+      versions[i] = sb.toString();
+    }
+    return versions;
+  }
+
+  @Test
+  public void testParts() throws InvalidRangeException {
+    MavenVersion version = new MavenVersion("3.2.8.RELEASE");
+    assertEquals(3, version.getMajor());
+    assertEquals(2, version.getMinor());
+    assertEquals(8, version.getPatch());
+    assertEquals(0, version.getBuild());
+    assertTrue(version.isStable());
+    assertFalse(new MavenVersion("1.0-SNAPSHOT").isStable());
+    assertFalse(new MavenVersion("1.0-beta-1").isStable());
+    assertTrue(new MavenVersion("1.0-sp1").isStable());
+    assertEquals("1.0-SNAPSHOT", new MavenVersion("1.0-SNAPSHOT").toString());
+  }
+
+  @Test
+  public void testRange() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getVersionFactory();
+    IVersionRange range = factory.getRange("maven", "[1.0-alpha,1.0]");
+    assertEquals("maven", range.getType());
+    assertTrue(range.contains(factory.getVersion("maven", "1.0-alpha")));
+    assertTrue(range.contains(factory.getVersion("maven", "1.0-milestone-2")));
+    assertTrue(range.contains(factory.getVersion("maven", "1.0-SNAPSHOT")));
+    assertTrue(range.contains(factory.getVersion("maven", "1.0.0")));
+    assertFalse(range.contains(factory.getVersion("maven", "1.0-sp1")));
+    assertFalse(range.contains(factory.getVersion("maven", "1.0.1")));
+
+    range = factory.getRange("mvn", "(,1.0-SNAPSHOT),[2.0,3.0-beta)");
+    assertTrue(range.contains(factory.getVersion("maven", "1.0-rc2")));
+    assertFalse(range.contains(factory.getVersion("maven", "1.0-SNAPSHOT")));
+    assertTrue(range.contains(factory.getVersion("maven", "2.0-sp")));
+    assertTrue(range.contains(factory.getVersion("maven", "3-alpha")));
+    assertFalse(range.contains(factory.getVersion("maven", "3.0.0-beta")));
+
+    range = factory.getRange("maven", "[1.2]");
+    assertTrue(range.contains(factory.getVersion("maven", "1.2.0")));
+    assertFalse(range.contains(factory.getVersion("maven", "1.2.1")));
+    assertTrue(factory.getRange("maven", "1.2-ga").contains(factory.getVersion("maven", "1.2")));
+  }
+
+  private static void assertOrder(String... versions) throws InvalidRangeException {
+    for (int i = 0; i < versions.length; i++) {
+      for (int j = 0; j < versions.length; j++) {
+        int cmp = new MavenVersion(versions[i]).compareTo(new MavenVersion(versions[j]));
+        assertEquals(versions[i] + " " + versions[j], Integer.signum(i - j), Integer.signum(cmp));
+      }
+    }
+  }
+
+  private static void assertEqual(String v1, String v2) throws InvalidRangeException {
+    assertEquivalent(v1, v2);
+    assertEquals(new MavenVersion(v1), new MavenVersion(v2));
+    assertEquals(new MavenVersion(v1).hashCode(), new MavenVersion(v2).hashCode());
+  }
+
+  /**
+   * The same in order, whether or not equal
+   */
+  private static void assertEquivalent(String v1, String v2) throws InvalidRangeException {
+    assertEquals(v1 + " " + v2, 0, new MavenVersion(v1).compareTo(new MavenVersion(v2)));
+    assertEquals(v1 + " " + v2, 0, new MavenVersion(v2).compareTo(new MavenVersion(v1)));
+  }
+}
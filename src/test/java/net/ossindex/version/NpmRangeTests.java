@@ -0,0 +1,169 @@
+package net.ossindex.version;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.ossindex.version.impl.NpmRange;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test npm ranges match the way node-semver matches them. The cases are taken
+ * from the node-semver test fixtures.
+ */
+public class NpmRangeTests
+{
+  private static final String[][] INCLUDE = {
+      {"1.0.0 - 2.0.0", "1.2.3"}, {"^1.2.3+build", "1.2.3"}, {"^1.2.3+build", "1.3.0"},
+      {"1.2.3-pre+asdf - 2.4.3-pre+asdf", "1.2.3"}, {"1.2.3-pre+asdf - 2.4.3-pre+asdf", "1.2.3-pre.2"},
+      {"1.2.3-pre+asdf - 2.4.3-pre+asdf", "2.4.3-alpha"}, {"1.2.3+asdf - 2.4.3+asdf", "1.2.3"},
+      {"1.0.0", "1.0.0"}, {">=*", "0.2.4"}, {"", "1.0.0"}, {"*", "1.2.3"}, {">=1.0.0", "1.0.0"},
+      {">=1.0.0", "1.0.1"}, {">1.0.0", "1.0.1"}, {"<=2.0.0", "2.0.0"}, {"<=2.0.0", "0.2.9"},
+      {"<2.0.0", "1.9999.9999"}, {">= 1.0.0", "1.0.0"}, {"> 1.0.0", "1.1.0"}, {"0.1.20 || 1.2.4", "1.2.4"},
+      {">=0.2.3 || <0.0.1", "0.0.0"}, {">=0.2.3 || <0.0.1", "0.2.3"}, {"||", "1.3.4"}, {"2.x.x", "2.1.3"},
+      {"1.2.x", "1.2.3"}, {"1.2.x || 2.x", "2.1.3"}, {"x", "1.2.3"}, {"2.*.*", "2.1.3"}, {"2", "2.1.2"},
+      {"2.3", "2.3.1"}, {"~0.0.1", "0.0.1"}, {"~0.0.1", "0.0.2"}, {"~x", "0.0.9"}, {"~2", "2.0.9"},
+      {"~2.4", "2.4.0"}, {"~2.4", "2.4.5"}, {"~>3.2.1", "3.2.2"}, {"~1", "1.2.3"}, {"~>1", "1.2.3"},
+      {"~> 1", "1.2.3"}, {"~1.0", "1.0.2"}, {"~ 1.0", "1.0.2"}, {"~ 1.0.3", "1.0.12"}, {">=1", "1.0.0"},
+      {">= 1", "1.0.0"}, {"<1.2", "1.1.1"}, {"< 1.2", "1.1.1"}, {"~v0.5.4-pre", "0.5.5"},
+      {"~v0.5.4-pre", "0.5.4"}, {"=0.7.x", "0.7.2"}, {"<=0.7.x", "0.7.2"}, {">=0.7.x", "0.7.2"},
+      {"<=0.7.x", "0.6.2"}, {"~1.2.1 >=1.2.3", "1.2.3"}, {"~1.2.1 =1.2.3", "1.2.3"}, {"~1.2.1 1.2.3", "1.2.3"},
+      {">=1.2.1 1.2.3", "1.2.3"}, {"1.2.3 >=1.2.1", "1.2.3"}, {">=1.2.3 >=1.2.1", "1.2.3"},
+      {">=1.2.1 >=1.2.3", "1.2.3"}, {">=1.2", "1.2.8"}, {"^1.2.3", "1.8.1"}, {"^0.1.2", "0.1.2"},
+      {"^0.1", "0.1.2"}, {"^0.0.1", "0.0.1"}, {"^1.2", "1.4.2"}, {"^1.2 ^1", "1.4.2"},
+      {"^1.2.3-alpha", "1.2.3-pre"}, {"^1.2.0-alpha", "1.2.0-pre"}, {"^0.0.1-alpha", "0.0.1-beta"},
+      {"^0.0.1-alpha", "0.0.1"}, {"^0.1.1-alpha", "0.1.1-beta"}, {"^x", "1.2.3"}, {"x - 1.0.0", "0.9.7"},
+      {"x - 1.x", "0.9.7"}, {"1.0.0 - x", "1.9.7"}, {"1.x - x", "1.9.7"}, {"<=7.x", "7.9.9"}
+  };
+
+  private static final String[][] EXCLUDE = {
+      {"1.0.0 - 2.0.0", "2.2.3"}, {"1.2.3+asdf - 2.4.3+asdf", "1.2.3-pre.2"},
+      {"1.2.3+asdf - 2.4.3+asdf", "2.4.3-alpha"}, {"^1.2.3+build", "2.0.0"}, {"^1.2.3+build", "1.2.0"},
+      {"^1.2.3", "1.2.3-pre"}, {"^1.2", "1.2.0-pre"}, {">1.2", "1.3.0-beta"}, {"<=1.2.3", "1.2.3-beta"},
+      {"^1.2.3", "1.2.3-beta"}, {"=0.7.x", "0.7.0-asdf"}, {">=0.7.x", "0.7.0-asdf"}, {"<=0.7.x", "0.7.0-asdf"},
+      {"1.0.0", "1.0.1"}, {">=1.0.0", "0.0.0"}, {">=1.0.0", "0.0.1"}, {">=1.0.0", "0.1.0"}, {">1.0.0", "0.0.1"},
+      {">1.0.0", "0.1.0"}, {"<=2.0.0", "3.0.0"}, {"<=2.0.0", "2.9999.9999"}, {"<=2.0.0", "2.2.9"},
+      {"<2.0.0", "2.9999.9999"}, {"<2.0.0", "2.2.9"}, {">=0.1.97", "0.1.93"}, {"0.1.20 || 1.2.4", "1.2.3"},
+      {">=0.2.3 || <0.0.1", "0.0.3"}, {">=0.2.3 || <0.0.1", "0.2.2"}, {"2.x.x", "1.1.3"}, {"2.x.x", "3.1.3"},
+      {"1.2.x", "1.3.3"}, {"1.2.x || 2.x", "3.1.3"}, {"1.2.x || 2.x", "1.1.3"}, {"2.*.*", "1.1.3"},
+      {"2.*.*", "3.1.3"}, {"1.2.*", "1.3.3"}, {"1.2.* || 2.*", "3.1.3"}, {"2", "1.1.2"}, {"2.3", "2.4.1"},
+      {"~0.0.1", "0.1.0-alpha"}, {"~0.0.1", "0.1.0"}, {"~2.4", "2.5.0"}, {"~2.4", "2.3.9"},
+      {"~>3.2.1", "3.3.2"}, {"~>3.2.1", "3.2.0"}, {"~1", "0.2.3"}, {"~>1", "2.2.3"}, {"~1.0", "1.1.0"},
+      {"<1", "1.0.0"}, {">=1.2", "1.1.1"}, {"~v0.5.4-beta", "0.5.4-alpha"}, {"=0.7.x", "0.8.2"},
+      {">=0.7.x", "0.6.2"}, {"<0.7.x", "0.7.2"}, {"<1.2.3", "1.2.3-beta"}, {"=1.2.3", "1.2.3-beta"},
+      {">1.2", "1.2.8"}, {"^0.0.1", "0.0.2-alpha"}, {"^0.0.1", "0.0.2"}, {"^1.2.3", "2.0.0-alpha"},
+      {"^1.2.3", "1.2.2"}, {"^1.2", "1.1.9"}, {"*", "v1.2.3-foo"}, {"^1.0.0", "2.0.0-rc1"},
+      {"1 - 2", "2.0.0-pre"}, {"1 - 2", "1.0.0-pre"}, {"1.0 - 2", "1.0.0-pre"}, {"1.1.x", "1.0.0-a"},
+      {"1.1.x", "1.1.0-a"}, {"1.1.x", "1.2.0-a"}, {"1.x", "1.0.0-a"}, {"1.x", "1.1.0-a"}, {"1.x", "1.2.0-a"},
+      {">=1.0.0 <1.1.0", "1.1.0"}, {">=1.0.0 <1.1.0", "1.1.0-pre"}, {">=1.0.0 <1.1.0-pre", "1.1.0-pre"},
+      {"<*", "1.0.0"}, {">x", "0.0.0"}
+  };
+
+  @Test
+  public void testInclude() throws InvalidRangeException {
+    for (String[] test : INCLUDE) {
+      IVersionRange range = getRange(test[0]);
+      assertTrue(test[0] + " " + test[1], range.contains(getVersion(test[1])));
+    }
+  }
+
+  @Test
+  public void testExclude() throws InvalidRangeException {
+    for (String[] test : EXCLUDE) {
+      IVersionRange range = getRange(test[0]);
+      assertFalse(test[0] + " " + test[1], range.contains(getVersion(test[1])));
+    }
+  }
+
+  /**
+   * Versions from the default parser match too
+   */
+  @Test
+  public void testSemanticVersions() throws InvalidRangeException {
+    IVersionRange range = getRange("^1.2.3 || 3.x");
+    assertTrue(range.contains(VersionFactory.getVersionFactory().getVersion("1.4.0")));
+    assertTrue(range.contains(VersionFactory.getVersionFactory().getVersion("3.1.0")));
+    assertFalse(range.contains(VersionFactory.getVersionFactory().getVersion("2.0.0")));
+  }
+
+  @Test
+  public void testNormalize() throws InvalidRangeException {
+    assertEquals(">=1.2.3 <2.0.0-0", getRange("^1.2.3").toString());
+    assertEquals(">=0.0.3 <0.0.4-0", getRange("^0.0.3").toString());
+    assertEquals(">=1.2.0 <3.0.0-0", getRange("1.2 - 2").toString());
+    assertEquals(">=1.0.0 <2.0.0-0 || >=2.5.0", getRange("1.x || >= 2.5.0").toString());
+    assertEquals("*", getRange("").toString());
+    assertEquals(">=1.2.0 <1.3.0-0", getRange("~1.2").toString());
+    assertEquals("npm", getRange("1.x").getType());
+    assertEquals(getRange("^1.2.3"), getRange(">=1.2.3 <2.0.0-0"));
+  }
+
+  @Test
+  public void testMerge() throws InvalidRangeException {
+    NpmRange range = getRange("1.x || 2.x || ^2.5.0 || 4.x");
+    assertEquals("[1.0.0,3.0.0-0),[4.0.0,5.0.0-0)", range.toMavenString());
+    assertFalse(range.isSimple());
+    assertTrue(getRange("1.x || 2.x").isSimple());
+  }
+
+  @Test
+  public void testMaxSatisfying() throws InvalidRangeException {
+    List<IVersion> versions = new ArrayList<IVersion>();
+    for (String v : new String[]{"1.0.0", "1.2.3", "1.2.4-beta", "1.3.0", "2.0.0-rc1", "2.0.0", "3.0.0"}) {
+      versions.add(getVersion(v));
+    }
+    assertEquals(getVersion("1.3.0"), getRange("^1.2.3").maxSatisfying(versions));
+    assertEquals(getVersion("1.3.0"), getRange("^1.2.4-beta").maxSatisfying(versions));
+    assertEquals(getVersion("1.2.4-beta"), getRange("1.2.4-beta").maxSatisfying(versions));
+    assertEquals(getVersion("2.0.0-rc1"), getRange("~1.2.3 || >=2.0.0-rc1 <2.0.0").maxSatisfying(versions));
+    assertEquals(getVersion("3.0.0"), getRange("*").maxSatisfying(versions));
+    assertEquals(getVersion("2.0.0-rc1"), getRange("<1.2.3 || 2.0.0-rc1").maxSatisfying(versions));
+    assertEquals(getVersion("1.0.0"), getRange("<1.2.3 || 2.0.0-rc2").maxSatisfying(versions));
+    assertNull(getRange(">=3.1").maxSatisfying(versions));
+    assertNull(getRange("<1.0.0").maxSatisfying(versions));
+  }
+
+  @Test
+  public void testInvalid() {
+    for (String invalid : new String[]{"foo", ">=01.2.3", "~=1.0", "1.2.3-beta..1", "1.2.3.4", "1.2-beta", ">=",
+        "1.2.3 -"}) {
+      try {
+        getRange(invalid);
+        fail(invalid);
+      }
+      catch (InvalidRangeException e) {
+        // Expected
+      }
+    }
+    for (String invalid : new String[]{"1.2", "1.x.3", "01.2.3", "1.2.3-01"}) {
+      try {
+        getVersion(invalid);
+        fail(invalid);
+      }
+      catch (InvalidRangeException e) {
+        // Expected
+      }
+    }
+  }
+
+  @Test
+  public void testHints() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getStrictVersionFactory();
+    for (String hint : new String[]{"npm", "node", "NodeJS", "yarn"}) {
+      assertTrue(factory.getRange(hint, "~1.2").contains(factory.getVersion(hint, "v1.2.9")));
+    }
+  }
+
+  private static NpmRange getRange(String range) throws InvalidRangeException {
+    return (NpmRange) VersionFactory.getStrictVersionFactory().getRange("npm", range);
+  }
+
+  private static IVersion getVersion(String version) throws InvalidRangeException {
+    return VersionFactory.getStrictVersionFactory().getVersion("npm", version);
+  }
+}
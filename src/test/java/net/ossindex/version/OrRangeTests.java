@@ -0,0 +1,76 @@
+package net.ossindex.version;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.ossindex.version.impl.AndRange;
+import net.ossindex.version.impl.OrRange;
+import net.ossindex.version.impl.SemanticVersion;
+import net.ossindex.version.impl.VersionRange;
+import net.ossindex.version.impl.VersionSet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test unions of many children
+ */
+public class OrRangeTests
+{
+  @Test
+  public void testKeepsEqualMinimums() throws InvalidRangeException {
+    OrRange range = new OrRange(new VersionRange("<", new SemanticVersion(1, 0, 0)),
+        new VersionRange("<=", new SemanticVersion(0, 5, 0)));
+    assertEquals(2, range.size());
+
+    range = new OrRange(new VersionSet(new SemanticVersion(1, 0, 0)),
+        new VersionRange(">=", new SemanticVersion(1, 0, 0)));
+    assertEquals(2, range.size());
+  }
+
+  @Test
+  public void testLargeUnion() throws InvalidRangeException {
+    Random random = new Random(5);
+    List<IVersionRange> children = new ArrayList<IVersionRange>();
+    for (int i = 0; i < 300; i++) {
+      int major = random.nextInt(20);
+      int minor = random.nextInt(10);
+      switch (random.nextInt(4)) {
+        case 0:
+          children.add(new VersionSet(new SemanticVersion(major, minor, 1)));
+          break;
+        case 1:
+          children.add(new AndRange(new VersionRange(">=", new SemanticVersion(major, minor, 0)),
+              new VersionRange("<", new SemanticVersion(major, minor + random.nextInt(3) + 1, 0))));
+          break;
+        case 2:
+          children.add(new VersionRange("<", new SemanticVersion(0, minor, 0)));
+          break;
+        default:
+          children.add(VersionFactory.getVersionFactory().getRange(">" + major + "." + minor + ".5 <" + major + "." + minor + ".9 | foo"));
+          break;
+      }
+    }
+    children.add(new VersionRange(">", new SemanticVersion(19, 9, 9)));
+    OrRange range = new OrRange(children);
+    assertEquals(children.size(), range.size());
+
+    List<IVersion> versions = new ArrayList<IVersion>();
+    for (int i = 0; i < 1000; i++) {
+      versions.add(new SemanticVersion(random.nextInt(22), random.nextInt(12), random.nextInt(10)));
+    }
+    versions.add(VersionFactory.getVersionFactory().getVersion("foo"));
+    versions.add(VersionFactory.getVersionFactory().getVersion("bar"));
+    versions.add(VersionFactory.getVersionFactory().getVersion("3.4.5.6"));
+    for (IVersion version : versions) {
+      boolean expected = false;
+      for (IVersionRange child : children) {
+        expected |= child.contains(version);
+      }
+      assertEquals(version.toString(), expected, range.contains(version));
+    }
+    assertTrue(range.contains(VersionFactory.getVersionFactory().getVersion("foo")));
+  }
+}
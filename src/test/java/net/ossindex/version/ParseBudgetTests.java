@@ -0,0 +1,88 @@
+package net.ossindex.version;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import net.ossindex.version.impl.NamedVersion;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test that garbage input is parsed in bounded time
+ */
+public class ParseBudgetTests
+{
+  private static final String ALPHABET = "0123456789....---___|||<>=~^&,,[]() abcxyzABC+";
+
+  @Test
+  public void testTooLong() throws InvalidRangeException {
+    ParseBudget budget = new ParseBudget(10, 100, 10000, 0);
+    IVersionRange range = VersionFactory.getVersionFactory().withBudget(budget).getRange("1.2.3-abcdefghijk");
+    assertTrue(range.hasErrors());
+    assertEquals("1.2.3-abcdefghijk", range.toString());
+    assertTrue(((NamedVersion) range.getMinimum()).isOpaque());
+    assertFalse(new NamedVersion("abcdefghijk").isOpaque());
+    try {
+      VersionFactory.getStrictVersionFactory().withBudget(budget).getRange("1.2.3-abcdefghijk");
+      fail();
+    }
+    catch (InvalidRangeException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testTooManyTokens() throws InvalidRangeException {
+    ParseBudget budget = new ParseBudget(1000, 4, 10000, 0);
+    VersionFactory factory = VersionFactory.getVersionFactory().withBudget(budget);
+    assertFalse(factory.getRange("1.2").hasErrors());
+    assertTrue(factory.getRange("1.2.3").hasErrors());
+  }
+
+  @Test
+  public void testTooManySteps() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getVersionFactory().withBudget(new ParseBudget(1000, 100, 5, 0));
+    IVersionRange range = factory.getRange("1.2.3-beta.4");
+    assertTrue(range.hasErrors());
+    assertEquals("1.2.3-beta.4", range.toString());
+    assertFalse(VersionFactory.getVersionFactory().getRange("1.2.3-beta.4").hasErrors());
+
+    // Kept as is, though it is not a valid named version
+    range = factory.getRange(">=1.2.3 <2.0.0");
+    assertTrue(range.hasErrors());
+    assertEquals(">=1.2.3 <2.0.0", range.toString());
+  }
+
+  /**
+   * Parse random garbage and check the worst times stay bounded.
+   */
+  @Test
+  public void testWorstCaseLatency() {
+    VersionFactory factory = VersionFactory.getVersionFactory().withBudget(ParseBudget.DEFAULT);
+    Random random = new Random(42);
+    int count = 300;
+    long[] times = new long[count];
+    for (int i = 0; i < count; i++) {
+      StringBuilder sb = new StringBuilder();
+      int length = 1 + random.nextInt(i % 10 == 0 ? 5000 : 200);
+      for (int j = 0; j < length; j++) {
+        sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+      }
+      long start = System.nanoTime();
+      try {
+        factory.getRange(sb.toString());
+      }
+      catch (InvalidRangeException e) {
+        // Garbage is allowed to be rejected
+      }
+      times[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(times);
+    long p9999 = times[(int) Math.ceil(count * 0.9999) - 1];
+    assertTrue("p99.99 parse time " + p9999 / 1000000 + "ms", p9999 < 2000L * 1000000);
+  }
+}
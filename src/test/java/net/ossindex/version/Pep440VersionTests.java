@@ -0,0 +1,185 @@
+package net.ossindex.version;
+
+import net.ossindex.version.impl.Pep440Version;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test Python versions order and match the way PEP 440 says
+ */
+public class Pep440VersionTests
+{
+  /**
+   * Each version is lower than the next, mostly from the examples in PEP 440
+   */
+  private static final String[] ORDERED = {
+      "0.9", "1.0.dev456", "1.0a1", "1.0a2.dev456", "1.0a12.dev456", "1.0a12", "1.0b1.dev456", "1.0b2",
+      "1.0b2.post345.dev456", "1.0b2.post345", "1.0rc1.dev456", "1.0rc1", "1.0", "1.0+abc.5", "1.0+abc.7", "1.0+5",
+      "1.0.post456.dev34", "1.0.post456", "1.0.15", "1.1.dev1", "10.0", "1!0.1"
+  };
+
+  @Test
+  public void testOrder() throws InvalidRangeException {
+    for (int i = 0; i < ORDERED.length; i++) {
+      for (int j = 0; j < ORDERED.length; j++) {
+        int cmp = new Pep440Version(ORDERED[i]).compareTo(new Pep440Version(ORDERED[j]));
+        assertEquals(ORDERED[i] + " " + ORDERED[j], Integer.signum(i - j), Integer.signum(cmp));
+      }
+    }
+  }
+
+  @Test
+  public void testNormalize() throws InvalidRangeException {
+    String[][] pairs = {{"1.0.post1", "1.0-1"}, {"1.0.post1", "1.0post1"}, {"1.0.post1", "1.0.POST1"},
+        {"1.0.post1", "1.0-r1"}, {"1.0.post1", "1.0rev1"}, {"1.0a1", "V1.0ALPHA1"}, {"1.0a1", "1.0.a.1"},
+        {"1.0rc1", "1.0c1"}, {"1.0rc1", "1.0-preview-1"}, {"1.0b0", "1.0beta"}, {"1.0.dev0", "1.0.dev"},
+        {"1.0.post0", "1.0.post"}, {"1.0", "0!1.0"}, {"1!2.0", "1!2.0"}, {"1.1", "1.01"},
+        {"1.0+abc.1.2", "1.0+ABC-1_2"}};
+    for (String[] pair : pairs) {
+      assertEquals(pair[0], new Pep440Version(pair[1]).toString());
+      assertEquals(new Pep440Version(pair[0]), new Pep440Version(pair[1]));
+    }
+    // Trailing zeroes do not change the order
+    assertEquals(new Pep440Version("1"), new Pep440Version("1.0.0"));
+    assertEquals(new Pep440Version("1").hashCode(), new Pep440Version("1.0.0").hashCode());
+    assertEquals("1.0.0", new Pep440Version("1.0.0").toString());
+  }
+
+  @Test
+  public void testParts() throws InvalidRangeException {
+    Pep440Version v = new Pep440Version("2!1.2.3.4rc5.post6.dev7+ubuntu.8");
+    assertEquals(2, v.getEpoch());
+    assertEquals(1, v.getMajor());
+    assertEquals(2, v.getMinor());
+    assertEquals(3, v.getPatch());
+    assertEquals(4, v.getBuild());
+    assertEquals("rc5", v.getPreRelease());
+    assertEquals("6", v.getPostRelease());
+    assertEquals("7", v.getDevRelease());
+    assertEquals("ubuntu.8", v.getLocal());
+    assertFalse(v.isStable());
+    assertNull(new Pep440Version("1.0").getPreRelease());
+    assertTrue(new Pep440Version("1.0.post1").isStable());
+    assertFalse(new Pep440Version("1.0.dev1").isStable());
+    for (String invalid : new String[]{"", "abc", "1.0.", "1..0", "1.0+", "1.0+abc..1", "1.0 2", "1.0-dev-1-2"}) {
+      try {
+        new Pep440Version(invalid);
+        fail(invalid);
+      }
+      catch (InvalidRangeException e) {
+        // Expected
+      }
+    }
+  }
+
+  @Test
+  public void testSpecifierSet() throws InvalidRangeException {
+    IVersionRange range = getRange(">=1.0, !=1.3.*, <2.0");
+    assertEquals("pep440", range.getType());
+    assertMatches(range, "1.0", "1.0+local", "1.2.9", "1.4", "1.9.post1");
+    assertNotMatches(range, "0.9", "1.0rc1", "1.3", "1.3.1", "1.3a1", "2.0", "2.0a1");
+  }
+
+  @Test
+  public void testCompatible() throws InvalidRangeException {
+    assertMatches(getRange("~=2.2"), "2.2", "2.3", "2.9.post1");
+    assertNotMatches(getRange("~=2.2"), "2.1", "3.0", "3.0.dev0");
+    assertMatches(getRange("~= 1.4.5"), "1.4.5", "1.4.9");
+    assertNotMatches(getRange("~= 1.4.5"), "1.4.4", "1.5.0");
+    assertMatches(getRange("~=2.2.post3"), "2.2.post3", "2.3");
+    assertNotMatches(getRange("~=2.2.post3"), "2.2", "3.0");
+  }
+
+  @Test
+  public void testEquals() throws InvalidRangeException {
+    assertMatches(getRange("==1.*"), "1.0", "1.5a1", "1.dev0", "1.0+local", "1");
+    assertNotMatches(getRange("==1.*"), "0.9", "2.0.dev0", "1!1.0");
+    assertMatches(getRange("==1.0"), "1.0", "1.0.0", "1.0+abc");
+    assertNotMatches(getRange("==1.0"), "1.0.post1", "1.0a1");
+    assertMatches(getRange("==1.0+abc"), "1.0+abc");
+    assertNotMatches(getRange("==1.0+abc"), "1.0", "1.0+abd");
+    assertMatches(getRange("!=1.0"), "1.1", "0.9");
+    assertNotMatches(getRange("!=1.0"), "1.0", "1.0+abc");
+    assertMatches(getRange("!=1.*"), "0.9", "2.0");
+    assertNotMatches(getRange("!=1.*"), "1.0a1", "1.9");
+    assertMatches(getRange("===1.0"), "1.0");
+    assertNotMatches(getRange("===1.0"), "1.0.0", "1.0+abc");
+    assertMatches(getRange("===1.0+ABC"), "1.0+abc");
+  }
+
+  @Test
+  public void testExclusive() throws InvalidRangeException {
+    assertMatches(getRange(">1.7"), "1.7.1", "1.8.dev0");
+    assertNotMatches(getRange(">1.7"), "1.7", "1.7.post2", "1.7+abc");
+    assertMatches(getRange(">1.7.post2"), "1.7.post3");
+    assertNotMatches(getRange(">1.7.post2"), "1.7.post2+abc", "1.7.post3+abc");
+    assertMatches(getRange(">1.7a1"), "1.7a2", "1.7", "1.7.1.post1", "1.8+abc");
+    assertNotMatches(getRange(">1.7a1"), "1.7a1.post1", "1.7a2.post1", "1.7.post1", "1.7+abc", "1.7.0+abc");
+    assertMatches(getRange(">1.7.dev1"), "1.7.dev2", "1.7");
+    assertNotMatches(getRange(">1.7.dev1"), "1.7.post1");
+    assertMatches(getRange("<1.7"), "1.6", "1.6.post1");
+    assertNotMatches(getRange("<1.7"), "1.7a1", "1.7.dev0");
+    assertMatches(getRange("<1.7rc1"), "1.7b1");
+    assertMatches(getRange("<1.7.post1"), "1.7", "1.6.9rc1");
+    assertNotMatches(getRange("<1.7.post1"), "1.7rc1", "1.7.dev1", "1.7.post1.dev1", "1.7.post1");
+    assertMatches(getRange("<=1.7"), "1.7+abc");
+  }
+
+  @Test
+  public void testInvalid() throws InvalidRangeException {
+    for (String invalid : new String[]{"~=1", "==1.0a1.*", "<1.0+abc", ">=2.0, <1.0", "=>1.0", "==", "===abc"}) {
+      try {
+        getRange(invalid);
+        fail(invalid);
+      }
+      catch (InvalidRangeException e) {
+        // Expected
+      }
+    }
+  }
+
+  @Test
+  public void testHints() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getStrictVersionFactory();
+    for (String hint : new String[]{"pep440", "PyPI", "python", "pip"}) {
+      assertTrue(factory.getRange(hint, "~=1.0").contains(factory.getVersion(hint, "1.0.post1")));
+    }
+  }
+
+  /**
+   * "===" and "==" bounds print the same, but must not be shared
+   */
+  @Test
+  public void testSharedArbitrary() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getSharedVersionFactory();
+    IVersionRange equal = factory.getRange("pypi", "==7.3");
+    IVersionRange arbitrary = factory.getRange("pypi", "===7.3");
+    assertFalse(equal.equals(arbitrary));
+    assertMatches(equal, "7.3.0");
+    assertNotMatches(arbitrary, "7.3.0");
+    assertMatches(arbitrary, "7.3");
+  }
+
+  private static IVersionRange getRange(String range) throws InvalidRangeException {
+    return VersionFactory.getStrictVersionFactory().getRange("pypi", range);
+  }
+
+  private static void assertMatches(IVersionRange range, String... versions) throws InvalidRangeException {
+    for (String version : versions) {
+      IVersion v = VersionFactory.getStrictVersionFactory().getVersion("pypi", version);
+      assertTrue(range + " " + version, range.contains(v));
+    }
+  }
+
+  private static void assertNotMatches(IVersionRange range, String... versions) throws InvalidRangeException {
+    for (String version : versions) {
+      IVersion v = VersionFactory.getStrictVersionFactory().getVersion("pypi", version);
+      assertFalse(range + " " + version, range.contains(v));
+    }
+  }
+}
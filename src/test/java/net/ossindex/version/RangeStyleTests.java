@@ -0,0 +1,67 @@
+package net.ossindex.version;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test classifying range strings by style without parsing them
+ */
+public class RangeStyleTests
+{
+  private static final Object[][] STYLES = {
+      {"1.2.3", RangeStyle.VERSION},
+      {"1.2.3-beta", RangeStyle.VERSION},
+      {"foo", RangeStyle.VERSION},
+      {" 1.2.3 ", RangeStyle.VERSION},
+      {"1.2.3,1.2.4", RangeStyle.SET},
+      {"1.2.3, 1.2.4", RangeStyle.SET},
+      {"[1.0,2.0)", RangeStyle.MAVEN},
+      {"(,1.0]", RangeStyle.MAVEN},
+      {"[1.0]", RangeStyle.MAVEN},
+      {"[1.0,2.0),[3.0,)", RangeStyle.MAVEN},
+      {">=1.0.0 <2.0.0", RangeStyle.COMPARATOR},
+      {"<1.2.3", RangeStyle.COMPARATOR},
+      {">1.0.0, <2.0.0", RangeStyle.COMPARATOR},
+      {"(>1.0.0 <2.0.0)", RangeStyle.COMPARATOR},
+      {"~> 1.2", RangeStyle.PESSIMISTIC},
+      {"~> 1.2, >= 1.2.3", RangeStyle.PESSIMISTIC},
+      {"^1.2.3", RangeStyle.CARET},
+      {"<1.0.0 || >2.0.0", RangeStyle.UNION},
+      {"^1.2.3 | ~> 2.0", RangeStyle.UNION},
+      {"", RangeStyle.UNKNOWN},
+      {"   ", RangeStyle.UNKNOWN},
+      {"1.0 junk", RangeStyle.UNKNOWN},
+  };
+
+  @Test
+  public void testClassify() {
+    for (Object[] style : STYLES) {
+      assertEquals((String) style[0], style[1], RangeStyle.classify((String) style[0]));
+    }
+    assertEquals(RangeStyle.UNKNOWN, RangeStyle.classify(null));
+  }
+
+  @Test
+  public void testParsedType() throws InvalidRangeException {
+    for (Object[] style : STYLES) {
+      // Strings of no known style may not parse at all
+      if (style[1] == RangeStyle.UNKNOWN) {
+        continue;
+      }
+      String r = (String) style[0];
+      IVersionRange range = VersionFactory.getVersionFactory().getRange(r);
+      assertEquals(r, ((RangeStyle) style[1]).getType(), range.getType());
+    }
+  }
+
+  @Test
+  public void testIsMavenRange() throws InvalidRangeException {
+    assertTrue(VersionFactory.getVersionFactory().isMavenRange("[1.0,2.0)"));
+    assertTrue(VersionFactory.getVersionFactory().isMavenRange("[1.0]"));
+    assertFalse(VersionFactory.getVersionFactory().isMavenRange(">=1.0 <2.0"));
+    assertFalse(VersionFactory.getVersionFactory().isMavenRange("1.0"));
+  }
+}
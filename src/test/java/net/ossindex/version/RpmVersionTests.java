@@ -0,0 +1,326 @@
+package net.ossindex.version;
+
+import java.util.Random;
+
+import net.ossindex.version.impl.RpmVersion;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test RPM versions order the way rpmvercmp orders them
+ */
+public class RpmVersionTests
+{
+  /**
+   * Each version is lower than the next
+   */
+  private static final String[] ORDERED = {
+      "0.9", "1.0~rc1~git123", "1.0~rc1", "1.0", "1.0-1", "1.0-2", "1.0-10", "1.0^", "1.0^git1~pre", "1.0^git1",
+      "1.0^20160101", "1.0a", "1.0p1", "1.0.1", "1.1", "2.0", "10", "1:0.1", "1:0.2-1", "2:0.0"
+  };
+
+  @Test
+  public void testOrder() throws InvalidRangeException {
+    for (int i = 0; i < ORDERED.length; i++) {
+      for (int j = 0; j < ORDERED.length; j++) {
+        int cmp = new RpmVersion(ORDERED[i]).compareTo(new RpmVersion(ORDERED[j]));
+        assertEquals(ORDERED[i] + " " + ORDERED[j], Integer.signum(i - j), Integer.signum(cmp));
+        assertEquals(ORDERED[i] + " " + ORDERED[j], Integer.signum(i - j), evrcmp(ORDERED[i], ORDERED[j]));
+      }
+    }
+  }
+
+  /**
+   * Pairs from the rpm test suite
+   */
+  @Test
+  public void testRpmvercmp() throws InvalidRangeException {
+    assertOrder("1.0", "2.0");
+    assertOrder("2.0.1", "2.0.1a");
+    assertOrder("5.5p1", "5.5p10");
+    assertOrder("10xyz", "10.1xyz");
+    assertOrder("xyz.4", "8");
+    assertOrder("1.0~rc1", "1.0");
+    assertOrder("1.0~rc1~git123", "1.0~rc1");
+    assertOrder("1.0", "1.0^");
+    assertOrder("1.0", "1.0^git1");
+    assertOrder("1.0^git1", "1.01");
+    assertOrder("1.0^20160101", "1.0.1");
+    assertOrder("1.0^git1~pre", "1.0^git1");
+    assertOrder("1.0~rc1", "1.0~rc1^git1");
+    assertOrder("1b.fc17", "1.fc17");
+  }
+
+  private static void assertOrder(String lower, String higher) throws InvalidRangeException {
+    assertTrue(lower + " " + higher, new RpmVersion(lower).compareTo(new RpmVersion(higher)) < 0);
+    assertTrue(lower + " " + higher, new RpmVersion(higher).compareTo(new RpmVersion(lower)) > 0);
+    assertEquals(lower + " " + higher, -1, rpmvercmp(lower, higher));
+  }
+
+  @Test
+  public void testEqual() throws InvalidRangeException {
+    String[][] pairs = {{"2.0", "2_0"}, {"a+", "a_"}, {"1.0", "1.0."}, {"1.01", "1.1"}, {"1.0", "0:1.0"},
+        {"1.0-1", "1.0-01"}};
+    for (String[] pair : pairs) {
+      assertEquals(new RpmVersion(pair[0]), new RpmVersion(pair[1]));
+      assertEquals(new RpmVersion(pair[0]).hashCode(), new RpmVersion(pair[1]).hashCode());
+      assertEquals(0, evrcmp(pair[0], pair[1]));
+    }
+  }
+
+  /**
+   * The packed keys agree with rpmvercmp on random versions
+   */
+  @Test
+  public void testRandom() throws InvalidRangeException {
+    Random random = new Random(42);
+    String[] corpus = randomVersions(random, 500);
+    RpmVersion[] versions = new RpmVersion[corpus.length];
+    for (int i = 0; i < corpus.length; i++) {
+      versions[i] = new RpmVersion(corpus[i]);
+    }
+    for (int i = 0; i < corpus.length; i++) {
+      for (int j = 0; j < corpus.length; j++) {
+        assertEquals(corpus[i] + " " + corpus[j], evrcmp(corpus[i], corpus[j]),
+            Integer.signum(versions[i].compareTo(versions[j])));
+      }
+    }
+  }
+
+  @Test
+  public void testParts() throws InvalidRangeException {
+    RpmVersion v = new RpmVersion("2:1.2.3-4.el7");
+    assertEquals(2, v.getEpoch());
+    assertEquals("1.2.3", v.getVersion());
+    assertEquals("4.el7", v.getRelease());
+    assertEquals(1, v.getMajor());
+    assertEquals(2, v.getMinor());
+    assertEquals(3, v.getPatch());
+    assertEquals(0, v.getBuild());
+    assertTrue(v.isStable());
+    assertNull(new RpmVersion("1.0").getRelease());
+    assertFalse(new RpmVersion("1.0~rc1-1").isStable());
+    for (String invalid : new String[]{"a:1.0", ":1.0", "1:", "-1", "1.0-", "1.0 2"}) {
+      try {
+        new RpmVersion(invalid);
+        fail(invalid);
+      }
+      catch (InvalidRangeException e) {
+        // Expected
+      }
+    }
+  }
+
+  @Test
+  public void testRanges() throws InvalidRangeException {
+    VersionFactory factory = VersionFactory.getStrictVersionFactory();
+    IVersionRange range = factory.getRange("rpm", ">= 1.0-1, < 2.0");
+    assertEquals("rpm", range.getType());
+    assertTrue(range.contains(factory.getVersion("rpm", "1.0-1")));
+    assertTrue(range.contains(factory.getVersion("rpm", "1.5-3.el7")));
+    assertTrue(range.contains(factory.getVersion("rpm", "1.9.9")));
+    assertFalse(range.contains(factory.getVersion("rpm", "1.0-0.1")));
+    assertFalse(range.contains(factory.getVersion("rpm", "1:1.5")));
+    // Bounds without a release cover every release
+    assertFalse(range.contains(factory.getVersion("rpm", "2.0-1")));
+    assertTrue(range.contains(factory.getVersion("rpm", "2.0~rc1-1")));
+    assertTrue(factory.getRange("rhel", "= 1.0").contains(factory.getVersion("centos", "1.0-5.el8")));
+    assertFalse(factory.getRange("fedora", "= 1.0-5").contains(factory.getVersion("rpm", "1.0-6")));
+
+    range = factory.getRange("centos", "< 1.0 || > 2.0");
+    assertTrue(range.contains(factory.getVersion("rpm", "0.9-1")));
+    assertFalse(range.contains(factory.getVersion("rpm", "1.5")));
+    assertFalse(range.contains(factory.getVersion("rpm", "2.0-9")));
+    assertTrue(range.contains(factory.getVersion("rpm", "2.0.1")));
+
+    // A bound without a release covers every release of its version
+    assertTrue(factory.getRange("rpm", "= 1.0, > 1.0-5").contains(factory.getVersion("rpm", "1.0-6")));
+    assertTrue(factory.getRange("rpm", "<= 1.0, >= 1.0-5").contains(factory.getVersion("rpm", "1.0-6")));
+    for (String disjoint : new String[]{"> 2.0, < 1.0", "> 1.0, <= 1.0", "= 1.0, < 1.0", "> 1.0, <= 1.0-5", "= 1.0, = 2.0"}) {
+      try {
+        factory.getRange("rpm", disjoint);
+        fail(disjoint);
+      }
+      catch (InvalidRangeException e) {
+        // Expected
+      }
+    }
+  }
+
+  /**
+   * Random versions built from the characters rpmvercmp treats specially, some
+   * with epochs and releases.
+   */
+  public static String[] randomVersions(Random random, int count) {
+    String chars = "0123456789abzAZ.._~^+";
+    String[] results = new String[count];
+    for (int i = 0; i < count; i++) {
+      StringBuilder sb = new StringBuilder();
+      if (random.nextInt(10) == 0) {
+        sb.append(random.nextInt(3)).append(':');
+      }
+      int length = 1 + random.nextInt(8);
+      for (int j = 0; j < length; j++) {
+        sb.append(chars.charAt(random.nextInt(chars.length())));
+      }
+      if (random.nextBoolean()) {
+        sb.append('-').append(random.nextInt(20));
+        if (random.nextBoolean()) {
+          sb.append(".el").append(6 + random.nextInt(3));
+        }
+      }
+      results[i] = sb.toString();
+    }
+    return results;
+  }
+
+  /**
+   * Compare two "[epoch:]version[-release]" strings the way rpm does, except
+   * that a missing release sorts first instead of matching any release.
+   */
+  public static int evrcmp(String evr1, String evr2) {
+    String[] p1 = splitEvr(evr1);
+    String[] p2 = splitEvr(evr2);
+    int cmp = Integer.signum(Integer.parseInt(p1[0]) - Integer.parseInt(p2[0]));
+    if (cmp == 0) {
+      cmp = rpmvercmp(p1[1], p2[1]);
+    }
+    if (cmp == 0) {
+      if (p1[2] != null && p2[2] != null) {
+        cmp = rpmvercmp(p1[2], p2[2]);
+      }
+      else if (p1[2] != null || p2[2] != null) {
+        cmp = p1[2] == null ? -1 : 1;
+      }
+    }
+    return cmp;
+  }
+
+  private static String[] splitEvr(String evr) {
+    int colon = evr.indexOf(':');
+    int dash = evr.lastIndexOf('-');
+    String epoch = colon >= 0 ? evr.substring(0, colon) : "0";
+    String version = dash > colon ? evr.substring(colon + 1, dash) : evr.substring(colon + 1);
+    String release = dash > colon ? evr.substring(dash + 1) : null;
+    return new String[]{epoch, version, release};
+  }
+
+  /**
+   * rpmvercmp from rpm's lib/rpmvercmp.c, walking both strings a segment at a
+   * time. Returns -1, 0 or 1.
+   */
+  public static int rpmvercmp(String a, String b) {
+    if (a.equals(b)) {
+      return 0;
+    }
+    int i = 0;
+    int j = 0;
+    int la = a.length();
+    int lb = b.length();
+    while (i < la || j < lb) {
+      while (i < la && !isAlnum(a.charAt(i)) && a.charAt(i) != '~' && a.charAt(i) != '^') {
+        i++;
+      }
+      while (j < lb && !isAlnum(b.charAt(j)) && b.charAt(j) != '~' && b.charAt(j) != '^') {
+        j++;
+      }
+      boolean tildeA = i < la && a.charAt(i) == '~';
+      boolean tildeB = j < lb && b.charAt(j) == '~';
+      if (tildeA || tildeB) {
+        if (!tildeA) {
+          return 1;
+        }
+        if (!tildeB) {
+          return -1;
+        }
+        i++;
+        j++;
+        continue;
+      }
+      boolean caretA = i < la && a.charAt(i) == '^';
+      boolean caretB = j < lb && b.charAt(j) == '^';
+      if (caretA || caretB) {
+        if (i >= la) {
+          return -1;
+        }
+        if (j >= lb) {
+          return 1;
+        }
+        if (!caretA) {
+          return 1;
+        }
+        if (!caretB) {
+          return -1;
+        }
+        i++;
+        j++;
+        continue;
+      }
+      if (i >= la || j >= lb) {
+        break;
+      }
+      int startA = i;
+      int startB = j;
+      boolean numeric = isDigit(a.charAt(i));
+      if (numeric) {
+        while (i < la && isDigit(a.charAt(i))) {
+          i++;
+        }
+        while (j < lb && isDigit(b.charAt(j))) {
+          j++;
+        }
+      }
+      else {
+        while (i < la && isAlpha(a.charAt(i))) {
+          i++;
+        }
+        while (j < lb && isAlpha(b.charAt(j))) {
+          j++;
+        }
+      }
+      if (startB == j) {
+        return numeric ? 1 : -1;
+      }
+      if (numeric) {
+        while (startA < i && a.charAt(startA) == '0') {
+          startA++;
+        }
+        while (startB < j && b.charAt(startB) == '0') {
+          startB++;
+        }
+      }
+      String segA = a.substring(startA, i);
+      String segB = b.substring(startB, j);
+      if (numeric) {
+        if (segA.length() != segB.length()) {
+          return segA.length() > segB.length() ? 1 : -1;
+        }
+      }
+      int cmp = segA.compareTo(segB);
+      if (cmp != 0) {
+        return cmp > 0 ? 1 : -1;
+      }
+    }
+    if (i >= la && j >= lb) {
+      return 0;
+    }
+    return i >= la ? -1 : 1;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isAlpha(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static boolean isAlnum(char c) {
+    return isDigit(c) || isAlpha(c);
+  }
+}
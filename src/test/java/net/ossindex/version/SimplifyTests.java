@@ -0,0 +1,69 @@
+package net.ossindex.version;
+
+import net.ossindex.version.impl.AndRange;
+import net.ossindex.version.impl.OrRange;
+import net.ossindex.version.impl.SemanticVersion;
+import net.ossindex.version.impl.VersionRange;
+import net.ossindex.version.impl.VersionSet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that simplified ranges are equivalent and smaller
+ */
+public class SimplifyTests
+{
+  private IVersionRange parse(String range) throws InvalidRangeException {
+    return VersionFactory.getVersionFactory().getRange(range);
+  }
+
+  private void assertEquivalent(IVersionRange range, IVersionRange simple) {
+    for (int major = 0; major < 8; major++) {
+      for (int minor = 0; minor < 4; minor++) {
+        IVersion version = new SemanticVersion(major, minor, 0);
+        assertEquals(range + " / " + simple + ": " + version, range.contains(version), simple.contains(version));
+      }
+    }
+  }
+
+  @Test
+  public void testMergeIntervals() throws InvalidRangeException {
+    IVersionRange range = parse(">=1.0.0 <2.0.0 | >=2.0.0 <3.0.0 | 2.5.0 | >=5.0.0 <6.0.0 | >=5.5.0 <7.0.0");
+    IVersionRange simple = range.getSimplifiedRange();
+    assertEquivalent(range, simple);
+    assertEquals(2, ((OrRange) simple).size());
+  }
+
+  @Test
+  public void testRedundantBounds() throws InvalidRangeException {
+    VersionRange v1 = new VersionRange(">", new SemanticVersion(1, 0, 0));
+    VersionRange v2 = new VersionRange(">=", new SemanticVersion(2, 0, 0));
+    VersionRange v3 = new VersionRange("<", new SemanticVersion(5, 0, 0));
+    VersionRange v4 = new VersionRange("<=", new SemanticVersion(6, 0, 0));
+    IVersionRange range = new AndRange(new AndRange(v1, v3), new AndRange(v2, v4));
+    IVersionRange simple = range.getSimplifiedRange();
+    assertEquivalent(range, simple);
+    assertEquals(">=2.0.0 <5.0.0", simple.toString());
+  }
+
+  @Test
+  public void testSetIntersection() throws InvalidRangeException {
+    VersionSet set = new VersionSet(new SemanticVersion(1, 0, 0));
+    set.add(new SemanticVersion(3, 0, 0));
+    set.add(new SemanticVersion(4, 0, 0));
+    IVersionRange range = new AndRange(set, parse(">2.0.0"));
+    IVersionRange simple = range.getSimplifiedRange();
+    assertEquivalent(range, simple);
+    assertEquals("3.0.0,4.0.0", simple.toString());
+  }
+
+  @Test
+  public void testSetsUnchanged() throws InvalidRangeException {
+    IVersionRange range = parse("1.0.0,1.1.0,1.2.0,1.3.0,1.4.0,1.5.0");
+    assertSame(range, range.getSimplifiedRange());
+    assertTrue(range.contains(new SemanticVersion(1, 3, 0)));
+  }
+}
@@ -0,0 +1,184 @@
+package net.ossindex.version;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.ossindex.version.impl.OrRange;
+import net.ossindex.version.impl.SemanticVersion;
+import net.ossindex.version.impl.VersionSet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test joining lists of ranges into a single union
+ */
+public class UnionTests
+{
+  private static final String[] RANGES = {
+      ">=1.0.0 <1.2.0", ">=1.1.0 <1.3.0", "1.3.0", ">1.3.0 <1.4.0", "2.0.0", "2.1.0", "foo", "<0.5.0",
+      "<0.2.0", ">5.0.0", ">=4.0.0 <=5.0.0", "3.0.0,3.0.1", ">1.2.5.1 <1.2.5.4"
+  };
+
+  private void checkSame(IVersionRange[] expected, IVersionRange actual) throws InvalidRangeException {
+    List<IVersion> versions = new ArrayList<IVersion>();
+    for (int major = 0; major < 7; major++) {
+      for (int minor = 0; minor < 6; minor++) {
+        for (int patch = 0; patch < 3; patch++) {
+          versions.add(new SemanticVersion(major, minor, patch));
+        }
+      }
+    }
+    for (String v : new String[]{"foo", "bar", "1.2.5.2", "1.3.0-beta", "0.5.0-rc.1", "5.0.0"}) {
+      versions.add(VersionFactory.getVersionFactory().getVersion(v));
+    }
+    for (IVersion version : versions) {
+      boolean contains = false;
+      for (IVersionRange range : expected) {
+        contains |= range.contains(version);
+      }
+      assertEquals(actual + " on " + version, contains, actual.contains(version));
+    }
+  }
+
+  @Test
+  public void testMatchesEachRange() throws InvalidRangeException {
+    IVersionRange[] ranges = new IVersionRange[RANGES.length];
+    for (int i = 0; i < RANGES.length; i++) {
+      ranges[i] = VersionFactory.getVersionFactory().getRange(RANGES[i]);
+    }
+    checkSame(ranges, VersionFactory.getVersionFactory().getRange(RANGES));
+  }
+
+  @Test
+  public void testFlat() throws InvalidRangeException {
+    IVersionRange range = VersionFactory.getVersionFactory().getRange(RANGES);
+    assertTrue(range instanceof OrRange);
+    for (IVersionRange child : Arrays.asList(((OrRange) range).first(), ((OrRange) range).last())) {
+      assertTrue(child.toString(), !(child instanceof OrRange));
+    }
+    // <0.5.0, [1.0.0,1.4.0), the 1.2.5.x range, [4.0.0,inf) and one set
+    assertEquals(5, ((OrRange) range).size());
+  }
+
+  @Test
+  public void testMergesIntervals() throws InvalidRangeException {
+    IVersionRange range = VersionFactory.getVersionFactory().getRange(Arrays.asList(">=1.0.0 <1.2.0", ">=1.1.0 <1.3.0"));
+    assertEquals(">=1.0.0 <1.3.0", range.toString());
+
+    range = VersionFactory.getVersionFactory().getRange(Arrays.asList(">1.0.0 <2.0.0", "1.0.0", "2.0.0"));
+    assertEquals(">=1.0.0 <=2.0.0", range.toString());
+  }
+
+  @Test
+  public void testCollectsVersions() throws InvalidRangeException {
+    IVersionRange range = VersionFactory.getVersionFactory().getRange(Arrays.asList("1.0.0", "foo", "2.0.0,3.0.0"));
+    assertTrue(range instanceof VersionSet);
+    assertEquals(4, ((VersionSet) range).getVersions().size());
+  }
+
+  @Test
+  public void testManyRanges() throws InvalidRangeException {
+    List<String> ranges = new ArrayList<String>();
+    for (int i = 0; i < 500; i++) {
+      ranges.add(">=" + i + ".0.0 <" + i + ".5.0");
+      ranges.add(i + ".7.0");
+    }
+    IVersionRange range = VersionFactory.getVersionFactory().getRange(ranges);
+    assertEquals(501, ((OrRange) range).size());
+    assertTrue(range.contains(new SemanticVersion(250, 4, 9)));
+    assertTrue(range.contains(new SemanticVersion(499, 7, 0)));
+    assertTrue(!range.contains(new SemanticVersion(250, 6, 0)));
+  }
+
+  /**
+   * Parse on a thread with a small stack, so parsing that recurses once per
+   * entry fails even on lists of a few hundred entries.
+   */
+  private static IVersionRange parseOnSmallStack(final String s) throws Exception {
+    final Object[] result = new Object[1];
+    Thread thread = new Thread(null, new Runnable()
+    {
+      @Override
+      public void run() {
+        try {
+          result[0] = VersionFactory.getVersionFactory().getRange(s);
+        }
+        catch (Throwable e) {
+          result[0] = e;
+        }
+      }
+    }, "small-stack", 256 * 1024);
+    thread.start();
+    thread.join();
+    if (result[0] instanceof Exception) {
+      throw (Exception) result[0];
+    }
+    if (result[0] instanceof Throwable) {
+      throw new AssertionError(result[0]);
+    }
+    return (IVersionRange) result[0];
+  }
+
+  @Test
+  public void testLongVersionList() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      if (i > 0) {
+        sb.append(i % 2 == 0 ? "," : ", ");
+      }
+      sb.append("1.0.").append(i * 2);
+    }
+    IVersionRange range = parseOnSmallStack(sb.toString());
+    assertTrue(range instanceof VersionSet);
+    assertEquals(200, ((VersionSet) range).size());
+    assertFalse(range.hasErrors());
+    for (int i = 0; i < 400; i += 7) {
+      assertEquals(Integer.toString(i), i % 2 == 0, range.contains(new SemanticVersion(1, 0, i)));
+    }
+  }
+
+  @Test
+  public void testLongUnionChain() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      if (i > 0) {
+        sb.append(" || ");
+      }
+      if (i % 3 == 0) {
+        sb.append("1.").append(i).append(".5");
+      }
+      else {
+        sb.append(">=1.").append(i).append(".0 <1.").append(i).append(".2");
+      }
+    }
+    IVersionRange range = parseOnSmallStack(sb.toString());
+    assertTrue(range instanceof OrRange);
+    assertFalse(range.hasErrors());
+    for (int i = 0; i < 200; i += 7) {
+      assertEquals(Integer.toString(i), i % 3 != 0, range.contains(new SemanticVersion(1, i, 1)));
+      assertEquals(Integer.toString(i), i % 3 == 0, range.contains(new SemanticVersion(1, i, 5)));
+    }
+  }
+
+  @Test
+  public void testLongListFallsBack() throws InvalidRangeException {
+    StringBuilder sb = new StringBuilder("[1.0,2.0)");
+    for (int i = 0; i < 100; i++) {
+      sb.append(",[3.").append(i).append(",3.").append(i).append(".5)");
+    }
+    IVersionRange range = VersionFactory.getVersionFactory().getRange(sb.toString());
+    assertTrue(range.contains(new SemanticVersion(1, 5, 0)));
+    assertTrue(range.contains(new SemanticVersion(3, 50, 1)));
+    assertFalse(range.contains(new SemanticVersion(3, 50, 6)));
+  }
+
+  @Test
+  public void testEmpty() throws InvalidRangeException {
+    assertNull(VersionFactory.getVersionFactory().getRange(new String[0]));
+  }
+}
@@ -0,0 +1,91 @@
+package net.ossindex.version;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.ossindex.version.impl.ImmutableVersionSet;
+import net.ossindex.version.impl.SemanticVersion;
+import net.ossindex.version.impl.VersionSet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the array backed immutable version sets against the tree backed one
+ */
+public class VersionSetTests
+{
+  private static final String[] QUERIES = {
+      "0.1.0", "1.0.0", "1.0.1", "1.2.3", "1.2.3.4", "1.2.3.5", "2.0.0", "9.9.9", "foo", "bar", "zap"
+  };
+
+  @Test
+  public void testSameAnswers() throws InvalidRangeException {
+    String[][] sets = {
+        {"1.2.3"},
+        {"foo"},
+        {"1.0.0", "1.2.3", "foo"},
+        {"1.2.3", "1.2.3.4", "2.0.0"},
+        {"0.1.0", "0.2.0", "0.3.0", "1.0.0", "1.0.1", "1.2.3", "1.2.3.4", "2.0.0", "3.0.0", "foo", "zap"},
+    };
+    for (String[] versions : sets) {
+      VersionSet set = toSet(versions);
+      ImmutableVersionSet compact = ImmutableVersionSet.of(set.getVersions(), set.getType(), false);
+      ImmutableVersionSet array = new ImmutableVersionSet(set.getVersions(), set.getType(), false);
+      assertEquals(set.toString(), compact.toString());
+      assertEquals(set.toString(), array.toString());
+      assertEquals(set, compact);
+      assertEquals(set.hashCode(), compact.hashCode());
+      assertEquals(set.getMinimum(), compact.getMinimum());
+      assertEquals(set.getMaximum(), compact.getMaximum());
+      for (String q : QUERIES) {
+        IVersion version = VersionFactory.getVersionFactory().getVersion(q);
+        assertEquals(set + " " + q, set.contains(version), compact.contains(version));
+        assertEquals(set + " " + q, set.contains(version), array.contains(version));
+      }
+    }
+  }
+
+  @Test
+  public void testLarge() {
+    List<IVersion> versions = new ArrayList<IVersion>();
+    for (int i = 0; i < 1000; i += 2) {
+      versions.add(new SemanticVersion(1, i, 0));
+    }
+    ImmutableVersionSet set = ImmutableVersionSet.of(versions, null, false);
+    assertEquals(500, set.size());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i % 2 == 0, set.contains(new SemanticVersion(1, i, 0)));
+    }
+  }
+
+  @Test
+  public void testUnion() throws InvalidRangeException {
+    VersionSet set1 = toSet(new String[]{"1.0.0", "1.2.3", "foo"});
+    VersionSet set2 = toSet(new String[]{"1.2.3", "1.2.3.4", "2.0.0", "bar"});
+    ImmutableVersionSet union = ImmutableVersionSet.union(set1, set2);
+    assertEquals(toSet(new String[]{"1.0.0", "1.2.3", "1.2.3.4", "2.0.0", "bar", "foo"}), union);
+    assertEquals(6, union.size());
+  }
+
+  @Test
+  public void testIntersection() throws InvalidRangeException {
+    VersionSet set1 = toSet(new String[]{"1.0.0", "1.2.3", "1.2.3.4", "foo"});
+    VersionSet set2 = toSet(new String[]{"1.2.3", "1.2.3.4", "2.0.0", "foo"});
+    ImmutableVersionSet intersection = ImmutableVersionSet.intersection(set1, set2);
+    assertEquals(toSet(new String[]{"1.2.3", "1.2.3.4", "foo"}), intersection);
+    assertTrue(intersection.contains(new SemanticVersion(1, 2, 3)));
+    assertFalse(intersection.contains(new SemanticVersion(1, 0, 0)));
+    assertEquals(0, ImmutableVersionSet.intersection(set1, toSet(new String[]{"3.0.0"})).size());
+  }
+
+  private static VersionSet toSet(String[] versions) throws InvalidRangeException {
+    VersionSet set = new VersionSet();
+    for (String v : versions) {
+      set.add(VersionFactory.getVersionFactory().getVersion(v));
+    }
+    return set;
+  }
+}
@@ -0,0 +1,135 @@
+package net.ossindex.version.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+import net.ossindex.version.InvalidRangeException;
+import net.ossindex.version.VersionFactory;
+import net.ossindex.version.impl.BatchMatcher;
+import net.ossindex.version.impl.SemanticVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the batch matcher against calling contains for every (version, range) pair.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BatchMatcherBenchmark
+{
+  @Param({"50"})
+  public int packages;
+
+  @Param({"20", "200"})
+  public int versionsPerPackage;
+
+  @Param({"20", "200"})
+  public int rangesPerPackage;
+
+  private Map<String, List<IVersion>> versions;
+
+  private Map<String, List<IVersionRange>> ranges;
+
+  private BatchMatcher matcher;
+
+  @Setup
+  public void setup() throws InvalidRangeException {
+    Random random = new Random(42);
+    versions = new HashMap<String, List<IVersion>>();
+    ranges = new HashMap<String, List<IVersionRange>>();
+    for (int p = 0; p < packages; p++) {
+      String name = "pkg" + p;
+      List<IVersion> list = new ArrayList<IVersion>();
+      for (int i = 0; i < versionsPerPackage; i++) {
+        list.add(new SemanticVersion(random.nextInt(5), random.nextInt(20), random.nextInt(20)));
+      }
+      versions.put(name, list);
+
+      List<IVersionRange> rlist = new ArrayList<IVersionRange>();
+      for (int i = 0; i < rangesPerPackage; i++) {
+        int major = random.nextInt(5);
+        int minor = random.nextInt(20);
+        String range;
+        switch (random.nextInt(3)) {
+          case 0:
+            range = ">=" + major + "." + minor + ".0 <" + major + "." + (minor + 1) + ".5";
+            break;
+          case 1:
+            range = "<" + major + "." + minor + ".3 | >=" + (major + 2) + ".0.0";
+            break;
+          default:
+            range = major + "." + minor + ".1," + major + "." + minor + ".2";
+            break;
+        }
+        rlist.add(VersionFactory.getVersionFactory().getRange(range));
+      }
+      ranges.put(name, rlist);
+    }
+    matcher = new BatchMatcher();
+  }
+
+  @TearDown
+  public void tearDown() {
+    matcher.close();
+  }
+
+  @Benchmark
+  public int naive() {
+    int count = 0;
+    for (Map.Entry<String, List<IVersion>> entry : versions.entrySet()) {
+      for (IVersionRange range : ranges.get(entry.getKey())) {
+        for (IVersion version : entry.getValue()) {
+          if (range.contains(version)) {
+            count++;
+          }
+        }
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int batch() {
+    int count = 0;
+    for (List<BatchMatcher.Match> matches : matcher.match(versions, ranges).values()) {
+      count += matches.size();
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int batchSingleThreaded() {
+    int count = 0;
+    for (Map.Entry<String, List<IVersion>> entry : versions.entrySet()) {
+      count += BatchMatcher.match(entry.getValue(), ranges.get(entry.getKey())).size();
+    }
+    return count;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(BatchMatcherBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,94 @@
+package net.ossindex.version.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import net.ossindex.version.IVersion;
+import net.ossindex.version.IVersionRange;
+import net.ossindex.version.InvalidRangeException;
+import net.ossindex.version.VersionFactory;
+import net.ossindex.version.impl.CompiledRange;
+import net.ossindex.version.impl.RangeCompiler;
+import net.ossindex.version.impl.SemanticVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare compiled ranges against the interpreted range tree. The ranges mix every
+ * kind of range node, so the interpreted contains call site is megamorphic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CompiledRangeBenchmark
+{
+  private static final String[] RANGES = {
+      "<1.2.5", ">=1.5.0", ">1.0.0 <2.0.0", "[1.2.5,1.5.0)", "1.2.6,3.1.4", "<1.0.0 | >2.0.0",
+      "^1.2.5", "1.2.6,1.2.7 | >=3.0.0", ">=0.1.0 <0.2.0 | >=0.3.0 <0.4.0 | >=1.1.0 <1.1.9 | 2.2.2"
+  };
+
+  private IVersionRange[] ranges;
+
+  private CompiledRange[] compiled;
+
+  private IVersion[] versions;
+
+  @Setup
+  public void setup() throws InvalidRangeException {
+    ranges = new IVersionRange[RANGES.length];
+    compiled = new CompiledRange[RANGES.length];
+    for (int i = 0; i < RANGES.length; i++) {
+      ranges[i] = VersionFactory.getVersionFactory().getRange(RANGES[i]);
+      compiled[i] = RangeCompiler.compile(ranges[i]);
+    }
+    Random random = new Random(42);
+    versions = new IVersion[256];
+    for (int i = 0; i < versions.length; i++) {
+      versions[i] = new SemanticVersion(random.nextInt(4), random.nextInt(10), random.nextInt(10));
+    }
+  }
+
+  @Benchmark
+  public int interpreted() {
+    int count = 0;
+    for (IVersionRange range : ranges) {
+      for (IVersion version : versions) {
+        if (range.contains(version)) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int compiled() {
+    int count = 0;
+    for (CompiledRange range : compiled) {
+      for (IVersion version : versions) {
+        if (range.contains(version)) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(CompiledRangeBenchmark.class.getSimpleName()).build()).run();
+  }
+}
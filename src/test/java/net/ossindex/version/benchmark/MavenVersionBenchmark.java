@@ -0,0 +1,119 @@
+package net.ossindex.version.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import net.ossindex.version.InvalidRangeException;
+import net.ossindex.version.impl.MavenVersion;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare sorting Maven versions by their keys against sorting them with
+ * Maven's own ComparableVersion, which walks its item lists on every
+ * comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MavenVersionBenchmark
+{
+  private static final String[] QUALIFIERS = {
+      "-SNAPSHOT", "-alpha-", "-beta-", "-M", "-RC", ".Final", ".RELEASE", "-sp", "-jre", ""
+  };
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  private String[] corpus;
+
+  private ComparableVersion[] reference;
+
+  private MavenVersion[] versions;
+
+  @Setup
+  public void setup() throws InvalidRangeException {
+    Random random = new Random(42);
+    corpus = new String[size];
+    for (int i = 0; i < size; i++) {
+      StringBuilder sb = new StringBuilder();
+      sb.append(random.nextInt(6)).append('.').append(random.nextInt(20));
+      if (random.nextBoolean()) {
+        sb.append('.').append(random.nextInt(20));
+      }
+      String qualifier = QUALIFIERS[random.nextInt(QUALIFIERS.length)];
+      sb.append(qualifier);
+      if (qualifier.endsWith("-") || qualifier.endsWith("M") || qualifier.endsWith("RC")) {
+        sb.append(1 + random.nextInt(5));
+      }
+      corpus[i] = sb.toString();
+    }
+    reference = new ComparableVersion[size];
+    versions = new MavenVersion[size];
+    for (int i = 0; i < size; i++) {
+      reference[i] = new ComparableVersion(corpus[i]);
+      versions[i] = new MavenVersion(corpus[i]);
+    }
+  }
+
+  @Benchmark
+  public ComparableVersion[] sortReference() {
+    ComparableVersion[] copy = reference.clone();
+    Arrays.sort(copy);
+    return copy;
+  }
+
+  @Benchmark
+  public MavenVersion[] sortKeys() {
+    MavenVersion[] copy = versions.clone();
+    Arrays.sort(copy);
+    return copy;
+  }
+
+  /**
+   * Includes parsing the versions
+   */
+  @Benchmark
+  public ComparableVersion[] parseAndSortReference() {
+    ComparableVersion[] copy = new ComparableVersion[corpus.length];
+    for (int i = 0; i < corpus.length; i++) {
+      copy[i] = new ComparableVersion(corpus[i]);
+    }
+    Arrays.sort(copy);
+    return copy;
+  }
+
+  /**
+   * Includes building the keys
+   */
+  @Benchmark
+  public MavenVersion[] parseAndSortKeys() throws InvalidRangeException {
+    MavenVersion[] copy = new MavenVersion[corpus.length];
+    for (int i = 0; i < corpus.length; i++) {
+      copy[i] = new MavenVersion(corpus[i]);
+    }
+    Arrays.sort(copy);
+    return copy;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(MavenVersionBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,118 @@
+package net.ossindex.version.benchmark;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import net.ossindex.version.InvalidRangeException;
+import net.ossindex.version.RpmVersionTests;
+import net.ossindex.version.impl.RpmVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare sorting RPM versions by their packed keys against sorting the
+ * strings with a string walking rpmvercmp.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RpmVersionBenchmark
+{
+  private static final Comparator<String> RPMVERCMP = new Comparator<String>()
+  {
+    @Override
+    public int compare(String v1, String v2) {
+      return RpmVersionTests.evrcmp(v1, v2);
+    }
+  };
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  private String[] corpus;
+
+  private RpmVersion[] versions;
+
+  @Setup
+  public void setup() throws InvalidRangeException {
+    Random random = new Random(42);
+    corpus = new String[size];
+    for (int i = 0; i < size; i++) {
+      StringBuilder sb = new StringBuilder();
+      if (random.nextInt(20) == 0) {
+        sb.append(1 + random.nextInt(2)).append(':');
+      }
+      sb.append(random.nextInt(5)).append('.').append(random.nextInt(30)).append('.').append(random.nextInt(30));
+      switch (random.nextInt(8)) {
+        case 0:
+          sb.append("~rc").append(1 + random.nextInt(3));
+          break;
+        case 1:
+          sb.append("^git").append(random.nextInt(1000));
+          break;
+        case 2:
+          sb.append('p').append(random.nextInt(10));
+          break;
+        default:
+          break;
+      }
+      sb.append('-').append(random.nextInt(20)).append(".el").append(6 + random.nextInt(4));
+      if (random.nextInt(4) == 0) {
+        sb.append('_').append(random.nextInt(10));
+      }
+      corpus[i] = sb.toString();
+    }
+    versions = new RpmVersion[size];
+    for (int i = 0; i < size; i++) {
+      versions[i] = new RpmVersion(corpus[i]);
+    }
+  }
+
+  @Benchmark
+  public String[] sortStrings() {
+    String[] copy = corpus.clone();
+    Arrays.sort(copy, RPMVERCMP);
+    return copy;
+  }
+
+  @Benchmark
+  public RpmVersion[] sortKeys() {
+    RpmVersion[] copy = versions.clone();
+    Arrays.sort(copy);
+    return copy;
+  }
+
+  /**
+   * Includes building the keys
+   */
+  @Benchmark
+  public RpmVersion[] parseAndSortKeys() throws InvalidRangeException {
+    RpmVersion[] copy = new RpmVersion[corpus.length];
+    for (int i = 0; i < corpus.length; i++) {
+      copy[i] = new RpmVersion(corpus[i]);
+    }
+    Arrays.sort(copy);
+    return copy;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(RpmVersionBenchmark.class.getSimpleName()).build()).run();
+  }
+}